@@ -1,5 +1,6 @@
 package controllers;
 
+import domain.BackboneAlgorithm;
 import domain.RailLine;
 import domain.RailNode;
 import graph.Graph;
@@ -12,4 +13,8 @@ public class MinimalBackboneController {
     public Graph<RailNode, RailLine> computeMinimalBackbone(Graph<RailNode, RailLine> graph) {
         return service.computeMinimalBackbone(graph);
     }
+
+    public Graph<RailNode, RailLine> computeMinimalBackbone(Graph<RailNode, RailLine> graph, BackboneAlgorithm algorithm) {
+        return service.computeMinimalBackbone(graph, algorithm);
+    }
 }
@@ -15,6 +15,10 @@ public class StationIndexController {
         service.loadFromCSV(path);
     }
 
+    public void loadCSV(String path, String snapshotPath) {
+        service.loadFromCSV(path, snapshotPath);
+    }
+
     public Iterable<Station> queryByTZ(String tz) {
         return service.getStationsByTZGroup(tz);
     }
@@ -0,0 +1,10 @@
+package domain;
+
+public enum BackboneAlgorithm {
+
+    PRIM,
+
+    KRUSKAL,
+
+    BORUVKA
+}
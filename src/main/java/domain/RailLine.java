@@ -4,6 +4,9 @@ public class RailLine {
 
     private final String fromStationId;
     private final String toStationId;
+    private final StationIds ids;   // table the station ids were interned in, null if none
+    private final int fromIndex;    // interned station ids, -1 if not interned
+    private final int toIndex;
     private final double distance;
     private final int capacity;
     private final double cost;
@@ -16,6 +19,26 @@ public class RailLine {
 
         this.fromStationId = fromStationId;
         this.toStationId = toStationId;
+        this.ids = null;
+        this.fromIndex = -1;
+        this.toIndex = -1;
+        this.distance = distance;
+        this.capacity = capacity;
+        this.cost = cost;
+    }
+
+    public RailLine(String fromStationId,
+                    String toStationId,
+                    double distance,
+                    int capacity,
+                    double cost,
+                    StationIds ids) {
+
+        this.ids = ids;
+        this.fromIndex = ids.intern(fromStationId);
+        this.toIndex = ids.intern(toStationId);
+        this.fromStationId = ids.canonical(fromStationId);
+        this.toStationId = ids.canonical(toStationId);
         this.distance = distance;
         this.capacity = capacity;
         this.cost = cost;
@@ -29,6 +52,18 @@ public class RailLine {
         return toStationId;
     }
 
+    public int getFromIndex() {
+        return fromIndex;
+    }
+
+    public int getToIndex() {
+        return toIndex;
+    }
+
+    public StationIds getStationIds() {
+        return ids;
+    }
+
     public double getDistance() {
         return distance;
     }
@@ -0,0 +1,31 @@
+package domain;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Numeric weights that can be extracted from a RailLine for path algorithms.
+ */
+public enum RailLineWeight implements ToDoubleFunction<RailLine> {
+
+    DISTANCE {
+        @Override
+        public double applyAsDouble(RailLine line) {
+            return line.getDistance();
+        }
+    },
+
+    COST {
+        @Override
+        public double applyAsDouble(RailLine line) {
+            return line.getCost();
+        }
+    },
+
+    // lines with more capacity are cheaper to route through
+    INVERSE_CAPACITY {
+        @Override
+        public double applyAsDouble(RailLine line) {
+            return line.getCapacity() > 0 ? 1.0 / line.getCapacity() : Double.POSITIVE_INFINITY;
+        }
+    }
+}
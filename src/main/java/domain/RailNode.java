@@ -1,8 +1,13 @@
 package domain;
 
+import java.util.Objects;
+
+// Stations are equal when their ids are equal, so nodes from different loads can be mixed
 public class RailNode {
 
     private final String id;
+    private final StationIds ids;   // table the id was interned in, null if none
+    private final int index;        // interned id, -1 if not interned
     private final String name;
     private final double lat;
     private final double lon;
@@ -14,6 +19,23 @@ public class RailNode {
                     double x, double y) {
 
         this.id = id;
+        this.ids = null;
+        this.index = -1;
+        this.name = name;
+        this.lat = lat;
+        this.lon = lon;
+        this.x = x;
+        this.y = y;
+    }
+
+    public RailNode(String id, String name,
+                    double lat, double lon,
+                    double x, double y,
+                    StationIds ids) {
+
+        this.ids = ids;
+        this.index = ids.intern(id);
+        this.id = ids.canonical(id);
         this.name = name;
         this.lat = lat;
         this.lon = lon;
@@ -22,6 +44,8 @@ public class RailNode {
     }
 
     public String getId() { return id; }
+    public int getIndex() { return index; }
+    public StationIds getStationIds() { return ids; }
     public String getName() { return name; }
     public double getLat() { return lat; }
     public double getLon() { return lon; }
@@ -32,6 +56,18 @@ public class RailNode {
         return id + " | " + name;
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof RailNode)) return false;
+        return id.equals(((RailNode) o).id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(id);
+    }
+
     @Override
     public String toString() {
         return id + " | " + name;
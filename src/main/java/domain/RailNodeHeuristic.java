@@ -0,0 +1,43 @@
+package domain;
+
+import java.util.function.ToDoubleBiFunction;
+
+/**
+ * Lower bounds of the distance between two stations, for A* searches.
+ * A bound is admissible only when it is in the same unit as the line weight
+ * and never exceeds the length of any route between the stations.
+ */
+public enum RailNodeHeuristic implements ToDoubleBiFunction<RailNode, RailNode> {
+
+    // great-circle distance in km from lat/lon, for RailLineWeight.DISTANCE
+    GREAT_CIRCLE {
+        @Override
+        public double applyAsDouble(RailNode a, RailNode b) {
+            double dLat = Math.toRadians(b.getLat() - a.getLat());
+            double dLon = Math.toRadians(b.getLon() - a.getLon());
+            double h = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                    + Math.cos(Math.toRadians(a.getLat())) * Math.cos(Math.toRadians(b.getLat()))
+                    * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+            return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(h)));
+        }
+    },
+
+    // straight line between the projected x/y coordinates, in their own unit
+    EUCLIDEAN {
+        @Override
+        public double applyAsDouble(RailNode a, RailNode b) {
+            return Math.hypot(b.getX() - a.getX(), b.getY() - a.getY());
+        }
+    },
+
+    // no estimate: A* behaves as Dijkstra, for any weight
+    NONE {
+        @Override
+        public double applyAsDouble(RailNode a, RailNode b) {
+            return 0;
+        }
+    };
+
+    // mean radius, slightly below the equatorial one so the bound stays low
+    private static final double EARTH_RADIUS_KM = 6371.0;
+}
@@ -0,0 +1,65 @@
+package domain;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interned station ids: every distinct id string gets a dense int index
+ * (0, 1, 2, ...) that never changes, and one canonical String instance.
+ * A table is meant for one load: stations and lines read with the same table
+ * share indexes, so they can be joined by int instead of by string; reuse the
+ * table to load again with the same indexes.
+ * Safe to use from several threads; ids already interned are found without locking.
+ */
+public final class StationIds {
+
+    // an interned id and its index
+    private static final class Entry {
+        final int index;
+        final String id;
+
+        Entry(int index, String id) {
+            this.index = index;
+            this.id = id;
+        }
+    }
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final List<String> ids = new ArrayList<>();     // index -> id, guarded by this
+
+    // Index of an id, assigning the next free one if it is new
+    public int intern(String id) {
+        return entry(id).index;
+    }
+
+    // Index of an id, -1 if it was never interned
+    public int indexOf(String id) {
+        Entry e = entries.get(id);
+        return e == null ? -1 : e.index;
+    }
+
+    public synchronized String id(int index) {
+        return ids.get(index);
+    }
+
+    // Canonical instance of an id, interning it if needed
+    public String canonical(String id) {
+        return entry(id).id;
+    }
+
+    public synchronized int size() {
+        return ids.size();
+    }
+
+    private Entry entry(String id) {
+        Entry e = entries.get(id);
+        return e != null ? e : entries.computeIfAbsent(id, this::newEntry);
+    }
+
+    private synchronized Entry newEntry(String id) {
+        Entry e = new Entry(ids.size(), id);
+        ids.add(id);
+        return e;
+    }
+}
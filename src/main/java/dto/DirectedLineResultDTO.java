@@ -2,7 +2,9 @@ package dto;
 
 import domain.RailNode;
 import domain.RailLine;
+import graph.Graph;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 
@@ -16,6 +18,8 @@ public class DirectedLineResultDTO {
     private final Set<RailNode> cycleStations;
     private final Set<RailLine> cycleLinks;
     private final int cycleCount;
+    private final List<List<RailNode>> components;
+    private final Graph<Integer, Integer> condensation;
 
     public DirectedLineResultDTO(boolean hasCycle,
                                  List<RailNode> upgradeOrder,
@@ -23,11 +27,24 @@ public class DirectedLineResultDTO {
                                  Set<RailLine> cycleLinks,
                                  int cycleCount) {
 
+        this(hasCycle, upgradeOrder, cycleStations, cycleLinks, cycleCount, Collections.emptyList(), null);
+    }
+
+    public DirectedLineResultDTO(boolean hasCycle,
+                                 List<RailNode> upgradeOrder,
+                                 Set<RailNode> cycleStations,
+                                 Set<RailLine> cycleLinks,
+                                 int cycleCount,
+                                 List<List<RailNode>> components,
+                                 Graph<Integer, Integer> condensation) {
+
         this.hasCycle = hasCycle;
         this.upgradeOrder = upgradeOrder;
         this.cycleStations = cycleStations;
         this.cycleLinks = cycleLinks;
         this.cycleCount = cycleCount;
+        this.components = components;
+        this.condensation = condensation;
     }
 
     public boolean hasCycle() {
@@ -49,4 +66,14 @@ public class DirectedLineResultDTO {
     public int getCycleCount() {
         return cycleCount;
     }
+
+    // Strongly connected components, in topological order of the condensation
+    public List<List<RailNode>> getComponents() {
+        return components;
+    }
+
+    // Condensation DAG: vertex i is components.get(i), edge weight is the number of links between them
+    public Graph<Integer, Integer> getCondensation() {
+        return condensation;
+    }
 }
@@ -1,5 +1,6 @@
 package graph;
 
+import graph.csr.CsrGraph;
 import graph.matrix.MatrixGraph;
 
 import java.util.ArrayList;
@@ -9,6 +10,9 @@ import java.util.LinkedList;
 import java.util.function.BinaryOperator;
 
 /**
+ * Graph algorithms over the Graph interface.
+ * When the graph is a {@link CsrGraph} snapshot, neighbours are walked by
+ * index over its arrays instead of through the Collection-returning methods.
  *
  * @author DEI-ISEP
  *
@@ -26,54 +30,46 @@ public class Algorithms {
         if (g == null || vert == null || !g.validVertex(vert))
             return null;
 
-        int n = g.numVertices();
-        boolean[] visited = new boolean[n];
-        LinkedList<V> q = new LinkedList<>();
-        LinkedList<V> result = new LinkedList<>();
-
-        int startKey = g.key(vert);
-        if (startKey < 0) return null;
-
-        q.add(vert);
-        visited[startKey] = true;
-
-        while (!q.isEmpty()) {
-            V v = q.removeFirst();
-            result.add(v);
-
-            for (V adj : g.adjVertices(v)) {
-                int k = g.key(adj);
-                if (k >= 0 && !visited[k]) {
-                    visited[k] = true;
-                    q.addLast(adj);
-                }
-            }
-        }
-
-        return result;
+        TraversalContext ctx = new TraversalContext(g.numVertices());
+        BreadthFirstSearch(g, vert, ctx);
+        return visitOrder(g, ctx);
     }
 
-    /** Performs depth-first search starting in a vertex
+    /** Performs breadth-first search of a Graph starting in a vertex, without allocating
+     *  once the context has grown to the size of the graph
      *
      * @param g Graph instance
-     * @param vOrig vertex of graph g that will be the source of the search
-     * @param visited set of previously visited vertices
-     * @param qdfs return LinkedList with vertices of depth-first search
+     * @param vert vertex that will be the source of the search
+     * @param ctx traversal buffers; returns the keys of the vertices in breadth-first order
+     * @return the number of visited vertices, 0 if vert does not exist
      */
-    private static <V, E> void DepthFirstSearch(Graph<V, E> g, V vOrig, boolean[] visited, LinkedList<V> qdfs) {
+    public static <V, E> int BreadthFirstSearch(Graph<V, E> g, V vert, TraversalContext ctx) {
 
-        int key = g.key(vOrig);
-        if (key < 0) return;
+        // started even for a missing vertex, so the marks of the previous traversal are dropped
+        ctx.begin(g == null ? 0 : g.numVertices());
+        if (g == null || vert == null || !g.validVertex(vert))
+            return 0;
+
+        ctx.visit(g.key(vert));
 
-        visited[key] = true;
-        qdfs.addLast(vOrig);
+        // the visit order doubles as the queue: vertices are visited when enqueued
+        for (int head = 0; head < ctx.size(); head++) {
+            int kv = ctx.orderAt(head);
 
-        for (V adj : g.adjVertices(vOrig)) {
-            int k = g.key(adj);
-            if (k >= 0 && !visited[k]) {
-                DepthFirstSearch(g, adj, visited, qdfs);
+            if (g instanceof CsrGraph) {
+                CsrGraph<V, E> csr = (CsrGraph<V, E>) g;
+                for (int i = csr.firstEdge(kv); i < csr.lastEdge(kv); i++)
+                    ctx.visit(csr.target(i));
+                continue;
             }
+
+            g.forEachOutEdge(g.vertex(kv), e -> {
+                int k = g.key(e.getVDest());
+                if (k >= 0) ctx.visit(k);
+            });
         }
+
+        return ctx.size();
     }
 
     /** Performs depth-first search starting in a vertex
@@ -88,13 +84,59 @@ public class Algorithms {
         if (g == null || vert == null || !g.validVertex(vert))
             return null;
 
-        int n = g.numVertices();
-        boolean[] visited = new boolean[n];
-        LinkedList<V> qdfs = new LinkedList<>();
+        TraversalContext ctx = new TraversalContext(g.numVertices());
+        DepthFirstSearch(g, vert, ctx);
+        return visitOrder(g, ctx);
+    }
+
+    /** Performs iterative depth-first search starting in a vertex, without allocating
+     *  once the context has grown to the size of the graph. Vertices are visited in
+     *  the same order as a recursive search, but deep graphs cannot overflow the stack.
+     *
+     * @param g Graph instance
+     * @param vert vertex of graph g that will be the source of the search
+     * @param ctx traversal buffers; returns the keys of the vertices in depth-first order
+     * @return the number of visited vertices, 0 if vert does not exist
+     */
+    public static <V, E> int DepthFirstSearch(Graph<V, E> g, V vert, TraversalContext ctx) {
+
+        ctx.begin(g == null ? 0 : g.numVertices());
+        if (g == null || vert == null || !g.validVertex(vert))
+            return 0;
+
+        ctx.push(g.key(vert));
+
+        while (!ctx.stackEmpty()) {
+            int kv = ctx.pop();
+            if (!ctx.visit(kv))
+                continue;   // reached again through another vertex before being popped
+
+            // neighbours are pushed reversed, so the first one is explored first
+            int from = ctx.stackSize();
+            if (g instanceof CsrGraph) {
+                CsrGraph<V, E> csr = (CsrGraph<V, E>) g;
+                for (int i = csr.lastEdge(kv) - 1; i >= csr.firstEdge(kv); i--) {
+                    int k = csr.target(i);
+                    if (!ctx.visited(k)) ctx.push(k);
+                }
+                continue;
+            }
 
-        DepthFirstSearch(g, vert, visited, qdfs);
+            g.forEachOutEdge(g.vertex(kv), e -> {
+                int k = g.key(e.getVDest());
+                if (k >= 0 && !ctx.visited(k)) ctx.push(k);
+            });
+            ctx.reverseStack(from);
+        }
 
-        return qdfs;
+        return ctx.size();
+    }
+
+    private static <V, E> LinkedList<V> visitOrder(Graph<V, E> g, TraversalContext ctx) {
+        LinkedList<V> result = new LinkedList<>();
+        for (int i = 0; i < ctx.size(); i++)
+            result.add(g.vertex(ctx.key(i)));
+        return result;
     }
 
     /** Returns all paths from vOrig to vDest
@@ -118,6 +160,14 @@ public class Algorithms {
         if (vOrig.equals(vDest)) {
             // Found a path: copy it (path is in correct order: origin -> ... -> dest)
             paths.add(new LinkedList<>(path));
+        } else if (g instanceof CsrGraph) {
+            CsrGraph<V, E> csr = (CsrGraph<V, E>) g;
+            for (int i = csr.firstEdge(kOrig); i < csr.lastEdge(kOrig); i++) {
+                int kAdj = csr.target(i);
+                if (!visited[kAdj]) {
+                    allPaths(g, csr.vertex(kAdj), vDest, visited, path, paths);
+                }
+            }
         } else {
             for (V adj : g.adjVertices(vOrig)) {
                 int kAdj = g.key(adj);
@@ -133,6 +183,8 @@ public class Algorithms {
     }
 
     /** Returns all paths from vOrig to vDest
+     *  Every path is kept in memory; DoubleWeightAlgorithms.allPaths streams them
+     *  lazily with limits on number, hops and weight.
      *
      * @param g     Graph instance
      * @param vOrig information of the Vertex origin
@@ -158,21 +210,24 @@ public class Algorithms {
     /**
      * Computes shortest-path distance from a source vertex to all reachable
      * vertices of a graph g with non-negative edge weights
-     * This implementation uses Dijkstra's algorithm
+     * This implementation uses Dijkstra's algorithm with an indexed binary heap
+     * (decrease-key), running in O((V+E) log V)
      *
      * @param g        Graph instance
      * @param vOrig    Vertex that will be the source of the path
+     * @param vDest    Vertex at which the search stops once it is settled, null to settle every reachable vertex
      * @param visited  set of previously visited vertices
      * @param pathKeys minimum path vertices keys
      * @param dist     minimum distances
      */
-    private static <V, E> void shortestPathDijkstra(Graph<V, E> g, V vOrig,
+    private static <V, E> void shortestPathDijkstra(Graph<V, E> g, V vOrig, V vDest,
                                                     Comparator<E> ce, BinaryOperator<E> sum, E zero,
                                                     boolean[] visited, V [] pathKeys, E [] dist) {
-        
-       int n = g.numVertices();
+
+        int n = g.numVertices();
         int startKey = g.key(vOrig);
         if (startKey < 0) return;
+        int destKey = (vDest == null) ? -1 : g.key(vDest);
 
         // Initialize
         for (int i = 0; i < n; i++) {
@@ -181,40 +236,49 @@ public class Algorithms {
             dist[i] = null; // null means infinity/unreached
         }
 
+        IndexedMinHeap<E> heap = new IndexedMinHeap<>(n, ce);
         dist[startKey] = zero;
+        heap.insertOrDecrease(startKey, zero);
 
         // Main loop
-        while (true) {
-            // find unvisited vertex with minimal dist
-            int u = -1;
-            for (int i = 0; i < n; i++) {
-                if (!visited[i] && dist[i] != null) {
-                    if (u == -1 || ce.compare(dist[i], dist[u]) < 0) {
-                        u = i;
-                    }
-                }
-            }
-
-            if (u == -1) break; // no more reachable vertices
-
+        while (!heap.isEmpty()) {
+            // unvisited vertex with minimal dist
+            int u = heap.poll();
             visited[u] = true;
+            if (u == destKey) break; // destination settled, its distance is final
+
             V uVert = g.vertex(u);
 
             // relax edges from u
-            for (Edge<V, E> e : g.outgoingEdges(uVert)) {
-                V v = e.getVDest();
-                int kV = g.key(v);
-                if (kV < 0 || visited[kV]) continue;
-
-                E alt = sum.apply(dist[u], e.getWeight());
-                if (dist[kV] == null || ce.compare(alt, dist[kV]) < 0) {
-                    dist[kV] = alt;
-                    pathKeys[kV] = uVert;
-                }
+            if (g instanceof CsrGraph) {
+                CsrGraph<V, E> csr = (CsrGraph<V, E>) g;
+                for (int i = csr.firstEdge(u); i < csr.lastEdge(u); i++)
+                    relax(u, csr.target(i), csr.weight(i), uVert, ce, sum, visited, pathKeys, dist, heap);
+            } else {
+                g.forEachOutEdge(uVert, e -> {
+                    int kV = g.key(e.getVDest());
+                    if (kV >= 0)
+                        relax(u, kV, e.getWeight(), uVert, ce, sum, visited, pathKeys, dist, heap);
+                });
             }
         }
     }
 
+    /** Relaxes the edge u -> v of a Dijkstra search
+     */
+    private static <V, E> void relax(int u, int kV, E weight, V uVert,
+                                     Comparator<E> ce, BinaryOperator<E> sum,
+                                     boolean[] visited, V [] pathKeys, E [] dist, IndexedMinHeap<E> heap) {
+        if (visited[kV]) return;
+
+        E alt = sum.apply(dist[u], weight);
+        if (dist[kV] == null || ce.compare(alt, dist[kV]) < 0) {
+            dist[kV] = alt;
+            pathKeys[kV] = uVert;
+            heap.insertOrDecrease(kV, alt);
+        }
+    }
+
    
     /** Shortest-path between two vertices
      *
@@ -239,7 +303,7 @@ public class Algorithms {
         V[] pathKeys = (V[]) new Object[n];
         E[] dist = (E[]) new Object[n];
 
-        shortestPathDijkstra(g, vOrig, ce, sum, zero, visited, pathKeys, dist);
+        shortestPathDijkstra(g, vOrig, vDest, ce, sum, zero, visited, pathKeys, dist);
 
         int destKey = g.key(vDest);
         if (dist[destKey] == null) return null; // not reachable
@@ -260,8 +324,8 @@ public class Algorithms {
      * @param ce comparator between elements of type E
      * @param sum sum two elements of type E
      * @param zero neutral element of the sum in elements of type E
-     * @param paths returns all the minimum paths
-     * @param dists returns the corresponding minimum distances
+     * @param paths returns all the minimum paths, indexed by vertex key (empty if unreachable)
+     * @param dists returns the corresponding minimum distances, indexed by vertex key (null if unreachable)
      * @return if vOrig exists in the graph true, false otherwise
      */
     public static <V, E> boolean shortestPaths(Graph<V, E> g, V vOrig,
@@ -276,22 +340,22 @@ public class Algorithms {
         V[] pathKeys = (V[]) new Object[n];
         E[] dist = (E[]) new Object[n];
 
-        shortestPathDijkstra(g, vOrig, ce, sum, zero, visited, pathKeys, dist);
+        shortestPathDijkstra(g, vOrig, null, ce, sum, zero, visited, pathKeys, dist);
 
         paths.clear();
         dists.clear();
 
+        // paths and dists are indexed by vertex key
         for (int i = 0; i < n; i++) {
             V v = g.vertex(i);
+            LinkedList<V> path = new LinkedList<>();
             if (dist[i] != null) {
                 // build path from vOrig to v
-                LinkedList<V> path = new LinkedList<>();
                 getPath(g, vOrig, v, pathKeys, path);
-                paths.add(path);
-                dists.add(dist[i]);
-            } else {
-                // unreachable vertices are represented by empty path and null distance (skip or add nulls if desired)
             }
+            // unreachable vertices are represented by empty path and null distance
+            paths.add(path);
+            dists.add(dist[i]);
         }
 
         return true;
@@ -332,6 +396,8 @@ public class Algorithms {
     }
 
     /** Calculates the minimum distance graph using Floyd-Warshall
+     *  For weights that can be read as doubles, DoubleWeightAlgorithms.minDistMatrix
+     *  runs a blocked, parallel version and also returns next hops to rebuild the paths.
      * 
      * @param g initial graph
      * @param ce comparator between elements of type E
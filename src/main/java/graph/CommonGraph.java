@@ -2,6 +2,8 @@ package graph;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
 import java.util.function.Predicate;
 
@@ -15,12 +17,14 @@ public abstract class CommonGraph <V,E> implements Graph<V,E> {
     protected int numEdges;
     protected final boolean isDirected;
     protected ArrayList<V> vertices;       // Used to maintain a numeric key to each vertex
+    protected Map<V, Integer> keys;        // Reverse index of vertices: vertex -> numeric key
 
     public CommonGraph(boolean directed) {
         numVerts = 0;
         numEdges = 0;
         isDirected = directed;
         vertices = new ArrayList<>();
+        keys = new HashMap<>();
     }
 
     @Override
@@ -39,11 +43,12 @@ public abstract class CommonGraph <V,E> implements Graph<V,E> {
     }
 
     @Override
-    public boolean validVertex(V vert) { return vertices.contains(vert);   }
+    public boolean validVertex(V vert) { return keys.containsKey(vert);   }
 
     @Override
     public int key(V vert) {
-        return vertices.indexOf(vert);
+        Integer k = keys.get(vert);
+        return (k == null) ? -1 : k;
     }
 
     @Override
@@ -65,6 +70,42 @@ public abstract class CommonGraph <V,E> implements Graph<V,E> {
         return numEdges;
     }
 
+    /** Appends a vertex to the key list and registers its key in the index
+     *
+     * @param vert the vertex to register (must not be in the graph)
+     * @return the numeric key assigned to vert
+     */
+    protected int addVertexKey(V vert) {
+        int k = vertices.size();
+        vertices.add(vert);
+        keys.put(vert, k);
+        return k;
+    }
+
+    /** Removes a vertex from the key list and compacts the keys of the
+     *  vertices that followed it, keeping the index consistent with vertices
+     *
+     * @param vert the vertex to unregister
+     * @return the numeric key vert had, -1 if it was not registered
+     */
+    protected int removeVertexKey(V vert) {
+        Integer k = keys.remove(vert);
+        if (k == null) return -1;
+
+        vertices.remove((int) k);
+        for (int i = k; i < vertices.size(); i++)
+            keys.put(vertices.get(i), i);
+        return k;
+    }
+
+    /** Rebuilds the key index from the current vertices list
+     */
+    protected void rebuildKeys() {
+        keys = new HashMap<>();
+        for (int i = 0; i < vertices.size(); i++)
+            keys.put(vertices.get(i), i);
+    }
+
     /** Copy graph from to graph to
      *
      * @param from graph from which to copy
@@ -0,0 +1,71 @@
+package graph;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Lock-free disjoint-set forest over the integer keys 0..n-1 of a graph, safe
+ * to use from several threads at once.
+ * Roots are always linked under the root with the larger key, so concurrent
+ * unions can never create a cycle; paths are halved with compare-and-set.
+ *
+ * @author DEI-ISEP
+ */
+public class ConcurrentUnionFind {
+
+    private final AtomicIntegerArray parent;
+
+    public ConcurrentUnionFind(int n) {
+        parent = new AtomicIntegerArray(n);
+        for (int i = 0; i < n; i++)
+            parent.set(i, i);
+    }
+
+    /** Representative of the set containing a key
+     *
+     * @param x the key
+     * @return the representative key of the set of x
+     */
+    public int find(int x) {
+        while (true) {
+            int p = parent.get(x);
+            if (p == x)
+                return x;
+            int gp = parent.get(p);
+            if (p != gp)
+                parent.compareAndSet(x, p, gp); // path halving, losing the race is harmless
+            x = gp;
+        }
+    }
+
+    /** Joins the sets containing two keys
+     *
+     * @param a first key
+     * @param b second key
+     * @return true if this call joined two different sets, false if they were already joined
+     */
+    public boolean union(int a, int b) {
+        while (true) {
+            int ra = find(a);
+            int rb = find(b);
+            if (ra == rb)
+                return false;
+
+            int low = Math.min(ra, rb);
+            int high = Math.max(ra, rb);
+            if (parent.compareAndSet(low, low, high))
+                return true;
+            // low stopped being a root meanwhile, retry with the new roots
+        }
+    }
+
+    public boolean connected(int a, int b) {
+        while (true) {
+            int ra = find(a);
+            int rb = find(b);
+            if (ra == rb)
+                return true;
+            if (parent.get(ra) == ra) // ra still a root, so the sets really differ
+                return false;
+        }
+    }
+}
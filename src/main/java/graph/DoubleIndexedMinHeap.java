@@ -0,0 +1,120 @@
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap over the integer keys 0..capacity-1 of a graph, ordered by a
+ * primitive double priority. Same contract as {@link IndexedMinHeap} but without
+ * boxing, for engines that keep distances in double[] arrays.
+ *
+ * @author DEI-ISEP
+ */
+public class DoubleIndexedMinHeap {
+
+    private final int[] heap;      // heap position -> key
+    private final int[] pos;       // key -> heap position, -1 if not in heap
+    private final double[] prio;   // key -> priority
+    private int size;
+
+    public DoubleIndexedMinHeap(int capacity) {
+        heap = new int[capacity];
+        pos = new int[capacity];
+        prio = new double[capacity];
+        Arrays.fill(pos, -1);
+        size = 0;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return heap.length;
+    }
+
+    public boolean contains(int key) {
+        return pos[key] != -1;
+    }
+
+    /** Priority of the key with the lowest priority (heap must not be empty)
+     *
+     * @return the lowest priority in the heap
+     */
+    public double peekPriority() {
+        return prio[heap[0]];
+    }
+
+    /** Inserts key with priority p, or lowers its priority if already present
+     *
+     * @param key the key to insert or update
+     * @param p   the new priority
+     */
+    public void insertOrDecrease(int key, double p) {
+        if (pos[key] == -1) {
+            heap[size] = key;
+            pos[key] = size;
+            prio[key] = p;
+            siftUp(size++);
+        } else if (p < prio[key]) {
+            prio[key] = p;
+            siftUp(pos[key]);
+        }
+    }
+
+    /** Removes the key with the lowest priority
+     *
+     * @return the removed key
+     */
+    public int poll() {
+        int min = heap[0];
+        swap(0, --size);
+        pos[min] = -1;
+        if (size > 0)
+            siftDown(0);
+        return min;
+    }
+
+    /** Empties the heap so it can be reused, in O(size)
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++)
+            pos[heap[i]] = -1;
+        size = 0;
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (prio[heap[i]] >= prio[heap[parent]])
+                break;
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int l = 2 * i + 1;
+            if (l >= size) break;
+            int r = l + 1;
+            int min = (r < size && prio[heap[r]] < prio[heap[l]]) ? r : l;
+            if (prio[heap[min]] >= prio[heap[i]])
+                break;
+            swap(i, min);
+            i = min;
+        }
+    }
+
+    private void swap(int i, int j) {
+        int ki = heap[i];
+        int kj = heap[j];
+        heap[i] = kj;
+        heap[j] = ki;
+        pos[kj] = i;
+        pos[ki] = j;
+    }
+}
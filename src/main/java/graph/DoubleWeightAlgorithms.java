@@ -0,0 +1,672 @@
+package graph;
+
+import graph.csr.CsrGraph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.ToDoubleBiFunction;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Shortest-path algorithms specialised for edges whose weight can be read as a
+ * primitive double (e.g. distance or cost of a RailLine).
+ * The weight function is applied once per edge relaxation and distances and
+ * predecessors live in double[]/int[] arrays indexed by vertex key, so no
+ * boxed values are created while the search runs.
+ * Unreachable vertices have distance Double.POSITIVE_INFINITY.
+ *
+ * @author DEI-ISEP
+ */
+public class DoubleWeightAlgorithms {
+
+    private static final int BLOCK = 64;   // tile side: a 64x64 tile of distances plus next hops fits in L1/L2
+
+    private DoubleWeightAlgorithms() {
+    }
+
+    /**
+     * Dijkstra over primitive arrays with an indexed binary heap.
+     *
+     * @param g      Graph instance
+     * @param orig   key of the source vertex
+     * @param dest   key at which the search stops once it is settled, -1 to settle every reachable vertex
+     * @param weight extracts the non-negative weight of an edge
+     * @param heap   empty heap with capacity at least numVertices
+     * @param dist   minimum distances (filled, length at least numVertices)
+     * @param pred   predecessor keys on the minimum paths, -1 for none (filled, length at least numVertices)
+     */
+    static <V, E> void dijkstra(Graph<V, E> g, int orig, int dest, ToDoubleFunction<E> weight,
+                                DoubleIndexedMinHeap heap, double[] dist, int[] pred) {
+
+        int n = g.numVertices();
+        Arrays.fill(dist, 0, n, Double.POSITIVE_INFINITY);
+        Arrays.fill(pred, 0, n, -1);
+
+        dist[orig] = 0;
+        heap.insertOrDecrease(orig, 0);
+
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            if (u == dest) break; // destination settled, its distance is final
+
+            double du = dist[u];
+            if (g instanceof CsrGraph) {
+                CsrGraph<V, E> csr = (CsrGraph<V, E>) g;
+                for (int i = csr.firstEdge(u); i < csr.lastEdge(u); i++) {
+                    int v = csr.target(i);
+                    double alt = du + weight.applyAsDouble(csr.weight(i));
+                    if (alt < dist[v]) {
+                        dist[v] = alt;
+                        pred[v] = u;
+                        heap.insertOrDecrease(v, alt);
+                    }
+                }
+                continue;
+            }
+
+            g.forEachOutEdge(g.vertex(u), e -> {
+                int v = g.key(e.getVDest());
+                if (v < 0) return;
+
+                double alt = du + weight.applyAsDouble(e.getWeight());
+                if (alt < dist[v]) {
+                    dist[v] = alt;
+                    pred[v] = u;
+                    heap.insertOrDecrease(v, alt);
+                }
+            });
+        }
+        heap.clear();
+    }
+
+    /** Shortest-path between two vertices
+     *
+     * @param g         graph
+     * @param vOrig     origin vertex
+     * @param vDest     destination vertex
+     * @param weight    extracts the non-negative weight of an edge
+     * @param shortPath returns the vertices which make the shortest path
+     * @return the length of the shortest path, Double.POSITIVE_INFINITY if vertices do not exist or are not connected
+     */
+    public static <V, E> double shortestPath(Graph<V, E> g, V vOrig, V vDest,
+                                             ToDoubleFunction<E> weight, LinkedList<V> shortPath) {
+
+        if (shortPath != null) shortPath.clear();
+        if (g == null || vOrig == null || vDest == null || !g.validVertex(vOrig) || !g.validVertex(vDest))
+            return Double.POSITIVE_INFINITY;
+
+        int n = g.numVertices();
+        double[] dist = new double[n];
+        int[] pred = new int[n];
+        int destKey = g.key(vDest);
+
+        dijkstra(g, g.key(vOrig), destKey, weight, new DoubleIndexedMinHeap(n), dist, pred);
+
+        if (shortPath != null && dist[destKey] != Double.POSITIVE_INFINITY)
+            getPath(g, destKey, pred, shortPath);
+
+        return dist[destKey];
+    }
+
+    /** Shortest-path between two vertices with A*: vertices are settled by distance from
+     *  vOrig plus the heuristic estimate to vDest, so the search heads towards vDest.
+     *  The result is a minimum path when the heuristic never overestimates the remaining
+     *  distance; vertices are reopened if it is not consistent.
+     *
+     * @param g         graph
+     * @param vOrig     origin vertex
+     * @param vDest     destination vertex
+     * @param weight    extracts the non-negative weight of an edge
+     * @param heuristic lower bound of the distance between a vertex and vDest (vertex, vDest)
+     * @param shortPath returns the vertices which make the shortest path
+     * @return the length of the shortest path, Double.POSITIVE_INFINITY if vertices do not exist or are not connected
+     */
+    public static <V, E> double aStar(Graph<V, E> g, V vOrig, V vDest, ToDoubleFunction<E> weight,
+                                      ToDoubleBiFunction<V, V> heuristic, LinkedList<V> shortPath) {
+        return aStar(g, vOrig, vDest, weight, heuristic, shortPath, null);
+    }
+
+    // settled, if not null, returns the number of vertices taken from the heap
+    static <V, E> double aStar(Graph<V, E> g, V vOrig, V vDest, ToDoubleFunction<E> weight,
+                               ToDoubleBiFunction<V, V> heuristic, LinkedList<V> shortPath, int[] settled) {
+
+        if (shortPath != null) shortPath.clear();
+        if (g == null || vOrig == null || vDest == null || !g.validVertex(vOrig) || !g.validVertex(vDest))
+            return Double.POSITIVE_INFINITY;
+
+        int n = g.numVertices();
+        double[] dist = new double[n];
+        int[] pred = new int[n];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        Arrays.fill(pred, -1);
+
+        int orig = g.key(vOrig);
+        int dest = g.key(vDest);
+        DoubleIndexedMinHeap open = new DoubleIndexedMinHeap(n);
+        dist[orig] = 0;
+        open.insertOrDecrease(orig, heuristic.applyAsDouble(vOrig, vDest));
+        int count = 0;
+
+        while (!open.isEmpty()) {
+            int u = open.poll();
+            count++;
+            if (u == dest) break;
+
+            double du = dist[u];
+            g.forEachOutEdge(g.vertex(u), e -> {
+                int v = g.key(e.getVDest());
+                double alt = du + weight.applyAsDouble(e.getWeight());
+                if (alt < dist[v]) {
+                    dist[v] = alt;
+                    pred[v] = u;
+                    open.insertOrDecrease(v, alt + heuristic.applyAsDouble(e.getVDest(), vDest));
+                }
+            });
+        }
+
+        if (settled != null) settled[0] = count;
+        if (shortPath != null && dist[dest] != Double.POSITIVE_INFINITY)
+            getPath(g, dest, pred, shortPath);
+        return dist[dest];
+    }
+
+    /** Shortest-path between two vertices with bidirectional Dijkstra: one search grows
+     *  forward from vOrig, another backward from vDest over incoming edges, always
+     *  advancing the one with the smaller frontier distance. It stops once the two
+     *  frontiers together cannot improve the best meeting found so far.
+     *
+     * @param g         graph
+     * @param vOrig     origin vertex
+     * @param vDest     destination vertex
+     * @param weight    extracts the non-negative weight of an edge
+     * @param shortPath returns the vertices which make the shortest path
+     * @return the length of the shortest path, Double.POSITIVE_INFINITY if vertices do not exist or are not connected
+     */
+    public static <V, E> double bidirectionalShortestPath(Graph<V, E> g, V vOrig, V vDest,
+                                                          ToDoubleFunction<E> weight, LinkedList<V> shortPath) {
+        return bidirectionalShortestPath(g, vOrig, vDest, weight, shortPath, null);
+    }
+
+    // settled, if not null, returns the number of vertices taken from both heaps
+    static <V, E> double bidirectionalShortestPath(Graph<V, E> g, V vOrig, V vDest, ToDoubleFunction<E> weight,
+                                                   LinkedList<V> shortPath, int[] settled) {
+
+        if (shortPath != null) shortPath.clear();
+        if (g == null || vOrig == null || vDest == null || !g.validVertex(vOrig) || !g.validVertex(vDest))
+            return Double.POSITIVE_INFINITY;
+
+        int n = g.numVertices();
+        double[] distF = new double[n];
+        double[] distB = new double[n];
+        int[] predF = new int[n];      // previous key towards vOrig
+        int[] succB = new int[n];      // next key towards vDest
+        Arrays.fill(distF, Double.POSITIVE_INFINITY);
+        Arrays.fill(distB, Double.POSITIVE_INFINITY);
+        Arrays.fill(predF, -1);
+        Arrays.fill(succB, -1);
+
+        int orig = g.key(vOrig);
+        int dest = g.key(vDest);
+        DoubleIndexedMinHeap heapF = new DoubleIndexedMinHeap(n);
+        DoubleIndexedMinHeap heapB = new DoubleIndexedMinHeap(n);
+        distF[orig] = 0;
+        distB[dest] = 0;
+        heapF.insertOrDecrease(orig, 0);
+        heapB.insertOrDecrease(dest, 0);
+
+        // best meeting distance and vertex so far, in arrays so the edge actions can update them
+        double[] meeting = {(orig == dest) ? 0 : Double.POSITIVE_INFINITY};
+        int[] meet = {(orig == dest) ? orig : -1};
+        int count = 0;
+
+        while (!heapF.isEmpty() && !heapB.isEmpty()
+                && heapF.peekPriority() + heapB.peekPriority() < meeting[0]) {
+            count++;
+            if (heapF.peekPriority() <= heapB.peekPriority()) {
+                int u = heapF.poll();
+                double du = distF[u];
+                g.forEachOutEdge(g.vertex(u), e -> {
+                    int v = g.key(e.getVDest());
+                    double alt = du + weight.applyAsDouble(e.getWeight());
+                    if (alt < distF[v]) {
+                        distF[v] = alt;
+                        predF[v] = u;
+                        heapF.insertOrDecrease(v, alt);
+                    }
+                    if (distF[v] + distB[v] < meeting[0]) {
+                        meeting[0] = distF[v] + distB[v];
+                        meet[0] = v;
+                    }
+                });
+            } else {
+                int u = heapB.poll();
+                double du = distB[u];
+                g.forEachInEdge(g.vertex(u), e -> {
+                    int v = g.key(e.getVOrig());
+                    double alt = du + weight.applyAsDouble(e.getWeight());
+                    if (alt < distB[v]) {
+                        distB[v] = alt;
+                        succB[v] = u;
+                        heapB.insertOrDecrease(v, alt);
+                    }
+                    if (distF[v] + distB[v] < meeting[0]) {
+                        meeting[0] = distF[v] + distB[v];
+                        meet[0] = v;
+                    }
+                });
+            }
+        }
+
+        if (settled != null) settled[0] = count;
+        if (shortPath != null && meet[0] != -1) {
+            getPath(g, meet[0], predF, shortPath);
+            for (int k = succB[meet[0]]; k != -1; k = succB[k])
+                shortPath.addLast(g.vertex(k));
+        }
+        return meeting[0];
+    }
+
+    /** Shortest-path between a vertex and all other vertices
+     *
+     * @param g      graph
+     * @param vOrig  start vertex
+     * @param weight extracts the non-negative weight of an edge
+     * @param paths  returns all the minimum paths, indexed by vertex key (empty if unreachable)
+     * @param dists  returns the corresponding minimum distances, indexed by vertex key (length at least numVertices)
+     * @return if vOrig exists in the graph true, false otherwise
+     */
+    public static <V, E> boolean shortestPaths(Graph<V, E> g, V vOrig, ToDoubleFunction<E> weight,
+                                               ArrayList<LinkedList<V>> paths, double[] dists) {
+
+        if (g == null || vOrig == null || !g.validVertex(vOrig))
+            return false;
+
+        int n = g.numVertices();
+        int[] pred = new int[n];
+
+        dijkstra(g, g.key(vOrig), -1, weight, new DoubleIndexedMinHeap(n), dists, pred);
+
+        paths.clear();
+        for (int i = 0; i < n; i++) {
+            LinkedList<V> path = new LinkedList<>();
+            if (dists[i] != Double.POSITIVE_INFINITY)
+                getPath(g, i, pred, path);
+            paths.add(path);
+        }
+        return true;
+    }
+
+    /** Minimum distances between all pairs of vertices, choosing the algorithm by density.
+     *  One Dijkstra per source costs O(V (E + V) log V) and Floyd-Warshall O(V^3), so
+     *  Dijkstra is used while E log V stays below V^2, which is the case for rail networks.
+     *
+     * @param g      graph
+     * @param weight extracts the non-negative weight of an edge
+     * @return the distance and next-hop matrices, indexed by vertex key
+     * @throws IllegalArgumentException if g has more than ShortestPathMatrix.MAX_VERTICES vertices
+     */
+    public static <V, E> ShortestPathMatrix<V> allPairs(Graph<V, E> g, ToDoubleFunction<E> weight) {
+        int n = g.numVertices();
+        double logN = Math.max(1, Math.log(n) / Math.log(2));
+        if (g.numEdges() * logN < (double) n * n)
+            return allPairsDijkstra(g, weight);
+        return minDistMatrix(g, weight);
+    }
+
+    /** Minimum distances between all pairs of vertices with one Dijkstra per source.
+     *  Sources run in parallel on the common fork-join pool; each worker thread reuses
+     *  its own heap and scratch arrays and writes its rows of the shared matrices.
+     *
+     * @param g      graph
+     * @param weight extracts the non-negative weight of an edge
+     * @return the distance and next-hop matrices, indexed by vertex key
+     * @throws IllegalArgumentException if g has more than ShortestPathMatrix.MAX_VERTICES vertices
+     */
+    public static <V, E> ShortestPathMatrix<V> allPairsDijkstra(Graph<V, E> g, ToDoubleFunction<E> weight) {
+
+        int n = ShortestPathMatrix.checkSize(g.numVertices());
+        double[] dist = new double[n * n];
+        int[] next = new int[n * n];
+        ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(() -> new Scratch(n));
+
+        IntStream.range(0, n).parallel().forEach(s -> {
+            Scratch w = scratch.get();
+            dijkstra(g, s, -1, weight, w.heap, w.dist, w.pred);
+            System.arraycopy(w.dist, 0, dist, s * n, n);
+            firstHops(s, n, w.pred, w.stack, next);
+        });
+
+        return new ShortestPathMatrix<>(g.vertices(), dist, next);
+    }
+
+    // Per-thread buffers for allPairsDijkstra
+    private static final class Scratch {
+        final DoubleIndexedMinHeap heap;
+        final double[] dist;
+        final int[] pred;
+        final int[] stack;
+
+        Scratch(int n) {
+            heap = new DoubleIndexedMinHeap(n);
+            dist = new double[n];
+            pred = new int[n];
+            stack = new int[n];
+        }
+    }
+
+    // Fills row s of next from the predecessors of a Dijkstra from s, in O(V):
+    // the first hop of v is the first hop of its predecessor, or v itself next to s.
+    private static void firstHops(int s, int n, int[] pred, int[] stack, int[] next) {
+        int row = s * n;
+        Arrays.fill(next, row, row + n, -2);    // -2: not computed yet
+        next[row + s] = s;
+
+        for (int v = 0; v < n; v++) {
+            int top = 0;
+            int u = v;
+            while (next[row + u] == -2) {
+                if (pred[u] == -1) {            // unreachable
+                    next[row + u] = -1;
+                    break;
+                }
+                if (pred[u] == s) {
+                    next[row + u] = u;
+                    break;
+                }
+                stack[top++] = u;
+                u = pred[u];
+            }
+            int hop = next[row + u];
+            while (top > 0)
+                next[row + stack[--top]] = hop;
+        }
+    }
+
+    /** Minimum distances between all pairs of vertices using a blocked Floyd-Warshall.
+     *  The n x n matrix is split in BLOCK x BLOCK tiles. For each diagonal tile k the
+     *  tile itself is closed first, then the tiles in row k and column k, which only
+     *  depend on it, and finally all remaining tiles; the tiles of the last two steps
+     *  are independent and are processed in parallel on the common fork-join pool.
+     *  Weights must be non-negative (no negative cycles).
+     *
+     * @param g      graph
+     * @param weight extracts the weight of an edge
+     * @return the distance and next-hop matrices, indexed by vertex key
+     * @throws IllegalArgumentException if g has more than ShortestPathMatrix.MAX_VERTICES vertices
+     */
+    public static <V, E> ShortestPathMatrix<V> minDistMatrix(Graph<V, E> g, ToDoubleFunction<E> weight) {
+
+        int n = ShortestPathMatrix.checkSize(g.numVertices());
+        double[] dist = new double[n * n];
+        int[] next = new int[n * n];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        Arrays.fill(next, -1);
+
+        for (int i = 0; i < n; i++) {
+            final int row = i * n;
+            g.forEachOutEdge(g.vertex(i), e -> {
+                int j = g.key(e.getVDest());
+                double w = weight.applyAsDouble(e.getWeight());
+                if (w < dist[row + j]) {
+                    dist[row + j] = w;
+                    next[row + j] = j;
+                }
+            });
+            dist[row + i] = 0;
+            next[row + i] = i;
+        }
+
+        int nb = (n + BLOCK - 1) / BLOCK;
+        for (int kb = 0; kb < nb; kb++) {
+            final int k = kb;
+            relaxTile(dist, next, n, k, k, k);
+
+            IntStream.range(0, nb).parallel().forEach(b -> {
+                if (b != k) {
+                    relaxTile(dist, next, n, k, b, k);  // row k
+                    relaxTile(dist, next, n, b, k, k);  // column k
+                }
+            });
+
+            IntStream.range(0, nb * nb).parallel().forEach(t -> {
+                int ib = t / nb;
+                int jb = t % nb;
+                if (ib != k && jb != k)
+                    relaxTile(dist, next, n, ib, jb, k);
+            });
+        }
+
+        return new ShortestPathMatrix<>(g.vertices(), dist, next);
+    }
+
+    // Relaxes the tile (ib, jb) through every intermediate vertex of block kb
+    private static void relaxTile(double[] dist, int[] next, int n, int ib, int jb, int kb) {
+        int kEnd = Math.min(n, (kb + 1) * BLOCK);
+        int iEnd = Math.min(n, (ib + 1) * BLOCK);
+        int jStart = jb * BLOCK;
+        int jEnd = Math.min(n, jStart + BLOCK);
+
+        for (int k = kb * BLOCK; k < kEnd; k++) {
+            int rowK = k * n;
+            for (int i = ib * BLOCK; i < iEnd; i++) {
+                int rowI = i * n;
+                double dik = dist[rowI + k];
+                if (dik == Double.POSITIVE_INFINITY)
+                    continue;
+                int hop = next[rowI + k];
+                for (int j = jStart; j < jEnd; j++) {
+                    double alt = dik + dist[rowK + j];
+                    if (alt < dist[rowI + j]) {
+                        dist[rowI + j] = alt;
+                        next[rowI + j] = hop;
+                    }
+                }
+            }
+        }
+    }
+
+    /** Lazy stream of the simple paths between two vertices, in depth-first order.
+     *  Unlike Algorithms.allPaths, paths are produced one at a time and branches that
+     *  cannot meet the limits are pruned (see PathEnumerator).
+     *
+     * @param g         graph
+     * @param vOrig     origin vertex
+     * @param vDest     destination vertex
+     * @param weight    extracts the non-negative weight of an edge
+     * @param maxPaths  maximum number of paths
+     * @param maxHops   maximum number of edges of a path, Integer.MAX_VALUE for no limit
+     * @param maxWeight maximum total weight of a path, Double.POSITIVE_INFINITY for no limit
+     * @return the paths, empty if vertices do not exist
+     */
+    public static <V, E> Stream<LinkedList<V>> allPaths(Graph<V, E> g, V vOrig, V vDest, ToDoubleFunction<E> weight,
+                                                        long maxPaths, int maxHops, double maxWeight) {
+        if (g == null || vOrig == null || vDest == null || !g.validVertex(vOrig) || !g.validVertex(vDest))
+            return Stream.empty();
+
+        PathEnumerator<V, E> paths = new PathEnumerator<>(g, vOrig, vDest, weight, maxHops, maxWeight);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(paths, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .limit(maxPaths);
+    }
+
+    /** The k shortest loopless paths between two vertices (Yen's algorithm).
+     *  Each new path deviates from a previous one at some spur vertex: the edges used
+     *  by earlier paths sharing the same root are removed, as are the root vertices,
+     *  and a Dijkstra from the spur vertex completes the candidate.
+     *
+     * @param g       graph
+     * @param vOrig   origin vertex
+     * @param vDest   destination vertex
+     * @param weight  extracts the non-negative weight of an edge
+     * @param k       maximum number of paths
+     * @param lengths returns the length of each path, may be null
+     * @return up to k paths by increasing length, empty if vertices do not exist or are not connected
+     */
+    public static <V, E> ArrayList<LinkedList<V>> kShortestPaths(Graph<V, E> g, V vOrig, V vDest,
+                                                                 ToDoubleFunction<E> weight, int k, List<Double> lengths) {
+
+        ArrayList<LinkedList<V>> result = new ArrayList<>();
+        if (lengths != null) lengths.clear();
+        if (g == null || vOrig == null || vDest == null || !g.validVertex(vOrig) || !g.validVertex(vDest) || k <= 0)
+            return result;
+
+        int n = g.numVertices();
+        int dest = g.key(vDest);
+        double[] dist = new double[n];
+        int[] pred = new int[n];
+        DoubleIndexedMinHeap heap = new DoubleIndexedMinHeap(n);
+        boolean[] bannedV = new boolean[n];
+        Set<Long> bannedE = new HashSet<>();
+
+        restrictedDijkstra(g, g.key(vOrig), dest, weight, bannedV, bannedE, heap, dist, pred);
+        if (dist[dest] == Double.POSITIVE_INFINITY)
+            return result;
+
+        List<int[]> found = new ArrayList<>();      // accepted paths as vertex keys
+        List<Double> foundLen = new ArrayList<>();
+        found.add(keysOf(dest, pred));
+        foundLen.add(dist[dest]);
+
+        PriorityQueue<Candidate> candidates = new PriorityQueue<>();
+        Set<List<Integer>> seen = new HashSet<>();
+        seen.add(asList(found.get(0)));
+
+        while (found.size() < k) {
+            int[] prev = found.get(found.size() - 1);
+            double rootLen = 0;
+
+            for (int i = 0; i < prev.length - 1; i++) {
+                int spur = prev[i];
+
+                // edges leaving the spur vertex along paths with the same root
+                bannedE.clear();
+                for (int[] p : found)
+                    if (p.length > i + 1 && sameRoot(p, prev, i))
+                        bannedE.add((long) p[i] * n + p[i + 1]);
+                for (int j = 0; j < i; j++)
+                    bannedV[prev[j]] = true;
+
+                restrictedDijkstra(g, spur, dest, weight, bannedV, bannedE, heap, dist, pred);
+
+                for (int j = 0; j < i; j++)
+                    bannedV[prev[j]] = false;
+
+                if (dist[dest] != Double.POSITIVE_INFINITY) {
+                    int[] spurPath = keysOf(dest, pred);
+                    int[] path = new int[i + spurPath.length];
+                    System.arraycopy(prev, 0, path, 0, i);
+                    System.arraycopy(spurPath, 0, path, i, spurPath.length);
+                    if (seen.add(asList(path)))
+                        candidates.add(new Candidate(path, rootLen + dist[dest]));
+                }
+
+                rootLen += weight.applyAsDouble(g.edge(g.vertex(prev[i]), g.vertex(prev[i + 1])).getWeight());
+            }
+
+            if (candidates.isEmpty())
+                break;
+            Candidate best = candidates.poll();
+            found.add(best.path);
+            foundLen.add(best.length);
+        }
+
+        for (int i = 0; i < found.size(); i++) {
+            LinkedList<V> path = new LinkedList<>();
+            for (int key : found.get(i))
+                path.add(g.vertex(key));
+            result.add(path);
+            if (lengths != null) lengths.add(foundLen.get(i));
+        }
+        return result;
+    }
+
+    // candidate path of Yen's algorithm, ordered by length then by number of vertices
+    private static final class Candidate implements Comparable<Candidate> {
+        final int[] path;
+        final double length;
+
+        Candidate(int[] path, double length) {
+            this.path = path;
+            this.length = length;
+        }
+
+        @Override
+        public int compareTo(Candidate o) {
+            int c = Double.compare(length, o.length);
+            return c != 0 ? c : Integer.compare(path.length, o.path.length);
+        }
+    }
+
+    private static boolean sameRoot(int[] p, int[] q, int i) {
+        for (int j = 0; j <= i; j++)
+            if (p[j] != q[j]) return false;
+        return true;
+    }
+
+    private static List<Integer> asList(int[] keys) {
+        List<Integer> l = new ArrayList<>(keys.length);
+        for (int key : keys) l.add(key);
+        return l;
+    }
+
+    private static int[] keysOf(int dest, int[] pred) {
+        int len = 0;
+        for (int k = dest; k != -1; k = pred[k]) len++;
+        int[] keys = new int[len];
+        for (int k = dest; k != -1; k = pred[k]) keys[--len] = k;
+        return keys;
+    }
+
+    // Dijkstra from orig to dest that skips banned vertices and banned edges (u*n+v)
+    private static <V, E> void restrictedDijkstra(Graph<V, E> g, int orig, int dest, ToDoubleFunction<E> weight,
+                                                  boolean[] bannedV, Set<Long> bannedE,
+                                                  DoubleIndexedMinHeap heap, double[] dist, int[] pred) {
+        int n = g.numVertices();
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        Arrays.fill(pred, -1);
+        dist[orig] = 0;
+        heap.insertOrDecrease(orig, 0);
+
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            if (u == dest) break;
+
+            double du = dist[u];
+            g.forEachOutEdge(g.vertex(u), e -> {
+                int v = g.key(e.getVDest());
+                if (bannedV[v] || bannedE.contains((long) u * n + v)) return;
+
+                double alt = du + weight.applyAsDouble(e.getWeight());
+                if (alt < dist[v]) {
+                    dist[v] = alt;
+                    pred[v] = u;
+                    heap.insertOrDecrease(v, alt);
+                }
+            });
+        }
+        heap.clear();
+    }
+
+    /**
+     * Extracts from pred the minimum path ending in the vertex with key dest
+     *
+     * @param g    Graph instance
+     * @param dest key of the destination vertex
+     * @param pred predecessor keys, -1 for the source
+     * @param path returns the minimum path (correct order)
+     */
+    static <V, E> void getPath(Graph<V, E> g, int dest, int[] pred, LinkedList<V> path) {
+        path.clear();
+        for (int k = dest; k != -1; k = pred[k])
+            path.addFirst(g.vertex(k));
+    }
+}
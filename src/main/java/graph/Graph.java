@@ -2,6 +2,7 @@ package graph;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 
 /**
@@ -117,6 +118,19 @@ public interface Graph<V, E> extends Cloneable {
      */
     Collection<Edge<V, E>> outgoingEdges(V vert);
 
+    /** Performs an action for each edge for which a vertex is the origin,
+     *  without building an intermediate collection when the implementation allows it.
+     *  The graph must not be modified by the action.
+     *
+     * @param vert the vertex of interest
+     * @param action the action to perform on each outgoing edge of vert
+     */
+    default void forEachOutEdge(V vert, Consumer<? super Edge<V, E>> action) {
+        Collection<Edge<V, E>> out = outgoingEdges(vert);
+        if (out != null)
+            out.forEach(action);
+    }
+
     /** Finds the edges for which a vertex is the destination
      * 
      * @param vert the vertex of interest
@@ -124,6 +138,19 @@ public interface Graph<V, E> extends Cloneable {
      */
     Collection<Edge<V, E>> incomingEdges(V vert);
 
+    /** Performs an action for each edge for which a vertex is the destination,
+     *  without building an intermediate collection when the implementation allows it.
+     *  The graph must not be modified by the action.
+     *
+     * @param vert the vertex of interest
+     * @param action the action to perform on each incoming edge of vert
+     */
+    default void forEachInEdge(V vert, Consumer<? super Edge<V, E>> action) {
+        Collection<Edge<V, E>> in = incomingEdges(vert);
+        if (in != null)
+            in.forEach(action);
+    }
+
     /** Adds a new vertex into the graph
      * 
      * @param vert the vertex to add
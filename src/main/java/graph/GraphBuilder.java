@@ -0,0 +1,244 @@
+package graph;
+
+import graph.csr.CsrGraph;
+import graph.map.MapGraph;
+import graph.matrix.MatrixGraph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Bulk construction of graphs.
+ * Vertices and edges are collected in pre-sized primitive arrays with no
+ * per-edge checks; building then groups the edges by origin with a counting
+ * sort and drops repeated edges in a single pass, keeping the first one added
+ * (as Graph.addEdge does). The grouped edges are read by the MapGraph,
+ * MatrixGraph and CsrGraph constructors that take a builder, so each graph
+ * is filled directly, without going through addVertex/addEdge.
+ * Vertex keys follow the order in which vertices were first added.
+ *
+ * @param <V> Vertex value type
+ * @param <E> Edge value type
+ * @author DEI-ISEP
+ */
+public class GraphBuilder<V, E> {
+
+    private final boolean directed;
+    private final ArrayList<V> vertices;
+    private final Map<V, Integer> keys;
+
+    private int numAdded;           // edges added, repeated ones included
+    private int[] origins;          // added edge -> origin key
+    private int[] dests;            // added edge -> destination key
+    private Object[] values;        // added edge -> weight
+
+    // result of grouping the edges by origin, null until needed
+    private int[] offsets;          // vertex key -> first edge position (length numVertices+1)
+    private int[] targets;          // edge position -> destination key
+    private E[] weights;            // edge position -> weight
+
+    /**
+     * @param directed         whether the graphs built are directed
+     * @param expectedVertices number of vertices expected, to size the arrays once
+     * @param expectedEdges    number of edges expected, to size the arrays once
+     */
+    public GraphBuilder(boolean directed, int expectedVertices, int expectedEdges) {
+        this.directed = directed;
+        vertices = new ArrayList<>(expectedVertices);
+        keys = new HashMap<>(Math.max(16, (int) (expectedVertices / 0.75f) + 1));
+        origins = new int[Math.max(expectedEdges, 1)];
+        dests = new int[origins.length];
+        values = new Object[origins.length];
+    }
+
+    public GraphBuilder(boolean directed) {
+        this(directed, 16, 16);
+    }
+
+    public boolean isDirected() {
+        return directed;
+    }
+
+    /** Adds a vertex, if it was not added before
+     *
+     * @param vert the vertex
+     * @return the key of the vertex
+     */
+    public int addVertex(V vert) {
+        if (vert == null) throw new RuntimeException("Vertices cannot be null!");
+        Integer k = keys.get(vert);
+        if (k != null)
+            return k;
+
+        k = vertices.size();
+        vertices.add(vert);
+        keys.put(vert, k);
+        offsets = null;
+        return k;
+    }
+
+    /** Adds an edge given its vertices, adding the vertices not added before
+     *
+     * @param vOrig  origin vertex
+     * @param vDest  destination vertex
+     * @param weight edge weight
+     */
+    public void addEdge(V vOrig, V vDest, E weight) {
+        addEdge(addVertex(vOrig), addVertex(vDest), weight);
+    }
+
+    /** Adds an edge given the keys returned by addVertex
+     *
+     * @param vOrigKey origin key
+     * @param vDestKey destination key
+     * @param weight   edge weight
+     */
+    public void addEdge(int vOrigKey, int vDestKey, E weight) {
+        if (vOrigKey < 0 || vOrigKey >= vertices.size() || vDestKey < 0 || vDestKey >= vertices.size())
+            throw new IllegalArgumentException("Unknown vertex key");
+
+        if (numAdded == origins.length) {
+            int newSize = origins.length + (origins.length >> 1) + 1;
+            origins = Arrays.copyOf(origins, newSize);
+            dests = Arrays.copyOf(dests, newSize);
+            values = Arrays.copyOf(values, newSize);
+        }
+        origins[numAdded] = vOrigKey;
+        dests[numAdded] = vDestKey;
+        values[numAdded] = weight;
+        numAdded++;
+        offsets = null;
+    }
+
+    public int numVertices() {
+        return vertices.size();
+    }
+
+    public ArrayList<V> vertices() {
+        return new ArrayList<>(vertices);
+    }
+
+    public V vertex(int key) {
+        return vertices.get(key);
+    }
+
+    /** Number of edges of the graphs built: repeated edges are counted once
+     *  and, if undirected, every edge but a self-loop is counted in both directions
+     *
+     * @return the number of edges
+     */
+    public int numEdges() {
+        group();
+        return offsets[vertices.size()];
+    }
+
+    /** Position of the first outgoing edge of a vertex
+     *
+     * @param key vertex key
+     * @return the position of the first outgoing edge of the vertex
+     */
+    public int firstEdge(int key) {
+        group();
+        return offsets[key];
+    }
+
+    /** Position after the last outgoing edge of a vertex
+     *
+     * @param key vertex key
+     * @return the position after the last outgoing edge of the vertex
+     */
+    public int lastEdge(int key) {
+        group();
+        return offsets[key + 1];
+    }
+
+    /** Destination key of the edge at a position
+     *
+     * @param idx edge position
+     * @return the key of the destination vertex
+     */
+    public int target(int idx) {
+        group();
+        return targets[idx];
+    }
+
+    /** Weight of the edge at a position
+     *
+     * @param idx edge position
+     * @return the edge weight
+     */
+    public E weight(int idx) {
+        group();
+        return weights[idx];
+    }
+
+    public MapGraph<V, E> buildMapGraph() {
+        return new MapGraph<>(this);
+    }
+
+    public MatrixGraph<V, E> buildMatrixGraph() {
+        return new MatrixGraph<>(this);
+    }
+
+    public CsrGraph<V, E> buildCsrGraph() {
+        return new CsrGraph<>(this);
+    }
+
+    // groups the added edges by origin (stable counting sort) and drops repeated ones
+    @SuppressWarnings("unchecked")
+    private void group() {
+        if (offsets != null)
+            return;
+
+        int n = vertices.size();
+        int[] start = new int[n + 1];
+        for (int i = 0; i < numAdded; i++) {
+            start[origins[i] + 1]++;
+            if (!directed && origins[i] != dests[i])
+                start[dests[i] + 1]++;
+        }
+        for (int k = 0; k < n; k++)
+            start[k + 1] += start[k];
+
+        // edge positions in the order edges were added, so the first copy of an edge comes first
+        int[] fill = Arrays.copyOf(start, n);
+        int[] to = new int[start[n]];
+        int[] from = new int[start[n]];     // position -> index of the added edge
+        for (int i = 0; i < numAdded; i++) {
+            int p = fill[origins[i]]++;
+            to[p] = dests[i];
+            from[p] = i;
+            if (!directed && origins[i] != dests[i]) {
+                p = fill[dests[i]]++;
+                to[p] = origins[i];
+                from[p] = i;
+            }
+        }
+
+        int[] seen = new int[n];            // destination key -> last origin key + 1 that used it
+        int[] off = new int[n + 1];
+        int w = 0;
+        for (int k = 0; k < n; k++) {
+            off[k] = w;
+            for (int p = start[k]; p < start[k + 1]; p++) {
+                if (seen[to[p]] == k + 1)
+                    continue;
+                seen[to[p]] = k + 1;
+                to[w] = to[p];
+                from[w] = from[p];
+                w++;
+            }
+        }
+        off[n] = w;
+
+        E[] ws = (E[]) new Object[w];
+        for (int p = 0; p < w; p++)
+            ws[p] = (E) values[from[p]];
+
+        targets = Arrays.copyOf(to, w);
+        weights = ws;
+        offsets = off;
+    }
+}
@@ -0,0 +1,343 @@
+package graph;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keeps a topological order of a directed graph up to date while edges are
+ * inserted and removed (Pearce-Kelly dynamic topological sort).
+ * The initial order is computed with Kahn's algorithm. Inserting an edge u -> v
+ * with u already before v costs O(1); otherwise only the vertices whose position
+ * lies between v and u are visited and reordered.
+ * An edge that would close a cycle is still added to the graph but is kept as a
+ * pending cycle edge, outside the order; pending edges are retried when an edge
+ * is removed. The graph has a cycle exactly when there are pending edges.
+ * Once wrapped, the graph must only be modified through this class.
+ *
+ * @param <V> Vertex value type
+ * @param <E> Edge value type
+ * @author DEI-ISEP
+ */
+public class IncrementalTopologicalOrder<V, E> {
+
+    private final Graph<V, E> graph;
+    private int[] ord;          // vertex key -> position in the order
+    private int[] at;           // position -> vertex key
+    private boolean[] mark;     // scratch flags for the affected region
+    private final Set<Edge<V, E>> pending = new LinkedHashSet<>();  // edges that close a cycle
+
+    public IncrementalTopologicalOrder(Graph<V, E> graph) {
+        if (!graph.isDirected())
+            throw new IllegalArgumentException("Topological order requires a directed graph");
+
+        this.graph = graph;
+        int n = graph.numVertices();
+        ord = new int[Math.max(n, 1)];
+        at = new int[Math.max(n, 1)];
+        mark = new boolean[Math.max(n, 1)];
+        initialOrder();
+    }
+
+    public Graph<V, E> graph() {
+        return graph;
+    }
+
+    public boolean hasCycle() {
+        return !pending.isEmpty();
+    }
+
+    /** Edges left out of the order because each of them closes a cycle
+     *
+     * @return the pending cycle edges
+     */
+    public Collection<Edge<V, E>> cycleEdges() {
+        return new ArrayList<>(pending);
+    }
+
+    /** Current order: a topological order of the graph without its pending cycle edges
+     *
+     * @return the vertices by position
+     */
+    public List<V> order() {
+        int n = graph.numVertices();
+        List<V> result = new ArrayList<>(n);
+        for (int p = 0; p < n; p++)
+            result.add(graph.vertex(at[p]));
+        return result;
+    }
+
+    /** Position of a vertex in the current order
+     *
+     * @param vert the vertex
+     * @return its position, -1 if vert is not in the graph
+     */
+    public int position(V vert) {
+        int k = graph.key(vert);
+        return (k < 0) ? -1 : ord[k];
+    }
+
+    /** Inserts an edge, adding missing vertices at the end of the order
+     *
+     * @param vOrig origin vertex
+     * @param vDest destination vertex
+     * @param weight the weight of the edge
+     * @return true if the graph is still acyclic, false otherwise
+     */
+    public boolean insertEdge(V vOrig, V vDest, E weight) {
+        addVertex(vOrig);
+        addVertex(vDest);
+
+        if (graph.addEdge(vOrig, vDest, weight)) {
+            Edge<V, E> e = graph.edge(vOrig, vDest);
+            if (!reorder(e))
+                pending.add(e);
+        }
+        return !hasCycle();
+    }
+
+    /** Removes an edge. Removing an edge never invalidates the order, but it may
+     *  break cycles, so pending edges are retried.
+     *
+     * @param vOrig origin vertex
+     * @param vDest destination vertex
+     * @return true if the graph is acyclic after the removal, false otherwise
+     */
+    public boolean removeEdge(V vOrig, V vDest) {
+        Edge<V, E> e = graph.edge(vOrig, vDest);
+        if (e == null)
+            return !hasCycle();
+
+        graph.removeEdge(vOrig, vDest);
+        if (!pending.remove(e))
+            retryPending();
+        return !hasCycle();
+    }
+
+    /** Applies a batch of changes: all removals first, then all insertions.
+     *  Pending edges are retried once for the whole batch.
+     *
+     * @param insertions edges to insert (origin, destination and weight are used)
+     * @param deletions  edges to remove (origin and destination are used)
+     * @return true if the graph is acyclic after the batch, false otherwise
+     */
+    public boolean applyBatch(Collection<Edge<V, E>> insertions, Collection<Edge<V, E>> deletions) {
+        boolean removedOrdered = false;
+        for (Edge<V, E> d : deletions) {
+            Edge<V, E> e = graph.edge(d.getVOrig(), d.getVDest());
+            if (e == null)
+                continue;
+            graph.removeEdge(d.getVOrig(), d.getVDest());
+            if (!pending.remove(e))
+                removedOrdered = true;
+        }
+        if (removedOrdered)
+            retryPending();
+
+        for (Edge<V, E> i : insertions)
+            insertEdge(i.getVOrig(), i.getVDest(), i.getWeight());
+
+        return !hasCycle();
+    }
+
+    private void addVertex(V vert) {
+        if (graph.validVertex(vert))
+            return;
+
+        graph.addVertex(vert);
+        int k = graph.key(vert);
+        ensureCapacity(k + 1);
+        ord[k] = k;     // new vertices go to the end of the order
+        at[k] = k;
+    }
+
+    private void ensureCapacity(int n) {
+        if (ord.length >= n)
+            return;
+        int cap = Math.max(n, ord.length * 2);
+        ord = Arrays.copyOf(ord, cap);
+        at = Arrays.copyOf(at, cap);
+        mark = Arrays.copyOf(mark, cap);
+    }
+
+    // A pending edge stays pending while the rest of the graph still has a path closing its cycle
+    private void retryPending() {
+        for (Edge<V, E> e : new ArrayList<>(pending)) {
+            pending.remove(e);      // the searches must follow the other pending edges only
+            if (!reorder(e))
+                pending.add(e);
+        }
+    }
+
+    /** Pearce-Kelly update for the edge u -> v
+     *
+     * @return false if the edge closes a cycle (order left unchanged), true otherwise
+     */
+    private boolean reorder(Edge<V, E> e) {
+        int u = graph.key(e.getVOrig());
+        int v = graph.key(e.getVDest());
+        if (u == v)
+            return false;
+
+        int lb = ord[v];
+        int ub = ord[u];
+        if (lb > ub)
+            return true;    // already in order
+
+        // forward search from v among vertices up to u
+        List<Integer> deltaF = new ArrayList<>();
+        if (!search(v, ub, true, u, deltaF)) {
+            unmark(deltaF);
+            return false;
+        }
+
+        // backward search from u among vertices after v
+        List<Integer> deltaB = new ArrayList<>();
+        search(u, lb, false, -1, deltaB);
+
+        // the vertices that reach u move before the ones reached from v, reusing their positions
+        deltaF.sort((a, b) -> Integer.compare(ord[a], ord[b]));
+        deltaB.sort((a, b) -> Integer.compare(ord[a], ord[b]));
+
+        int[] positions = new int[deltaF.size() + deltaB.size()];
+        int i = 0;
+        for (int k : deltaB) positions[i++] = ord[k];
+        for (int k : deltaF) positions[i++] = ord[k];
+        Arrays.sort(positions);
+
+        i = 0;
+        for (int k : deltaB) place(k, positions[i++]);
+        for (int k : deltaF) place(k, positions[i++]);
+
+        unmark(deltaF);
+        unmark(deltaB);
+        return true;
+    }
+
+    /** Iterative depth-first search bounded by position, ignoring pending edges
+     *
+     * @param start   start vertex key
+     * @param bound   forward: visit positions < bound; backward: visit positions > bound
+     * @param forward follow outgoing (true) or incoming (false) edges
+     * @param target  vertex key whose discovery means a cycle, -1 for none
+     * @param visited returns the visited vertex keys
+     * @return false if target was reached, true otherwise
+     */
+    private boolean search(int start, int bound, boolean forward, int target, List<Integer> visited) {
+        Deque<Integer> stack = new ArrayDeque<>();
+        stack.push(start);
+        mark[start] = true;
+        visited.add(start);
+
+        while (!stack.isEmpty()) {
+            int k = stack.pop();
+            V vert = graph.vertex(k);
+            Collection<Edge<V, E>> edges = forward ? graph.outgoingEdges(vert) : graph.incomingEdges(vert);
+
+            for (Edge<V, E> e : edges) {
+                if (pending.contains(e))
+                    continue;
+                int w = graph.key(forward ? e.getVDest() : e.getVOrig());
+                if (w == target)
+                    return false;
+                boolean inRegion = forward ? ord[w] < bound : ord[w] > bound;
+                if (!mark[w] && inRegion) {
+                    mark[w] = true;
+                    visited.add(w);
+                    stack.push(w);
+                }
+            }
+        }
+        return true;
+    }
+
+    private void place(int k, int p) {
+        ord[k] = p;
+        at[p] = k;
+    }
+
+    private void unmark(List<Integer> keys) {
+        for (int k : keys)
+            mark[k] = false;
+    }
+
+    // Kahn's algorithm; vertices left on cycles are ordered by an iterative DFS whose back edges become pending
+    private void initialOrder() {
+        int n = graph.numVertices();
+        int[] inDeg = new int[n];
+        for (int k = 0; k < n; k++)
+            inDeg[k] = graph.inDegree(graph.vertex(k));
+
+        Deque<Integer> ready = new ArrayDeque<>();
+        for (int k = 0; k < n; k++)
+            if (inDeg[k] == 0)
+                ready.add(k);
+
+        int p = 0;
+        boolean[] placed = new boolean[n];
+        while (!ready.isEmpty()) {
+            int k = ready.poll();
+            place(k, p++);
+            placed[k] = true;
+            for (Edge<V, E> e : graph.outgoingEdges(graph.vertex(k))) {
+                int w = graph.key(e.getVDest());
+                if (--inDeg[w] == 0)
+                    ready.add(w);
+            }
+        }
+
+        if (p < n)
+            orderCyclicRest(placed, p);
+    }
+
+    // Reverse postorder of the vertices Kahn could not place. No edge leads from them
+    // back to placed vertices, so they can follow all of those.
+    private void orderCyclicRest(boolean[] placed, int first) {
+        int n = graph.numVertices();
+        byte[] color = new byte[n];     // 0 white, 1 gray, 2 black
+        int[] post = new int[n - first];
+        int np = 0;
+
+        for (int s = 0; s < n; s++) {
+            if (placed[s] || color[s] != 0)
+                continue;
+
+            Deque<Integer> stack = new ArrayDeque<>();
+            Deque<Iterator<Edge<V, E>>> iters = new ArrayDeque<>();
+            stack.push(s);
+            iters.push(graph.outgoingEdges(graph.vertex(s)).iterator());
+            color[s] = 1;
+
+            while (!stack.isEmpty()) {
+                Iterator<Edge<V, E>> it = iters.peek();
+                if (it.hasNext()) {
+                    Edge<V, E> e = it.next();
+                    int w = graph.key(e.getVDest());
+                    if (placed[w])
+                        continue;
+                    if (color[w] == 1) {
+                        pending.add(e);     // back edge closes a cycle
+                    } else if (color[w] == 0) {
+                        color[w] = 1;
+                        stack.push(w);
+                        iters.push(graph.outgoingEdges(e.getVDest()).iterator());
+                    }
+                } else {
+                    int k = stack.pop();
+                    iters.pop();
+                    color[k] = 2;
+                    post[np++] = k;
+                }
+            }
+        }
+
+        for (int i = 0; i < np; i++)
+            place(post[np - 1 - i], first + i);
+    }
+}
@@ -0,0 +1,107 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Binary min-heap over the integer keys 0..capacity-1 of a graph, ordered by a
+ * priority of type E. Each key is in the heap at most once and its priority can
+ * be lowered in place (decrease-key), so Dijkstra-like algorithms never need
+ * duplicate entries.
+ *
+ * @param <E> priority type
+ * @author DEI-ISEP
+ */
+public class IndexedMinHeap<E> {
+
+    private final Comparator<E> ce;
+    private final int[] heap;      // heap position -> key
+    private final int[] pos;       // key -> heap position, -1 if not in heap
+    private final E[] prio;        // key -> priority
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public IndexedMinHeap(int capacity, Comparator<E> ce) {
+        this.ce = ce;
+        heap = new int[capacity];
+        pos = new int[capacity];
+        prio = (E[]) new Object[capacity];
+        Arrays.fill(pos, -1);
+        size = 0;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(int key) {
+        return pos[key] != -1;
+    }
+
+    /** Inserts key with priority p, or lowers its priority if already present
+     *
+     * @param key the key to insert or update
+     * @param p   the new priority
+     */
+    public void insertOrDecrease(int key, E p) {
+        if (pos[key] == -1) {
+            heap[size] = key;
+            pos[key] = size;
+            prio[key] = p;
+            siftUp(size++);
+        } else if (ce.compare(p, prio[key]) < 0) {
+            prio[key] = p;
+            siftUp(pos[key]);
+        }
+    }
+
+    /** Removes the key with the lowest priority
+     *
+     * @return the removed key
+     */
+    public int poll() {
+        int min = heap[0];
+        swap(0, --size);
+        pos[min] = -1;
+        prio[min] = null;
+        if (size > 0)
+            siftDown(0);
+        return min;
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (ce.compare(prio[heap[i]], prio[heap[parent]]) >= 0)
+                break;
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int l = 2 * i + 1;
+            if (l >= size) break;
+            int r = l + 1;
+            int min = (r < size && ce.compare(prio[heap[r]], prio[heap[l]]) < 0) ? r : l;
+            if (ce.compare(prio[heap[min]], prio[heap[i]]) >= 0)
+                break;
+            swap(i, min);
+            i = min;
+        }
+    }
+
+    private void swap(int i, int j) {
+        int ki = heap[i];
+        int kj = heap[j];
+        heap[i] = kj;
+        heap[j] = ki;
+        pos[kj] = i;
+        pos[ki] = j;
+    }
+}
@@ -0,0 +1,179 @@
+package graph;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.NoSuchElementException;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Lazy enumeration of the simple paths between two vertices, one path per call
+ * to next(), with an iterative depth-first search.
+ * Only the current path is kept in memory. Paths can be limited by number of
+ * edges (hops) and by total weight; a branch is pruned as soon as the hops or
+ * weight already used plus the minimum still needed to reach the destination
+ * (computed once by a backward search) exceeds the limit, and vertices that
+ * cannot reach the destination are never entered.
+ *
+ * @param <V> Vertex value type
+ * @param <E> Edge value type
+ * @author DEI-ISEP
+ */
+public class PathEnumerator<V, E> implements Iterator<LinkedList<V>> {
+
+    private final Graph<V, E> g;
+    private final ToDoubleFunction<E> weight;
+    private final int dest;
+    private final int maxHops;
+    private final double maxWeight;
+
+    private final int[] hopsToDest;         // minimum edges to the destination, -1 if unreachable
+    private final double[] distToDest;      // minimum weight to the destination
+    private final boolean[] onPath;
+
+    private final Deque<Frame> stack = new ArrayDeque<>();
+    private LinkedList<V> nextPath;
+
+    // a vertex of the current path and the edges still to try from it
+    private final class Frame {
+        final int key;
+        final int hops;
+        final double weight;
+        final Iterator<Edge<V, E>> edges;
+
+        Frame(int key, int hops, double weight, Iterator<Edge<V, E>> edges) {
+            this.key = key;
+            this.hops = hops;
+            this.weight = weight;
+            this.edges = edges;
+        }
+    }
+
+    /**
+     * @param g         graph
+     * @param vOrig     origin vertex
+     * @param vDest     destination vertex
+     * @param weight    extracts the non-negative weight of an edge
+     * @param maxHops   maximum number of edges of a path, Integer.MAX_VALUE for no limit
+     * @param maxWeight maximum total weight of a path, Double.POSITIVE_INFINITY for no limit
+     */
+    public PathEnumerator(Graph<V, E> g, V vOrig, V vDest, ToDoubleFunction<E> weight, int maxHops, double maxWeight) {
+        this.g = g;
+        this.weight = weight;
+        this.maxHops = maxHops;
+        this.maxWeight = maxWeight;
+
+        int n = g.numVertices();
+        hopsToDest = new int[n];
+        distToDest = new double[n];
+        onPath = new boolean[n];
+
+        int orig = g.key(vOrig);
+        dest = g.key(vDest);
+        if (orig < 0 || dest < 0)
+            return;
+
+        backwardSearch();
+        if (orig == dest) {
+            nextPath = new LinkedList<>();      // the single path with no edges
+            nextPath.add(vOrig);
+        } else if (canReach(orig, 0, 0)) {
+            onPath[orig] = true;
+            stack.push(new Frame(orig, 0, 0, g.outgoingEdges(vOrig).iterator()));
+        }
+    }
+
+    // minimum hops (BFS) and weight (Dijkstra) from every vertex to the destination over incoming edges
+    private void backwardSearch() {
+        int n = g.numVertices();
+        Arrays.fill(hopsToDest, -1);
+        Arrays.fill(distToDest, Double.POSITIVE_INFINITY);
+
+        int[] queue = new int[n];
+        int head = 0, tail = 0;
+        hopsToDest[dest] = 0;
+        queue[tail++] = dest;
+        while (head < tail) {
+            int x = queue[head++];
+            for (Edge<V, E> e : g.incomingEdges(g.vertex(x))) {
+                int u = g.key(e.getVOrig());
+                if (hopsToDest[u] == -1) {
+                    hopsToDest[u] = hopsToDest[x] + 1;
+                    queue[tail++] = u;
+                }
+            }
+        }
+
+        DoubleIndexedMinHeap heap = new DoubleIndexedMinHeap(n);
+        distToDest[dest] = 0;
+        heap.insertOrDecrease(dest, 0);
+        while (!heap.isEmpty()) {
+            int x = heap.poll();
+            for (Edge<V, E> e : g.incomingEdges(g.vertex(x))) {
+                int u = g.key(e.getVOrig());
+                double alt = distToDest[x] + weight.applyAsDouble(e.getWeight());
+                if (alt < distToDest[u]) {
+                    distToDest[u] = alt;
+                    heap.insertOrDecrease(u, alt);
+                }
+            }
+        }
+    }
+
+    // true if a path through key, reached with the given hops and weight, can still meet the limits
+    private boolean canReach(int key, int hops, double w) {
+        return hopsToDest[key] != -1
+                && (long) hops + hopsToDest[key] <= maxHops
+                && w + distToDest[key] <= maxWeight;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (nextPath == null)
+            nextPath = advance();
+        return nextPath != null;
+    }
+
+    @Override
+    public LinkedList<V> next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+        LinkedList<V> path = nextPath;
+        nextPath = null;
+        return path;
+    }
+
+    // runs the search until it reaches the destination
+    private LinkedList<V> advance() {
+        while (!stack.isEmpty()) {
+            Frame top = stack.peek();
+            if (!top.edges.hasNext()) {
+                onPath[stack.pop().key] = false;
+                continue;
+            }
+
+            Edge<V, E> e = top.edges.next();
+            int w = g.key(e.getVDest());
+            if (onPath[w])
+                continue;
+            int hops = top.hops + 1;
+            double total = top.weight + weight.applyAsDouble(e.getWeight());
+            if (!canReach(w, hops, total))
+                continue;
+
+            if (w == dest) {
+                LinkedList<V> path = new LinkedList<>();
+                for (Iterator<Frame> it = stack.descendingIterator(); it.hasNext(); )
+                    path.add(g.vertex(it.next().key));
+                path.add(e.getVDest());
+                return path;
+            }
+
+            onPath[w] = true;
+            stack.push(new Frame(w, hops, total, g.outgoingEdges(e.getVDest()).iterator()));
+        }
+        return null;
+    }
+}
@@ -0,0 +1,125 @@
+package graph;
+
+import graph.matrix.BitMatrixGraph;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Map;
+
+/**
+ * All-pairs minimum distances of a graph as dense row-major arrays indexed by
+ * vertex key: the distance from key i to key j is at position i*n+j.
+ * A next-hop matrix holds, for every pair, the key of the vertex that follows
+ * i on a minimum path to j (-1 if j cannot be reached), so paths are rebuilt
+ * without storing them.
+ * Positions are int, so graphs are limited to MAX_VERTICES vertices, the
+ * largest n for which n*n fits in an int (and in a Java array).
+ *
+ * @param <V> Vertex value type
+ * @author DEI-ISEP
+ */
+public class ShortestPathMatrix<V> {
+
+    public static final int MAX_VERTICES = 46340;     // floor(sqrt(Integer.MAX_VALUE))
+
+    private final ArrayList<V> vertices;
+    private final Map<V, Integer> keys;
+    private final int n;
+    private final double[] dist;    // i*n+j -> minimum distance, +INF if unreachable
+    private final int[] next;       // i*n+j -> key after i on a minimum path, -1 if unreachable
+
+    ShortestPathMatrix(ArrayList<V> vertices, double[] dist, int[] next) {
+        this.vertices = vertices;
+        this.n = checkSize(vertices.size());
+        this.keys = new HashMap<>(n * 2);
+        for (int k = 0; k < n; k++)
+            keys.put(vertices.get(k), k);
+        this.dist = dist;
+        this.next = next;
+    }
+
+    // rejects graphs whose n*n matrices cannot be indexed by int
+    static int checkSize(int n) {
+        if (n > MAX_VERTICES)
+            throw new IllegalArgumentException("Too many vertices for an all-pairs matrix: " + n + " > " + MAX_VERTICES);
+        return n;
+    }
+
+    public int numVertices() {
+        return n;
+    }
+
+    /** Minimum distance between the vertices with keys i and j
+     *
+     * @param i origin key
+     * @param j destination key
+     * @return the minimum distance, Double.POSITIVE_INFINITY if j is not reachable from i
+     */
+    public double distance(int i, int j) {
+        return dist[i * n + j];
+    }
+
+    /** Key of the vertex after i on a minimum path from i to j
+     *
+     * @param i origin key
+     * @param j destination key
+     * @return the next key, j itself for a direct edge, i if i == j, -1 if j is not reachable
+     */
+    public int nextHop(int i, int j) {
+        return next[i * n + j];
+    }
+
+    /** Minimum distance between two vertices
+     *
+     * @param vOrig origin vertex
+     * @param vDest destination vertex
+     * @return the minimum distance, Double.POSITIVE_INFINITY if the vertices do not exist or are not connected
+     */
+    public double distance(V vOrig, V vDest) {
+        Integer i = keys.get(vOrig);
+        Integer j = keys.get(vDest);
+        if (i == null || j == null)
+            return Double.POSITIVE_INFINITY;
+        return dist[i * n + j];
+    }
+
+    /** Rebuilds a minimum path from the next-hop matrix
+     *
+     * @param vOrig origin vertex
+     * @param vDest destination vertex
+     * @return the vertices of the path (correct order), empty if the vertices do not exist or are not connected
+     */
+    public LinkedList<V> path(V vOrig, V vDest) {
+        LinkedList<V> path = new LinkedList<>();
+        Integer i = keys.get(vOrig);
+        Integer j = keys.get(vDest);
+        if (i == null || j == null || next[i * n + j] == -1)
+            return path;
+
+        path.add(vertices.get(i));
+        // at most n-1 hops, which also stops on zero-weight cycles
+        for (int k = i, hops = 0; k != j && hops < n; hops++) {
+            k = next[k * n + j];
+            path.add(vertices.get(k));
+        }
+        return path;
+    }
+
+    /** Minimum distance graph: an edge i -> j weighted by the minimum distance
+     *  for every pair of distinct vertices where j is reachable from i
+     *
+     * @param directed whether the graph is directed
+     * @return the minimum distance graph, stored as a bitset matrix
+     */
+    public BitMatrixGraph<V> toGraph(boolean directed) {
+        BitMatrixGraph<V> g = new BitMatrixGraph<>(directed, n);
+        for (V v : vertices)
+            g.addVertex(v);
+        for (int i = 0; i < n; i++)
+            for (int j = directed ? 0 : i + 1; j < n; j++)
+                if (i != j && dist[i * n + j] != Double.POSITIVE_INFINITY)
+                    g.addEdge(vertices.get(i), vertices.get(j), dist[i * n + j]);
+        return g;
+    }
+}
@@ -0,0 +1,115 @@
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * Reusable buffers for breadth-first and depth-first traversals.
+ * Visited vertices are marked with the number of the current traversal
+ * (epoch) instead of a boolean, so starting a new traversal does not clear
+ * anything; the arrays only grow when a larger graph is traversed.
+ * After a traversal, key(0) .. key(size()-1) are the visited vertex keys in
+ * visit order. A context must not be shared between threads.
+ *
+ * @author DEI-ISEP
+ */
+public class TraversalContext {
+
+    private int[] stamp;    // vertex key -> epoch in which it was visited
+    private int epoch;
+    private int[] order;    // visit order, also used as the BFS queue
+    private int size;
+    private int[] stack;    // DFS stack, may hold a vertex more than once
+    private int top;
+
+    public TraversalContext() {
+        this(16);
+    }
+
+    public TraversalContext(int capacity) {
+        stamp = new int[capacity];
+        order = new int[capacity];
+        stack = new int[Math.max(capacity, 1)];
+    }
+
+    /** Number of vertices visited by the last traversal
+     *
+     * @return the number of visited vertices
+     */
+    public int size() {
+        return size;
+    }
+
+    /** Key of the i-th visited vertex of the last traversal
+     *
+     * @param i visit position, 0 to size()-1
+     * @return the vertex key
+     */
+    public int key(int i) {
+        if (i < 0 || i >= size) throw new IndexOutOfBoundsException(i);
+        return order[i];
+    }
+
+    /** Whether a vertex was visited by the last traversal
+     *
+     * @param key vertex key
+     * @return true if visited, false otherwise
+     */
+    public boolean visited(int key) {
+        return epoch != 0 && key < stamp.length && stamp[key] == epoch;
+    }
+
+    // starts a traversal of a graph with n vertices
+    void begin(int n) {
+        if (stamp.length < n) {
+            stamp = new int[n];
+            order = new int[n];
+            epoch = 0;
+        }
+        if (++epoch == 0) {     // wrapped around: old stamps could match again
+            Arrays.fill(stamp, 0);
+            epoch = 1;
+        }
+        size = 0;
+        top = 0;
+    }
+
+    // marks key as visited and appends it to the visit order; false if already visited
+    boolean visit(int key) {
+        if (stamp[key] == epoch)
+            return false;
+        stamp[key] = epoch;
+        order[size++] = key;
+        return true;
+    }
+
+    int orderAt(int i) {
+        return order[i];
+    }
+
+    void push(int key) {
+        if (top == stack.length)
+            stack = Arrays.copyOf(stack, stack.length * 2);
+        stack[top++] = key;
+    }
+
+    int pop() {
+        return stack[--top];
+    }
+
+    boolean stackEmpty() {
+        return top == 0;
+    }
+
+    int stackSize() {
+        return top;
+    }
+
+    // reverses the keys pushed since position from, so they pop in push order
+    void reverseStack(int from) {
+        for (int i = from, j = top - 1; i < j; i++, j--) {
+            int t = stack[i];
+            stack[i] = stack[j];
+            stack[j] = t;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package graph;
+
+/**
+ * Disjoint-set forest over the integer keys 0..n-1 of a graph, with union by
+ * rank and path halving (near constant amortised time per operation).
+ *
+ * @author DEI-ISEP
+ */
+public class UnionFind {
+
+    private final int[] parent;
+    private final byte[] rank;
+    private int components;
+
+    public UnionFind(int n) {
+        parent = new int[n];
+        rank = new byte[n];
+        for (int i = 0; i < n; i++)
+            parent[i] = i;
+        components = n;
+    }
+
+    /** Representative of the set containing a key
+     *
+     * @param x the key
+     * @return the representative key of the set of x
+     */
+    public int find(int x) {
+        while (parent[x] != x) {
+            parent[x] = parent[parent[x]];
+            x = parent[x];
+        }
+        return x;
+    }
+
+    /** Joins the sets containing two keys
+     *
+     * @param a first key
+     * @param b second key
+     * @return true if a and b were in different sets, false otherwise
+     */
+    public boolean union(int a, int b) {
+        int ra = find(a);
+        int rb = find(b);
+        if (ra == rb)
+            return false;
+
+        if (rank[ra] < rank[rb]) {
+            int t = ra; ra = rb; rb = t;
+        }
+        parent[rb] = ra;
+        if (rank[ra] == rank[rb])
+            rank[ra]++;
+        components--;
+        return true;
+    }
+
+    public boolean connected(int a, int b) {
+        return find(a) == find(b);
+    }
+
+    public int components() {
+        return components;
+    }
+}
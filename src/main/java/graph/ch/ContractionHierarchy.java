@@ -0,0 +1,516 @@
+package graph.ch;
+
+import graph.DoubleIndexedMinHeap;
+import graph.Graph;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Contraction hierarchy of a directed graph for fast point-to-point queries.
+ * Preprocessing contracts the vertices one at a time, least important first
+ * (edge difference plus contracted neighbours), adding a shortcut u -> x
+ * whenever u -> v -> x was the only minimum path through the contracted v.
+ * Each vertex then keeps only its arcs towards more important vertices:
+ * upward arcs for the forward search and reversed upward arcs for the backward
+ * search. A query runs Dijkstra upward from both ends, so it settles a small part
+ * of the graph, and shortcuts are unpacked to rebuild the original path.
+ * The arcs are stored in CSR arrays that can be saved and loaded in binary form.
+ *
+ * @param <V> Vertex value type
+ * @author DEI-ISEP
+ */
+public class ContractionHierarchy<V> {
+
+    private static final int MAGIC = 0x43480001;    // "CH", format 1
+    private static final int WITNESS_LIMIT = 500;   // vertices settled per witness search
+
+    private final ArrayList<V> vertices;    // vertex id -> vertex
+    private final Map<V, Integer> ids;
+    private final int[] rank;               // contraction order, higher is more important
+
+    // forward upward arcs of u: up[upOff[u] .. upOff[u+1]-1]
+    private final int[] upOff, upTo, upVia;
+    private final double[] upW;
+    // backward upward arcs of x, from more important u with an arc u -> x
+    private final int[] downOff, downFrom, downVia;
+    private final double[] downW;
+
+    private ContractionHierarchy(ArrayList<V> vertices, int[] rank,
+                                 int[] upOff, int[] upTo, double[] upW, int[] upVia,
+                                 int[] downOff, int[] downFrom, double[] downW, int[] downVia) {
+        this.vertices = vertices;
+        this.rank = rank;
+        this.upOff = upOff;
+        this.upTo = upTo;
+        this.upW = upW;
+        this.upVia = upVia;
+        this.downOff = downOff;
+        this.downFrom = downFrom;
+        this.downW = downW;
+        this.downVia = downVia;
+
+        ids = new HashMap<>(vertices.size() * 2);
+        for (int i = 0; i < vertices.size(); i++)
+            ids.put(vertices.get(i), i);
+    }
+
+    // arc of the graph being contracted; via is the contracted middle vertex of a shortcut, -1 for an edge
+    private static final class Arc {
+        final double w;
+        final int via;
+
+        Arc(double w, int via) {
+            this.w = w;
+            this.via = via;
+        }
+    }
+
+    /** Preprocesses a graph. Undirected graphs are handled as their two directions.
+     *
+     * @param g      graph
+     * @param weight extracts the non-negative weight of an edge
+     * @return the contraction hierarchy
+     */
+    public static <V, E> ContractionHierarchy<V> build(Graph<V, E> g, ToDoubleFunction<E> weight) {
+        return new Builder<>(g, weight).run();
+    }
+
+    public int numVertices() {
+        return vertices.size();
+    }
+
+    public int numShortcuts() {
+        int count = 0;
+        for (int via : upVia) if (via != -1) count++;
+        for (int via : downVia) if (via != -1) count++;
+        return count;
+    }
+
+    /** Minimum distance between two vertices
+     *
+     * @param vOrig origin vertex
+     * @param vDest destination vertex
+     * @return the minimum distance, Double.POSITIVE_INFINITY if vertices do not exist or are not connected
+     */
+    public double distance(V vOrig, V vDest) {
+        return shortestPath(vOrig, vDest, null);
+    }
+
+    /** Shortest-path between two vertices
+     *
+     * @param vOrig     origin vertex
+     * @param vDest     destination vertex
+     * @param shortPath returns the vertices which make the shortest path, may be null
+     * @return the length of the shortest path, Double.POSITIVE_INFINITY if vertices do not exist or are not connected
+     */
+    public double shortestPath(V vOrig, V vDest, LinkedList<V> shortPath) {
+        if (shortPath != null) shortPath.clear();
+        Integer s = ids.get(vOrig);
+        Integer t = ids.get(vDest);
+        if (s == null || t == null)
+            return Double.POSITIVE_INFINITY;
+
+        int n = vertices.size();
+        double[] distF = new double[n];
+        double[] distB = new double[n];
+        int[] parF = new int[n];    // forward: previous vertex, -1 for s
+        int[] arcF = new int[n];    // forward: up arc that reached the vertex
+        int[] parB = new int[n];    // backward: next vertex towards t, -1 for t
+        int[] arcB = new int[n];    // backward: down arc that reached the vertex
+        Arrays.fill(distF, Double.POSITIVE_INFINITY);
+        Arrays.fill(distB, Double.POSITIVE_INFINITY);
+        DoubleIndexedMinHeap heapF = new DoubleIndexedMinHeap(n);
+        DoubleIndexedMinHeap heapB = new DoubleIndexedMinHeap(n);
+
+        distF[s] = 0;
+        parF[s] = -1;
+        heapF.insertOrDecrease(s, 0);
+        distB[t] = 0;
+        parB[t] = -1;
+        heapB.insertOrDecrease(t, 0);
+
+        double best = Double.POSITIVE_INFINITY;
+        int meet = -1;
+
+        while (true) {
+            // each side stops once its frontier cannot improve the best meeting
+            boolean fOpen = !heapF.isEmpty() && heapF.peekPriority() < best;
+            boolean bOpen = !heapB.isEmpty() && heapB.peekPriority() < best;
+            if (!fOpen && !bOpen)
+                break;
+
+            if (fOpen && (!bOpen || heapF.peekPriority() <= heapB.peekPriority())) {
+                int u = heapF.poll();
+                if (distF[u] + distB[u] < best) {
+                    best = distF[u] + distB[u];
+                    meet = u;
+                }
+                for (int i = upOff[u]; i < upOff[u + 1]; i++) {
+                    int x = upTo[i];
+                    double alt = distF[u] + upW[i];
+                    if (alt < distF[x]) {
+                        distF[x] = alt;
+                        parF[x] = u;
+                        arcF[x] = i;
+                        heapF.insertOrDecrease(x, alt);
+                    }
+                }
+            } else {
+                int x = heapB.poll();
+                if (distF[x] + distB[x] < best) {
+                    best = distF[x] + distB[x];
+                    meet = x;
+                }
+                for (int i = downOff[x]; i < downOff[x + 1]; i++) {
+                    int u = downFrom[i];
+                    double alt = distB[x] + downW[i];
+                    if (alt < distB[u]) {
+                        distB[u] = alt;
+                        parB[u] = x;
+                        arcB[u] = i;
+                        heapB.insertOrDecrease(u, alt);
+                    }
+                }
+            }
+        }
+
+        if (shortPath != null && meet != -1) {
+            LinkedList<Integer> upward = new LinkedList<>();    // up arcs from s to meet
+            for (int v = meet; parF[v] != -1; v = parF[v])
+                upward.addFirst(v);
+
+            List<Integer> keys = new ArrayList<>();
+            keys.add(s);
+            for (int v : upward)
+                unpack(parF[v], v, upVia[arcF[v]], keys);
+            for (int u = meet; parB[u] != -1; u = parB[u])
+                unpack(u, parB[u], downVia[arcB[u]], keys);
+
+            for (int k : keys)
+                shortPath.add(vertices.get(k));
+        }
+        return best;
+    }
+
+    // appends the original vertices of arc u -> x after u, up to and including x
+    private void unpack(int u, int x, int via, List<Integer> path) {
+        if (via == -1) {
+            path.add(x);
+            return;
+        }
+        // via was contracted before u and x, so u -> via and via -> x are recorded at via
+        unpack(u, via, arcVia(u, via), path);
+        unpack(via, x, arcVia(via, x), path);
+    }
+
+    // middle vertex of the recorded arc a -> b, which is stored at its less important end
+    private int arcVia(int a, int b) {
+        if (rank[a] < rank[b]) {
+            for (int i = upOff[a]; i < upOff[a + 1]; i++)
+                if (upTo[i] == b) return upVia[i];
+        } else {
+            for (int i = downOff[b]; i < downOff[b + 1]; i++)
+                if (downFrom[i] == a) return downVia[i];
+        }
+        throw new IllegalStateException("Missing arc " + a + " -> " + b);
+    }
+
+    /** Writes the hierarchy in binary form
+     *
+     * @param out output stream (not closed)
+     * @param id  unique textual id of a vertex, used to match the vertices when loading
+     * @throws IOException if writing fails
+     */
+    public void save(OutputStream out, Function<V, String> id) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeInt(vertices.size());
+        for (V v : vertices)
+            data.writeUTF(id.apply(v));
+        writeInts(data, rank);
+        writeInts(data, upOff);
+        writeInts(data, upTo);
+        writeDoubles(data, upW);
+        writeInts(data, upVia);
+        writeInts(data, downOff);
+        writeInts(data, downFrom);
+        writeDoubles(data, downW);
+        writeInts(data, downVia);
+        data.flush();
+    }
+
+    /** Reads a hierarchy written by save
+     *
+     * @param in input stream (not closed)
+     * @param g  graph holding the vertices of the hierarchy
+     * @param id the same vertex id used when saving
+     * @return the hierarchy
+     * @throws IOException if reading fails, the data is not a hierarchy or a vertex is not in g
+     */
+    public static <V> ContractionHierarchy<V> load(InputStream in, Graph<V, ?> g, Function<V, String> id) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC)
+            throw new IOException("Not a contraction hierarchy");
+
+        Map<String, V> byId = new HashMap<>();
+        for (V v : g.vertices())
+            byId.put(id.apply(v), v);
+
+        int n = data.readInt();
+        ArrayList<V> vertices = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            String vid = data.readUTF();
+            V v = byId.get(vid);
+            if (v == null)
+                throw new IOException("Unknown vertex " + vid);
+            vertices.add(v);
+        }
+
+        return new ContractionHierarchy<>(vertices, readInts(data),
+                readInts(data), readInts(data), readDoubles(data), readInts(data),
+                readInts(data), readInts(data), readDoubles(data), readInts(data));
+    }
+
+    private static void writeInts(DataOutputStream data, int[] a) throws IOException {
+        data.writeInt(a.length);
+        for (int x : a) data.writeInt(x);
+    }
+
+    private static void writeDoubles(DataOutputStream data, double[] a) throws IOException {
+        data.writeInt(a.length);
+        for (double x : a) data.writeDouble(x);
+    }
+
+    private static int[] readInts(DataInputStream data) throws IOException {
+        int[] a = new int[data.readInt()];
+        for (int i = 0; i < a.length; i++) a[i] = data.readInt();
+        return a;
+    }
+
+    private static double[] readDoubles(DataInputStream data) throws IOException {
+        double[] a = new double[data.readInt()];
+        for (int i = 0; i < a.length; i++) a[i] = data.readDouble();
+        return a;
+    }
+
+    // Contraction state, only used while building
+    private static final class Builder<V, E> {
+        private final Graph<V, E> g;
+        private final int n;
+        private final List<Map<Integer, Arc>> out = new ArrayList<>();    // remaining arcs
+        private final List<Map<Integer, Arc>> in = new ArrayList<>();
+        private final int[] deletedNeighbours;
+        private final int[] rank;
+
+        // witness search scratch, reset through the touched list
+        private final double[] wDist;
+        private final int[] touched;
+        private final DoubleIndexedMinHeap wHeap;
+
+        Builder(Graph<V, E> g, ToDoubleFunction<E> weight) {
+            this.g = g;
+            n = g.numVertices();
+            deletedNeighbours = new int[n];
+            rank = new int[n];
+            wDist = new double[n];
+            touched = new int[n];
+            wHeap = new DoubleIndexedMinHeap(n);
+            Arrays.fill(wDist, Double.POSITIVE_INFINITY);
+
+            for (int k = 0; k < n; k++) {
+                out.add(new HashMap<>());
+                in.add(new HashMap<>());
+            }
+            for (int u = 0; u < n; u++) {
+                final int from = u;
+                g.forEachOutEdge(g.vertex(u), e -> {
+                    int x = g.key(e.getVDest());
+                    if (x != from)
+                        addArc(from, x, weight.applyAsDouble(e.getWeight()), -1);
+                });
+            }
+        }
+
+        // keeps the lighter of parallel arcs
+        private boolean addArc(int u, int x, double w, int via) {
+            Arc old = out.get(u).get(x);
+            if (old != null && old.w <= w)
+                return false;
+            Arc a = new Arc(w, via);
+            out.get(u).put(x, a);
+            in.get(x).put(u, a);
+            return true;
+        }
+
+        ContractionHierarchy<V> run() {
+            // lazy priority queue: an entry is re-evaluated when it reaches the top
+            PriorityQueue<long[]> queue = new PriorityQueue<>((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+            for (int v = 0; v < n; v++)
+                queue.add(new long[]{priority(v), v});
+
+            List<List<int[]>> upArcs = new ArrayList<>();     // per vertex: {target, via} with weights apart
+            List<List<Double>> upWeights = new ArrayList<>();
+            List<List<int[]>> downArcs = new ArrayList<>();
+            List<List<Double>> downWeights = new ArrayList<>();
+            for (int k = 0; k < n; k++) {
+                upArcs.add(new ArrayList<>());
+                upWeights.add(new ArrayList<>());
+                downArcs.add(new ArrayList<>());
+                downWeights.add(new ArrayList<>());
+            }
+
+            int next = 0;
+            while (!queue.isEmpty()) {
+                long[] top = queue.poll();
+                int v = (int) top[1];
+                long p = priority(v);
+                if (!queue.isEmpty() && p > queue.peek()[0]) {
+                    queue.add(new long[]{p, v});
+                    continue;
+                }
+
+                // the remaining arcs of v lead to more important vertices
+                for (Map.Entry<Integer, Arc> e : out.get(v).entrySet()) {
+                    upArcs.get(v).add(new int[]{e.getKey(), e.getValue().via});
+                    upWeights.get(v).add(e.getValue().w);
+                }
+                for (Map.Entry<Integer, Arc> e : in.get(v).entrySet()) {
+                    downArcs.get(v).add(new int[]{e.getKey(), e.getValue().via});
+                    downWeights.get(v).add(e.getValue().w);
+                }
+
+                contract(v, false);
+                rank[v] = next++;
+            }
+
+            int[] upOff = new int[n + 1];
+            int[] downOff = new int[n + 1];
+            for (int k = 0; k < n; k++) {
+                upOff[k + 1] = upOff[k] + upArcs.get(k).size();
+                downOff[k + 1] = downOff[k] + downArcs.get(k).size();
+            }
+            int[] upTo = new int[upOff[n]], upVia = new int[upOff[n]];
+            double[] upW = new double[upOff[n]];
+            int[] downFrom = new int[downOff[n]], downVia = new int[downOff[n]];
+            double[] downW = new double[downOff[n]];
+            for (int k = 0; k < n; k++) {
+                for (int j = 0; j < upArcs.get(k).size(); j++) {
+                    upTo[upOff[k] + j] = upArcs.get(k).get(j)[0];
+                    upVia[upOff[k] + j] = upArcs.get(k).get(j)[1];
+                    upW[upOff[k] + j] = upWeights.get(k).get(j);
+                }
+                for (int j = 0; j < downArcs.get(k).size(); j++) {
+                    downFrom[downOff[k] + j] = downArcs.get(k).get(j)[0];
+                    downVia[downOff[k] + j] = downArcs.get(k).get(j)[1];
+                    downW[downOff[k] + j] = downWeights.get(k).get(j);
+                }
+            }
+
+            return new ContractionHierarchy<>(g.vertices(), rank, upOff, upTo, upW, upVia,
+                    downOff, downFrom, downW, downVia);
+        }
+
+        // edge difference plus contracted neighbours: prefers cheap vertices spread over the graph
+        private long priority(int v) {
+            int shortcuts = contract(v, true);
+            int removed = out.get(v).size() + in.get(v).size();
+            return 2L * (shortcuts - removed) + deletedNeighbours[v];
+        }
+
+        /** Contracts v, or only counts the shortcuts it needs when simulate is true
+         *
+         * @return the number of shortcuts
+         */
+        private int contract(int v, boolean simulate) {
+            Map<Integer, Arc> outs = out.get(v);
+            Map<Integer, Arc> ins = in.get(v);
+            int shortcuts = 0;
+            List<double[]> added = new ArrayList<>();   // {u, x, w}, applied after all searches
+
+            for (Map.Entry<Integer, Arc> ie : ins.entrySet()) {
+                int u = ie.getKey();
+                double wu = ie.getValue().w;
+
+                double maxW = -1;
+                for (Map.Entry<Integer, Arc> oe : outs.entrySet())
+                    if (oe.getKey() != u)
+                        maxW = Math.max(maxW, wu + oe.getValue().w);
+                if (maxW < 0)
+                    continue;   // no other out neighbour
+
+                int count = witnessSearch(u, v, maxW);
+                for (Map.Entry<Integer, Arc> oe : outs.entrySet()) {
+                    int x = oe.getKey();
+                    if (x == u) continue;
+                    double via = wu + oe.getValue().w;
+                    if (wDist[x] > via) {   // no witness path as short: the shortcut is needed
+                        shortcuts++;
+                        if (!simulate)
+                            added.add(new double[]{u, x, via});
+                    }
+                }
+                resetWitness(count);
+            }
+
+            if (!simulate) {
+                for (double[] s : added)
+                    addArc((int) s[0], (int) s[1], s[2], v);
+                for (int x : outs.keySet()) {
+                    in.get(x).remove(v);
+                    deletedNeighbours[x]++;
+                }
+                for (int u : ins.keySet()) {
+                    out.get(u).remove(v);
+                    deletedNeighbours[u]++;
+                }
+            }
+            return shortcuts;
+        }
+
+        // Dijkstra from u among uncontracted vertices other than v, up to maxW or WITNESS_LIMIT settled
+        private int witnessSearch(int u, int v, double maxW) {
+            int count = 0;
+            wDist[u] = 0;
+            touched[count++] = u;
+            wHeap.insertOrDecrease(u, 0);
+            int settled = 0;
+
+            while (!wHeap.isEmpty() && settled < WITNESS_LIMIT) {
+                if (wHeap.peekPriority() > maxW) break;
+                int a = wHeap.poll();
+                settled++;
+                for (Map.Entry<Integer, Arc> e : out.get(a).entrySet()) {
+                    int b = e.getKey();
+                    if (b == v) continue;
+                    double alt = wDist[a] + e.getValue().w;
+                    if (alt < wDist[b]) {
+                        if (wDist[b] == Double.POSITIVE_INFINITY)
+                            touched[count++] = b;
+                        wDist[b] = alt;
+                        wHeap.insertOrDecrease(b, alt);
+                    }
+                }
+            }
+            wHeap.clear();
+            return count;
+        }
+
+        private void resetWitness(int count) {
+            for (int i = 0; i < count; i++)
+                wDist[touched[i]] = Double.POSITIVE_INFINITY;
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package graph.csr;
+
+import graph.CommonGraph;
+import graph.Edge;
+import graph.Graph;
+import graph.GraphBuilder;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Immutable compressed sparse row (CSR) snapshot of a graph.
+ * The outgoing edges of the vertex with key k are stored at the positions
+ * offsets[k] .. offsets[k+1]-1 of the targets (destination keys) and edges
+ * arrays, so algorithms can walk neighbours by index without allocating.
+ * Vertex keys are the same as in the graph the snapshot was taken from.
+ * The edges are copies, so later changes to the source graph do not reach the
+ * snapshot, and weight(i) always reads the weight of edgeAt(i).
+ * Mutating operations throw UnsupportedOperationException.
+ *
+ * @param <V> Vertex value type
+ * @param <E> Edge value type
+ * @author DEI-ISEP
+ */
+public class CsrGraph<V, E> extends CommonGraph<V, E> {
+
+    private final int[] offsets;        // vertex key -> first out edge position (length numVerts+1)
+    private final int[] targets;        // edge position -> destination vertex key
+    private final Edge<V, E>[] edges;   // edge position -> edge
+
+    private final int[] inOffsets;      // vertex key -> first in edge position (length numVerts+1)
+    private final int[] inEdges;        // in edge position -> edge position
+
+    @SuppressWarnings("unchecked")
+    public CsrGraph(Graph<V, E> g) {
+        super(g.isDirected());
+
+        vertices = g.vertices();
+        rebuildKeys();
+        numVerts = vertices.size();
+
+        int n = numVerts;
+        offsets = new int[n + 1];
+        for (int k = 0; k < n; k++)
+            offsets[k + 1] = offsets[k] + g.outDegree(vertices.get(k));
+
+        int m = offsets[n];
+        numEdges = m;
+        targets = new int[m];
+        edges = (Edge<V, E>[]) new Edge<?, ?>[m];
+
+        int[] inDeg = new int[n];
+        int i = 0;
+        for (int k = 0; k < n; k++) {
+            for (Edge<V, E> e : g.outgoingEdges(vertices.get(k))) {
+                int t = key(e.getVDest());
+                targets[i] = t;
+                edges[i] = new Edge<>(e.getVOrig(), e.getVDest(), e.getWeight());
+                inDeg[t]++;
+                i++;
+            }
+        }
+
+        inOffsets = inOffsets(inDeg);
+        inEdges = inEdges(inOffsets, targets);
+    }
+
+    /** Snapshot of the edges collected by a builder, taken without building a graph first
+     *
+     * @param b the builder
+     */
+    @SuppressWarnings("unchecked")
+    public CsrGraph(GraphBuilder<V, E> b) {
+        super(b.isDirected());
+
+        vertices = b.vertices();
+        rebuildKeys();
+        numVerts = vertices.size();
+
+        int n = numVerts;
+        int m = b.numEdges();
+        numEdges = m;
+        offsets = new int[n + 1];
+        targets = new int[m];
+        edges = (Edge<V, E>[]) new Edge<?, ?>[m];
+
+        int[] inDeg = new int[n];
+        for (int k = 0; k < n; k++) {
+            offsets[k + 1] = b.lastEdge(k);
+            for (int i = b.firstEdge(k); i < b.lastEdge(k); i++) {
+                int t = b.target(i);
+                targets[i] = t;
+                edges[i] = new Edge<>(vertices.get(k), vertices.get(t), b.weight(i));
+                inDeg[t]++;
+            }
+        }
+
+        inOffsets = inOffsets(inDeg);
+        inEdges = inEdges(inOffsets, targets);
+    }
+
+    // prefix sums of the in degrees
+    private static int[] inOffsets(int[] inDeg) {
+        int[] inOffsets = new int[inDeg.length + 1];
+        for (int k = 0; k < inDeg.length; k++)
+            inOffsets[k + 1] = inOffsets[k] + inDeg[k];
+        return inOffsets;
+    }
+
+    // edge positions grouped by destination
+    private static int[] inEdges(int[] inOffsets, int[] targets) {
+        int[] inEdges = new int[targets.length];
+        int[] fill = Arrays.copyOf(inOffsets, inOffsets.length - 1);
+        for (int idx = 0; idx < targets.length; idx++)
+            inEdges[fill[targets[idx]]++] = idx;
+        return inEdges;
+    }
+
+    /** Position of the first outgoing edge of a vertex
+     *
+     * @param key vertex key
+     * @return the position of the first outgoing edge of the vertex
+     */
+    public int firstEdge(int key) {
+        return offsets[key];
+    }
+
+    /** Position after the last outgoing edge of a vertex
+     *
+     * @param key vertex key
+     * @return the position after the last outgoing edge of the vertex
+     */
+    public int lastEdge(int key) {
+        return offsets[key + 1];
+    }
+
+    /** Destination key of the edge at a position
+     *
+     * @param idx edge position
+     * @return the key of the destination vertex
+     */
+    public int target(int idx) {
+        return targets[idx];
+    }
+
+    /** Weight of the edge at a position
+     *
+     * @param idx edge position
+     * @return the edge weight
+     */
+    public E weight(int idx) {
+        return edges[idx].getWeight();
+    }
+
+    /** Edge at a position
+     *
+     * @param idx edge position
+     * @return the edge
+     */
+    public Edge<V, E> edgeAt(int idx) {
+        return edges[idx];
+    }
+
+    @Override
+    public Collection<V> adjVertices(V vert) {
+        int k = key(vert);
+        if (k == -1)
+            return null;
+
+        final int from = offsets[k];
+        final int size = offsets[k + 1] - from;
+        return new AbstractList<V>() {
+            @Override
+            public V get(int i) {
+                if (i < 0 || i >= size) throw new IndexOutOfBoundsException(i);
+                return vertices.get(targets[from + i]);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    public Collection<Edge<V, E>> edges() {
+        return new ArrayList<>(Arrays.asList(edges));
+    }
+
+    @Override
+    public Edge<V, E> edge(V vOrig, V vDest) {
+        return edge(key(vOrig), key(vDest));
+    }
+
+    @Override
+    public Edge<V, E> edge(int vOrigKey, int vDestKey) {
+        if (vOrigKey < 0 || vOrigKey >= numVerts || vDestKey < 0 || vDestKey >= numVerts)
+            return null;
+
+        for (int i = offsets[vOrigKey]; i < offsets[vOrigKey + 1]; i++)
+            if (targets[i] == vDestKey)
+                return edges[i];
+        return null;
+    }
+
+    @Override
+    public int outDegree(V vert) {
+        int k = key(vert);
+        if (k == -1)
+            return -1;
+        return offsets[k + 1] - offsets[k];
+    }
+
+    @Override
+    public int inDegree(V vert) {
+        int k = key(vert);
+        if (k == -1)
+            return -1;
+        return inOffsets[k + 1] - inOffsets[k];
+    }
+
+    @Override
+    public Collection<Edge<V, E>> outgoingEdges(V vert) {
+        int k = key(vert);
+        if (k == -1)
+            return null;
+
+        List<Edge<V, E>> all = Arrays.asList(edges);
+        return Collections.unmodifiableList(all.subList(offsets[k], offsets[k + 1]));
+    }
+
+    @Override
+    public void forEachOutEdge(V vert, Consumer<? super Edge<V, E>> action) {
+        int k = key(vert);
+        if (k == -1)
+            return;
+
+        for (int i = offsets[k]; i < offsets[k + 1]; i++)
+            action.accept(edges[i]);
+    }
+
+    @Override
+    public void forEachInEdge(V vert, Consumer<? super Edge<V, E>> action) {
+        int k = key(vert);
+        if (k == -1)
+            return;
+
+        for (int i = inOffsets[k]; i < inOffsets[k + 1]; i++)
+            action.accept(edges[inEdges[i]]);
+    }
+
+    @Override
+    public Collection<Edge<V, E>> incomingEdges(V vert) {
+        int k = key(vert);
+        if (k == -1)
+            return null;
+
+        Collection<Edge<V, E>> ce = new ArrayList<>(inOffsets[k + 1] - inOffsets[k]);
+        for (int i = inOffsets[k]; i < inOffsets[k + 1]; i++)
+            ce.add(edges[inEdges[i]]);
+        return ce;
+    }
+
+    @Override
+    public boolean addVertex(V vert) {
+        throw new UnsupportedOperationException("CsrGraph is immutable");
+    }
+
+    @Override
+    public boolean addEdge(V vOrig, V vDest, E weight) {
+        throw new UnsupportedOperationException("CsrGraph is immutable");
+    }
+
+    @Override
+    public boolean removeVertex(V vert) {
+        throw new UnsupportedOperationException("CsrGraph is immutable");
+    }
+
+    @Override
+    public boolean removeEdge(V vOrig, V vDest) {
+        throw new UnsupportedOperationException("CsrGraph is immutable");
+    }
+
+    //The snapshot is immutable, so it can be shared
+    @Override
+    public CsrGraph<V, E> clone() {
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "CsrGraph: " + numVerts + " vertices, " + numEdges + " edges\n";
+    }
+}
@@ -3,8 +3,10 @@ package graph.map;
 import graph.Edge;
 import graph.CommonGraph;
 import graph.Graph;
+import graph.GraphBuilder;
 
 import java.util.*;
+import java.util.function.Consumer;
 
 
 /**
@@ -28,6 +30,33 @@ public class MapGraph<V, E> extends CommonGraph<V, E> {
         copy(g, this);
     }
 
+    // Constructs the graph from the edges collected by a builder, without per-edge checks
+    public MapGraph(GraphBuilder<V,E> b) {
+        this(b.isDirected());
+
+        int n = b.numVertices();
+        ArrayList<MapVertex<V, E>> mvs = new ArrayList<>(n);
+        for (int k = 0; k < n; k++) {
+            MapVertex<V, E> mv = new MapVertex<>(b.vertex(k));
+            mapVertices.put(mv.getElement(), mv);
+            mvs.add(mv);
+        }
+        vertices = b.vertices();
+        rebuildKeys();
+        numVerts = n;
+
+        for (int k = 0; k < n; k++) {
+            MapVertex<V, E> mvo = mvs.get(k);
+            for (int i = b.firstEdge(k); i < b.lastEdge(k); i++) {
+                MapVertex<V, E> mvd = mvs.get(b.target(i));
+                Edge<V, E> newEdge = new Edge<>(mvo.getElement(), mvd.getElement(), b.weight(i));
+                mvo.addAdjVert(mvd.getElement(), newEdge);
+                mvd.addInVert(mvo.getElement(), newEdge);
+            }
+        }
+        numEdges = b.numEdges();
+    }
+
     @Override
     public boolean validVertex(V vert) { return (mapVertices.get(vert) != null);   }
 
@@ -41,13 +70,23 @@ public class MapGraph<V, E> extends CommonGraph<V, E> {
     return mv.getAllAdjVerts();
     }
 
+    /** Read-only live view of the adjacent vertices of vert (no copy is made)
+     *
+     * @param vert the vertex for which to find adjacent vertices
+     * @return a view of the adjacent vertices of vert, null if vert is not in the graph
+     */
+    public Collection<V> adjVerticesView(V vert) {
+        MapVertex<V, E> mv = mapVertices.get(vert);
+        return (mv == null) ? null : mv.adjVertsView();
+    }
+
     @Override
     public Collection<Edge<V, E>> edges() {
 
         ArrayList<Edge<V, E>> le = new ArrayList<>(numEdges);
 
         for (MapVertex<V, E> mv : mapVertices.values())
-            le.addAll(mv.getAllOutEdges());
+            le.addAll(mv.outEdgesView());
 
         return le;
     }
@@ -88,12 +127,9 @@ public class MapGraph<V, E> extends CommonGraph<V, E> {
         if (!validVertex(vert))
             return -1;
 
-        int degree = 0;
-        for (V otherVert : mapVertices.keySet())
-            if (edge(otherVert, vert) != null)
-                degree++;
+        MapVertex<V, E> mv = mapVertices.get(vert);
 
-        return degree;
+        return mv.numInVerts();
     }
 
     @Override
@@ -107,20 +143,38 @@ public class MapGraph<V, E> extends CommonGraph<V, E> {
         return mv.getAllOutEdges();
     }
 
+    /** Read-only live view of the outgoing edges of vert (no copy is made)
+     *
+     * @param vert the vertex of interest
+     * @return a view of the edges for which vert is the origin, null if vert is not in the graph
+     */
+    public Collection<Edge<V, E>> outgoingEdgesView(V vert) {
+        MapVertex<V, E> mv = mapVertices.get(vert);
+        return (mv == null) ? null : mv.outEdgesView();
+    }
+
+    @Override
+    public void forEachOutEdge(V vert, Consumer<? super Edge<V, E>> action) {
+        MapVertex<V, E> mv = mapVertices.get(vert);
+        if (mv != null)
+            mv.outEdgesView().forEach(action);
+    }
+
+    @Override
+    public void forEachInEdge(V vert, Consumer<? super Edge<V, E>> action) {
+        MapVertex<V, E> mv = mapVertices.get(vert);
+        if (mv != null)
+            mv.inEdgesView().forEach(action);
+    }
+
     @Override
     public Collection<Edge<V, E>> incomingEdges(V vert) {
         if (!validVertex(vert))
-        return null;
-
-        Collection<Edge<V, E>> incoming = new ArrayList<>();
+            return null;
 
-        for (MapVertex<V, E> mv : mapVertices.values()) {
-            Edge<V, E> e = mv.getEdge(vert);
-                if (e != null)
-            incoming.add(e);
-        }
+        MapVertex<V, E> mv = mapVertices.get(vert);
 
-        return incoming;
+        return mv.getAllInEdges();
     }
 
     @Override
@@ -131,7 +185,7 @@ public class MapGraph<V, E> extends CommonGraph<V, E> {
             return false;
 
         MapVertex<V, E> mv = new MapVertex<>(vert);
-        vertices.add(vert);
+        addVertexKey(vert);
         mapVertices.put(vert, mv);
         numVerts++;
 
@@ -156,6 +210,7 @@ public class MapGraph<V, E> extends CommonGraph<V, E> {
 
         Edge<V, E> newEdge = new Edge<>(mvo.getElement(), mvd.getElement(), weight);
         mvo.addAdjVert(mvd.getElement(), newEdge);
+        mvd.addInVert(mvo.getElement(), newEdge);
         numEdges++;
 
         //if graph is not direct insert other edge in the opposite direction 
@@ -164,6 +219,7 @@ public class MapGraph<V, E> extends CommonGraph<V, E> {
             if (edge(vDest, vOrig) == null) {
                 Edge<V, E> otherEdge = new Edge<>( mvd.getElement(), mvo.getElement(), weight);
                 mvd.addAdjVert(mvo.getElement(), otherEdge);
+                mvo.addInVert(mvd.getElement(), otherEdge);
                 numEdges++;
             }
 
@@ -185,9 +241,11 @@ public class MapGraph<V, E> extends CommonGraph<V, E> {
         MapVertex<V, E> mv = mapVertices.get(vert);
 
         //The edges that live from vert are removed with the vertex
+        for (V vDest : mv.adjVertsView())
+            mapVertices.get(vDest).remInVert(vert);
         numEdges -= mv.numAdjVerts();
         mapVertices.remove(vert);
-        vertices.remove(vert);
+        removeVertexKey(vert);
 
         numVerts--;
 
@@ -207,16 +265,18 @@ public class MapGraph<V, E> extends CommonGraph<V, E> {
             return false;
 
         MapVertex<V, E> mvo = mapVertices.get(vOrig);
+        MapVertex<V, E> mvd = mapVertices.get(vDest);
 
         mvo.remAdjVert(vDest);
+        mvd.remInVert(vOrig);
         numEdges--;
 
         //if graph is not directed
         if (!isDirected) {
             edge = edge(vDest, vOrig);
             if (edge != null) {
-                MapVertex<V, E> mvd = mapVertices.get(vDest);
                 mvd.remAdjVert(vOrig);
+                mvo.remInVert(vDest);
                 numEdges--;
             }
         }
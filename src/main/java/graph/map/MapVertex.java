@@ -13,11 +13,19 @@ public class MapVertex<V, E> {
 
     final private V element;                            // Vertex information
     final private Map<V, Edge<V, E>> outVerts;    // Adjacent vertices
+    final private Map<V, Edge<V, E>> inVerts;     // Vertices with an edge to this one
+    final private Collection<V> adjVertsView;               // read-only live view of outVerts keys
+    final private Collection<Edge<V, E>> outEdgesView;      // read-only live view of outVerts values
+    final private Collection<Edge<V, E>> inEdgesView;       // read-only live view of inVerts values
 
     public MapVertex(V vert) {
         if (vert == null) throw new RuntimeException("Vertice information cannot be null!");
         element = vert;
         outVerts = new LinkedHashMap<>();
+        inVerts = new LinkedHashMap<>();
+        adjVertsView = Collections.unmodifiableCollection(outVerts.keySet());
+        outEdgesView = Collections.unmodifiableCollection(outVerts.values());
+        inEdgesView = Collections.unmodifiableCollection(inVerts.values());
     }
 
     public V getElement() {
@@ -32,6 +40,22 @@ public class MapVertex<V, E> {
         outVerts.remove(vAdj);
     }
 
+    public void addInVert(V vOrig, Edge<V, E> edge) {
+        inVerts.put(vOrig, edge);
+    }
+
+    public void remInVert(V vOrig) {
+        inVerts.remove(vOrig);
+    }
+
+    public int numInVerts() {
+        return inVerts.size();
+    }
+
+    public Collection<Edge<V, E>> getAllInEdges() {
+        return new ArrayList<>(inVerts.values());
+    }
+
     public Edge<V, E> getEdge(V vAdj) {
         return outVerts.get(vAdj);
     }
@@ -48,6 +72,33 @@ public class MapVertex<V, E> {
         return new ArrayList<>(outVerts.values());
     }
 
+    /** Read-only view of the adjacent vertices, backed by this vertex:
+     *  it reflects later changes and must not be iterated while they happen
+     *
+     * @return live view of the adjacent vertices
+     */
+    public Collection<V> adjVertsView() {
+        return adjVertsView;
+    }
+
+    /** Read-only view of the outgoing edges, backed by this vertex:
+     *  it reflects later changes and must not be iterated while they happen
+     *
+     * @return live view of the outgoing edges
+     */
+    public Collection<Edge<V, E>> outEdgesView() {
+        return outEdgesView;
+    }
+
+    /** Read-only view of the incoming edges, backed by this vertex:
+     *  it reflects later changes and must not be iterated while they happen
+     *
+     * @return live view of the incoming edges
+     */
+    public Collection<Edge<V, E>> inEdgesView() {
+        return inEdgesView;
+    }
+
     @Override
     public String toString() {
         String st = element + ": \n";
@@ -0,0 +1,337 @@
+package graph.matrix;
+
+import graph.CommonGraph;
+import graph.Edge;
+import graph.Graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Compact adjacency matrix graph with primitive double weights.
+ * Each row is a long[] bitset marking the destinations with an edge, next to a
+ * double[] row of weights, so a cell costs one bit plus 8 bytes instead of an
+ * Edge object, a boxed weight and a reference as in MatrixGraph. Rows are
+ * walked a word at a time, skipping 64 empty cells at once.
+ * Edge objects are created on demand: changing the weight of a returned edge
+ * does not change the graph.
+ *
+ * @param <V> Vertex value type
+ * @author DEI-ISEP
+ */
+public class BitMatrixGraph<V> extends CommonGraph<V, Double> {
+
+    public static final int INITIAL_CAPACITY = 10;
+    public static final float RESIZE_FACTOR = 1.5F;
+
+    private long[][] adj;       // adj[i] bit j set if there is an edge i -> j
+    private double[][] weights; // weights[i][j] weight of the edge i -> j
+
+    public BitMatrixGraph(boolean directed, int initialCapacity) {
+        super(directed);
+        int cap = Math.max(initialCapacity, 1);
+        adj = new long[cap][words(cap)];
+        weights = new double[cap][cap];
+    }
+
+    public BitMatrixGraph(boolean directed) {
+        this(directed, INITIAL_CAPACITY);
+    }
+
+    public BitMatrixGraph(Graph<V, Double> g) {
+        this(g.isDirected(), g.numVertices());
+        copy(g, this);
+    }
+
+    private static int words(int bits) {
+        return (bits + 63) >>> 6;
+    }
+
+    private boolean hasEdge(int i, int j) {
+        return (adj[i][j >>> 6] & (1L << j)) != 0;
+    }
+
+    /** Weight of the edge between two vertex keys
+     *
+     * @param vOrigKey origin key
+     * @param vDestKey destination key
+     * @return the weight, Double.POSITIVE_INFINITY if there is no edge
+     */
+    public double weight(int vOrigKey, int vDestKey) {
+        if (vOrigKey < 0 || vOrigKey >= numVerts || vDestKey < 0 || vDestKey >= numVerts || !hasEdge(vOrigKey, vDestKey))
+            return Double.POSITIVE_INFINITY;
+        return weights[vOrigKey][vDestKey];
+    }
+
+    // calls action with every destination key of row i, a word at a time
+    private void forEachInRow(int i, IntConsumer action) {
+        long[] row = adj[i];
+        for (int w = 0; w < words(numVerts); w++) {
+            long word = row[w];
+            while (word != 0) {
+                action.accept((w << 6) + Long.numberOfTrailingZeros(word));
+                word &= word - 1;   // clear lowest set bit
+            }
+        }
+    }
+
+    private Edge<V, Double> newEdge(int i, int j) {
+        return new Edge<>(vertices.get(i), vertices.get(j), weights[i][j]);
+    }
+
+    @Override
+    public Collection<V> adjVertices(V vert) {
+        int index = key(vert);
+        if (index == -1)
+            return null;
+
+        ArrayList<V> outVertices = new ArrayList<>();
+        forEachInRow(index, j -> outVertices.add(vertices.get(j)));
+        return outVertices;
+    }
+
+    @Override
+    public Collection<Edge<V, Double>> edges() {
+        Collection<Edge<V, Double>> allEdges = new ArrayList<>(numEdges);
+        for (int i = 0; i < numVerts; i++) {
+            final int from = i;
+            forEachInRow(i, j -> allEdges.add(newEdge(from, j)));
+        }
+        return allEdges;
+    }
+
+    @Override
+    public Edge<V, Double> edge(V vOrig, V vDest) {
+        return edge(key(vOrig), key(vDest));
+    }
+
+    @Override
+    public Edge<V, Double> edge(int vOrigKey, int vDestKey) {
+        if (vOrigKey < 0 || vOrigKey >= numVerts || vDestKey < 0 || vDestKey >= numVerts || !hasEdge(vOrigKey, vDestKey))
+            return null;
+        return newEdge(vOrigKey, vDestKey);
+    }
+
+    @Override
+    public int outDegree(V vert) {
+        int vertKey = key(vert);
+        if (vertKey == -1)
+            return -1;
+
+        int edgeCount = 0;
+        for (long word : adj[vertKey])
+            edgeCount += Long.bitCount(word);
+        return edgeCount;
+    }
+
+    @Override
+    public int inDegree(V vert) {
+        int vertKey = key(vert);
+        if (vertKey == -1)
+            return -1;
+
+        int edgeCount = 0;
+        for (int i = 0; i < numVerts; i++)
+            if (hasEdge(i, vertKey))
+                edgeCount++;
+        return edgeCount;
+    }
+
+    @Override
+    public Collection<Edge<V, Double>> outgoingEdges(V vert) {
+        Collection<Edge<V, Double>> outEdges = new ArrayList<>();
+        int vKey = key(vert);
+        if (vKey == -1)
+            return outEdges;
+
+        forEachInRow(vKey, j -> outEdges.add(newEdge(vKey, j)));
+        return outEdges;
+    }
+
+    @Override
+    public void forEachOutEdge(V vert, Consumer<? super Edge<V, Double>> action) {
+        int vKey = key(vert);
+        if (vKey == -1)
+            return;
+
+        forEachInRow(vKey, j -> action.accept(newEdge(vKey, j)));
+    }
+
+    @Override
+    public Collection<Edge<V, Double>> incomingEdges(V vert) {
+        Collection<Edge<V, Double>> ce = new ArrayList<>();
+        int vertKey = key(vert);
+        if (vertKey == -1)
+            return ce;
+
+        for (int i = 0; i < numVerts; i++)
+            if (hasEdge(i, vertKey))
+                ce.add(newEdge(i, vertKey));
+        return ce;
+    }
+
+    @Override
+    public boolean addVertex(V vert) {
+        if (key(vert) != -1)
+            return false;
+
+        addVertexKey(vert);
+        numVerts++;
+        resizeMatrix();
+        return true;
+    }
+
+    /**
+     * Resizes the matrix when a new vertex does not fit
+     */
+    private void resizeMatrix() {
+        if (adj.length < numVerts) {
+            int newSize = Math.max(numVerts, (int) (adj.length * RESIZE_FACTOR));
+
+            long[][] newAdj = new long[newSize][];
+            double[][] newWeights = new double[newSize][];
+            for (int i = 0; i < newSize; i++) {
+                newAdj[i] = (i < adj.length) ? Arrays.copyOf(adj[i], words(newSize)) : new long[words(newSize)];
+                newWeights[i] = (i < weights.length) ? Arrays.copyOf(weights[i], newSize) : new double[newSize];
+            }
+            adj = newAdj;
+            weights = newWeights;
+        }
+    }
+
+    /** Adds an edge given its primitive weight
+     *
+     * @param vOrig  origin vertex
+     * @param vDest  destination vertex
+     * @param weight the weight of the edge
+     * @return false if the edge already exists, true otherwise
+     */
+    public boolean addEdge(V vOrig, V vDest, double weight) {
+        if (vOrig == null || vDest == null) throw new RuntimeException("Vertices cannot be null!");
+        if (edge(vOrig, vDest) != null)
+            return false;
+
+        if (!validVertex(vOrig))
+            addVertex(vOrig);
+
+        if (!validVertex(vDest))
+            addVertex(vDest);
+
+        int vOrigKey = key(vOrig);
+        int vDestKey = key(vDest);
+
+        setEdge(vOrigKey, vDestKey, weight);
+        numEdges++;
+        if (!isDirected) {
+            setEdge(vDestKey, vOrigKey, weight);
+            numEdges++;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean addEdge(V vOrig, V vDest, Double weight) {
+        return addEdge(vOrig, vDest, weight.doubleValue());
+    }
+
+    private void setEdge(int i, int j, double weight) {
+        adj[i][j >>> 6] |= 1L << j;
+        weights[i][j] = weight;
+    }
+
+    @Override
+    public boolean removeVertex(V vert) {
+        int vertKey = key(vert);
+        if (vertKey == -1)
+            return false;
+
+        for (int i = 0; i < numVerts; i++) {
+            removeEdge(vertKey, i);
+            if (isDirected)
+                removeEdge(i, vertKey);
+        }
+
+        // move the row of the removed vertex to the end, cleared
+        long[] freeRow = adj[vertKey];
+        double[] freeWeights = weights[vertKey];
+        System.arraycopy(adj, vertKey + 1, adj, vertKey, numVerts - vertKey - 1);
+        System.arraycopy(weights, vertKey + 1, weights, vertKey, numVerts - vertKey - 1);
+        adj[numVerts - 1] = freeRow;
+        weights[numVerts - 1] = freeWeights;
+
+        // and shift the columns after it one position to the left
+        for (int i = 0; i < numVerts - 1; i++) {
+            removeBit(adj[i], vertKey);
+            System.arraycopy(weights[i], vertKey + 1, weights[i], vertKey, numVerts - vertKey - 1);
+        }
+
+        removeVertexKey(vert);
+        numVerts--;
+        return true;
+    }
+
+    // removes bit k from a bitset row, moving the higher bits down by one
+    private static void removeBit(long[] row, int k) {
+        int w = k >>> 6;
+        long below = (1L << k) - 1;     // bits under k in its word (shifts use k mod 64)
+        row[w] = (row[w] & below) | ((row[w] >>> 1) & ~below);
+        for (int i = w + 1; i < row.length; i++) {
+            row[i - 1] |= (row[i] & 1L) << 63;
+            row[i] >>>= 1;
+        }
+    }
+
+    private void removeEdge(int vOrigKey, int vDestKey) {
+        if (hasEdge(vOrigKey, vDestKey)) {
+            adj[vOrigKey][vDestKey >>> 6] &= ~(1L << vDestKey);
+            numEdges--;
+        }
+        if (!isDirected && hasEdge(vDestKey, vOrigKey)) {
+            adj[vDestKey][vOrigKey >>> 6] &= ~(1L << vOrigKey);
+            numEdges--;
+        }
+    }
+
+    @Override
+    public boolean removeEdge(V vOrig, V vDest) {
+        int vOrigKey = key(vOrig);
+        int vDestKey = key(vDest);
+
+        if ((vOrigKey < 0) || (vDestKey < 0) || !hasEdge(vOrigKey, vDestKey))
+            return false;
+
+        removeEdge(vOrigKey, vDestKey);
+        return true;
+    }
+
+    @Override
+    public BitMatrixGraph<V> clone() {
+        BitMatrixGraph<V> g = new BitMatrixGraph<>(this.isDirected, this.adj.length);
+
+        copy(this, g);
+
+        return g;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+
+        sb.append("Vertices:\n");
+        for (int i = 0; i < numVerts; i++)
+            sb.append(vertices.get(i) + "\n");
+
+        sb.append("\nEdges:\n");
+        for (int i = 0; i < numVerts; i++) {
+            final int from = i;
+            forEachInRow(i, j -> sb.append("From " + from + " to " + j + "-> " + newEdge(from, j) + "\n"));
+        }
+
+        sb.append("\n");
+
+        return sb.toString();
+    }
+}
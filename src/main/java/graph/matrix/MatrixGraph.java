@@ -3,12 +3,18 @@ package graph.matrix;
 import graph.CommonGraph;
 import graph.Edge;
 import graph.Graph;
+import graph.GraphBuilder;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.function.Consumer;
 
 /**
+ * Adjacency matrix graph. The matrix is indexed by slot, not by vertex key:
+ * slot maps every key to its row and column, so removing a vertex only clears
+ * its row and column and leaves them on a free list for the next vertex added,
+ * instead of shifting the whole matrix.
  *
  * @author DEI-ISEP
  *
@@ -18,13 +24,19 @@ public class MatrixGraph<V,E> extends CommonGraph<V,E> {
     public static final int INITIAL_CAPACITY = 10;
     public static final float RESIZE_FACTOR = 1.5F;
 
-    Edge<V,E> [][] edgeMatrix;
+    Edge<V,E> [][] edgeMatrix;      // indexed by slot
+    private int[] slot;             // vertex key -> row/column of edgeMatrix
+    private int[] freeSlots;        // cleared slots of removed vertices
+    private int numFree;
+    private int usedSlots;          // slots handed out so far, free ones included
 
 
     @SuppressWarnings("unchecked")
     public MatrixGraph(boolean directed, int initialCapacity) {
         super(directed);
         edgeMatrix = (Edge <V,E> [][])( new Edge<?, ?>[initialCapacity][initialCapacity]);
+        slot = new int[initialCapacity];
+        freeSlots = new int[initialCapacity];
     }
 
     public MatrixGraph(boolean directed) {
@@ -36,14 +48,28 @@ public class MatrixGraph<V,E> extends CommonGraph<V,E> {
         copy(g, this);
     }
 
+    // Constructs the graph from the edges collected by a builder, without per-edge checks
+    public MatrixGraph(GraphBuilder<V,E> b) {
+        this(b.isDirected(), b.numVertices());
+        addVertices(b.vertices());
+        for (int k = 0; k < numVerts; k++)
+            for (int i = b.firstEdge(k); i < b.lastEdge(k); i++)
+                edgeMatrix[slot[k]][slot[b.target(i)]] = new Edge<>(vertices.get(k), vertices.get(b.target(i)), b.weight(i));
+        numEdges = b.numEdges();
+    }
+
     public MatrixGraph(boolean directed, ArrayList <V> vs, E [][] m) {
         this(directed, vs.size());
-        numVerts = vs.size();
-        vertices = new ArrayList<>(vs);
-        for (int i = 0 ; i < numVerts ; i++)
-                for (int j = 0 ; j < numVerts ; j++)
+        addVertices(vs);
+        for (int i = 0 ; i < vs.size() ; i++)
+                for (int j = 0 ; j < vs.size() ; j++)
                     if (j != i && m[i][j] != null)
-                        addEdge(vertices.get(i), vertices.get(j),m[i][j]);
+                        addEdge(vs.get(i), vs.get(j),m[i][j]);
+    }
+
+    // edge between two vertex keys
+    private Edge<V,E> cell(int vOrigKey, int vDestKey) {
+        return edgeMatrix[slot[vOrigKey]][slot[vDestKey]];
     }
 
     @Override
@@ -54,7 +80,7 @@ public class MatrixGraph<V,E> extends CommonGraph<V,E> {
 
         ArrayList<V> outVertices = new ArrayList<>();
         for (int i = 0; i < numVerts; i++)
-            if (edgeMatrix[index][i] != null)
+            if (cell(index, i) != null)
                 outVertices.add(vertices.get(i));
         return outVertices;
     }
@@ -65,8 +91,8 @@ public class MatrixGraph<V,E> extends CommonGraph<V,E> {
         Collection<Edge<V, E>> allEdges = new ArrayList<>();
             for (int i = 0; i < numVerts; i++) {
                 for (int j = 0; j < numVerts; j++) {
-                    if (edgeMatrix[i][j] != null) {
-                allEdges.add(edgeMatrix[i][j]);
+                    if (cell(i, j) != null) {
+                allEdges.add(cell(i, j));
                 }
             }
         }
@@ -81,14 +107,14 @@ public class MatrixGraph<V,E> extends CommonGraph<V,E> {
         if ((vOrigKey < 0) || (vDestKey < 0))
             return null;
 
-        return edgeMatrix[vOrigKey][vDestKey];
+        return cell(vOrigKey, vDestKey);
     }
 
     @Override
     public Edge<V, E> edge(int vOrigKey, int vDestKey) {
-        if (vOrigKey >= numVerts && vDestKey >= numVerts)
+        if (vOrigKey < 0 || vOrigKey >= numVerts || vDestKey < 0 || vDestKey >= numVerts)
             return null;
-        return edgeMatrix[vOrigKey][vDestKey];
+        return cell(vOrigKey, vDestKey);
     }
 
     @Override
@@ -99,7 +125,7 @@ public class MatrixGraph<V,E> extends CommonGraph<V,E> {
 
         int edgeCount = 0;
         for (int i = 0; i < numVerts; i++)
-            if (edgeMatrix[vertKey][i] != null)
+            if (cell(vertKey, i) != null)
                 edgeCount++;
         return edgeCount;
     }
@@ -112,7 +138,7 @@ public class MatrixGraph<V,E> extends CommonGraph<V,E> {
 
         int edgeCount = 0;
         for (int i = 0; i < numVerts; i++)
-            if (edgeMatrix[i][vertKey] != null)
+            if (cell(i, vertKey) != null)
                 edgeCount++;
         return edgeCount;
     }
@@ -126,12 +152,36 @@ public class MatrixGraph<V,E> extends CommonGraph<V,E> {
                 return outEdges;
 
             for (int j = 0; j < numVerts; j++) {
-                if (edgeMatrix[vKey][j] != null)
-                    outEdges.add(edgeMatrix[vKey][j]);
+                if (cell(vKey, j) != null)
+                    outEdges.add(cell(vKey, j));
             }
         return outEdges;
     }
 
+    @Override
+    public void forEachOutEdge(V vert, Consumer<? super Edge<V, E>> action) {
+        int vKey = key(vert);
+        if (vKey == -1)
+            return;
+
+        Edge<V, E>[] row = edgeMatrix[slot[vKey]];
+        for (int j = 0; j < numVerts; j++)
+            if (row[slot[j]] != null)
+                action.accept(row[slot[j]]);
+    }
+
+    @Override
+    public void forEachInEdge(V vert, Consumer<? super Edge<V, E>> action) {
+        int vKey = key(vert);
+        if (vKey == -1)
+            return;
+
+        int col = slot[vKey];
+        for (int i = 0; i < numVerts; i++)
+            if (edgeMatrix[slot[i]][col] != null)
+                action.accept(edgeMatrix[slot[i]][col]);
+    }
+
     @Override
     public Collection<Edge<V, E>> incomingEdges(V vert) {
         Collection <Edge<V, E>> ce = new ArrayList<>();
@@ -140,8 +190,8 @@ public class MatrixGraph<V,E> extends CommonGraph<V,E> {
             return ce;
 
         for (int i = 0; i < numVerts; i++)
-            if (edgeMatrix[i][vertKey] != null)
-                ce.add(edgeMatrix[i][vertKey]);
+            if (cell(i, vertKey) != null)
+                ce.add(cell(i, vertKey));
         return ce;
     }
 
@@ -151,24 +201,42 @@ public class MatrixGraph<V,E> extends CommonGraph<V,E> {
         if (vertKey != -1)
             return false;
 
-        vertices.add(vert);
+        resizeMatrix(1);
+        addVertexKey(vert);
+        slot[numVerts] = (numFree > 0) ? freeSlots[--numFree] : usedSlots++;
         numVerts++;
-        resizeMatrix();
         return true;
     }
 
+    /** Adds several vertices, resizing the matrix at most once
+     *
+     * @param vs vertices to add, those already in the graph are skipped
+     * @return true if at least one vertex was added
+     */
+    public boolean addVertices(Collection<? extends V> vs) {
+        resizeMatrix(vs.size());
+        boolean added = false;
+        for (V v : vs)
+            added |= addVertex(v);
+        return added;
+    }
+
     /**
-     * Resizes the matrix when a new vertex increases the length of ArrayList
+     * Resizes the matrix when count more vertices do not fit in the free slots
+     * and the unused rows
      */
-    private void resizeMatrix() {
-        if(edgeMatrix.length < numVerts){
-            int newSize = (int) (edgeMatrix.length * RESIZE_FACTOR);
-
-            @SuppressWarnings("unchecked")
-            Edge <V,E>[][] temp = (Edge <V,E>[][]) new Edge<?, ?> [newSize][newSize];
-            for (int i = 0; i < edgeMatrix.length; i++)
-                temp[i] = Arrays.copyOf(edgeMatrix[i], newSize);
+    @SuppressWarnings("unchecked")
+    private void resizeMatrix(int count) {
+        int needed = usedSlots + Math.max(0, count - numFree);
+        if(edgeMatrix.length < needed){
+            int newSize = Math.max(needed, (int) (edgeMatrix.length * RESIZE_FACTOR));
+
+            Edge <V,E>[][] temp = (Edge <V,E>[][]) new Edge<?, ?> [newSize][];
+            for (int i = 0; i < newSize; i++)
+                temp[i] = (i < usedSlots) ? Arrays.copyOf(edgeMatrix[i], newSize) : (Edge <V,E>[]) new Edge<?, ?>[newSize];
             edgeMatrix = temp;
+            slot = Arrays.copyOf(slot, newSize);
+            freeSlots = Arrays.copyOf(freeSlots, newSize);
         }
     }
 
@@ -187,10 +255,10 @@ public class MatrixGraph<V,E> extends CommonGraph<V,E> {
         int vOrigKey = key(vOrig);
         int vDestKey = key(vDest);
 
-        edgeMatrix[vOrigKey][vDestKey] = new Edge<>(vOrig, vDest, weight );
+        edgeMatrix[slot[vOrigKey]][slot[vDestKey]] = new Edge<>(vOrig, vDest, weight );
         numEdges++;
         if (!isDirected) {
-            edgeMatrix[vDestKey][vOrigKey] = new Edge<>(vDest, vOrig, weight );
+            edgeMatrix[slot[vDestKey]][slot[vOrigKey]] = new Edge<>(vDest, vOrig, weight );
             numEdges++;
         }
         return true;
@@ -211,35 +279,23 @@ public class MatrixGraph<V,E> extends CommonGraph<V,E> {
                 removeEdge(i, vertKey);
         }
 
-        // remove shifts left all vertices after the one removed
-        // It is necessary to collapse the edge matrix        
-        for (int i = vertKey; i < numVerts - 1; i++) {
-            for (int j = 0; j < numVerts; j++) {
-                edgeMatrix[i][j] = edgeMatrix[i + 1][j];
-            }
-        }
-        for (int i = vertKey; i < numVerts - 1; i++) {
-            for (int j = 0; j < numVerts; j++) {
-                edgeMatrix[j][i] = edgeMatrix[j][i + 1];
-            }
-        }
-        for (int j = 0; j < numVerts; j++) {
-            edgeMatrix[j][numVerts - 1] = null;
-            edgeMatrix[numVerts - 1][j] = null;
-        }
+        // its row and column are now empty and can be reused as they are;
+        // only the keys after it shift left, the matrix does not move
+        freeSlots[numFree++] = slot[vertKey];
+        System.arraycopy(slot, vertKey + 1, slot, vertKey, numVerts - vertKey - 1);
 
-        vertices.remove(vert);
+        removeVertexKey(vert);
         numVerts--;
         return true;
     }
 
     private void removeEdge(int vOrigKey, int vDestKey) {
-        if (edgeMatrix[vOrigKey][vDestKey] != null) {
-            edgeMatrix[vOrigKey][vDestKey] = null;
+        if (cell(vOrigKey, vDestKey) != null) {
+            edgeMatrix[slot[vOrigKey]][slot[vDestKey]] = null;
             numEdges--;
         }
-        if (!isDirected && (edgeMatrix[vDestKey][vOrigKey] != null)) {
-            edgeMatrix[vDestKey][vOrigKey] = null;
+        if (!isDirected && (cell(vDestKey, vOrigKey) != null)) {
+            edgeMatrix[slot[vDestKey]][slot[vOrigKey]] = null;
             numEdges--;
         }
     }
@@ -249,7 +305,7 @@ public class MatrixGraph<V,E> extends CommonGraph<V,E> {
         int vOrigKey = key(vOrig);
         int vDestKey = key(vDest);
 
-        if ((vOrigKey < 0) || (vDestKey < 0) || (edgeMatrix[vOrigKey][vDestKey] == null))
+        if ((vOrigKey < 0) || (vDestKey < 0) || (cell(vOrigKey, vDestKey) == null))
             return false;
 
         removeEdge(vOrigKey,vDestKey);
@@ -290,7 +346,7 @@ public class MatrixGraph<V,E> extends CommonGraph<V,E> {
         {
             sb.append(" "+ i + " ");
             for (int j = 0 ; j < numVerts ; j++)
-                if(edgeMatrix[i][j] != null)
+                if(cell(i, j) != null)
                     sb.append("|  X  ");
                 else
                     sb.append("|     ");
@@ -301,8 +357,8 @@ public class MatrixGraph<V,E> extends CommonGraph<V,E> {
 
         for (int i = 0; i < numVerts ; i++)
             for (int j = 0 ; j < numVerts; j++)
-                if (edgeMatrix[i][j] != null)
-                    sb.append("From " + i + " to " + j + "-> "+ edgeMatrix[i][j] + "\n");
+                if (cell(i, j) != null)
+                    sb.append("From " + i + " to " + j + "-> "+ cell(i, j) + "\n");
 
         sb.append("\n");
 
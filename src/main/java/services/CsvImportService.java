@@ -4,11 +4,20 @@ import domain.*;
 import utils.CsvReader;
 import java.io.File;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 public class CsvImportService {
 
     private final String basePath;
+    private List<FileReport> lastReport = Collections.emptyList();
 
     public CsvImportService(String basePath) {
         this.basePath = basePath;
@@ -17,23 +26,122 @@ public class CsvImportService {
     public Warehouse importAll() {
         Warehouse warehouse = new Warehouse();
 
-        List<Bay> bays = CsvReader.readBays(getResourcePath("data/bays.csv"));
-        List<Item> items = CsvReader.readItems(getResourcePath("data/items.csv"));
-        List<Wagon> wagons = CsvReader.readWagons(getResourcePath("data/wagons.csv"));
-        List<Order> orders = CsvReader.readOrders(
+        // rows go straight into the warehouse as they are read
+        CsvReader.readBays(getResourcePath("data/bays.csv"), warehouse.getAllBays()::add);
+        CsvReader.readItems(getResourcePath("data/items.csv"), warehouse.getItems()::add);
+        CsvReader.readWagons(getResourcePath("data/wagons.csv"), warehouse.getWagons()::add);
+        CsvReader.readOrders(
                 getResourcePath("data/orders.csv"),
-                getResourcePath("data/order_lines.csv"));
-        List<Return> returns = CsvReader.readReturns(getResourcePath("data/returns.csv"));
-
-        warehouse.getAllBays().addAll(bays);
-        warehouse.getItems().addAll(items);
-        warehouse.getWagons().addAll(wagons);
-        warehouse.getOrders().addAll(orders);
-        warehouse.getReturns().addAll(returns);
+                getResourcePath("data/order_lines.csv"),
+                warehouse.getOrders()::add);
+        CsvReader.readReturns(getResourcePath("data/returns.csv"), warehouse.getReturns()::add);
 
         return warehouse;
     }
 
+    public Warehouse importAllConcurrently() {
+        return importAllConcurrently(Math.min(6, Runtime.getRuntime().availableProcessors()));
+    }
+
+    // Same result as importAll, but each file is read by its own task on a pool of at most
+    // threads threads; orders and order lines are read separately and then hash joined
+    public Warehouse importAllConcurrently(int threads) {
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads));
+        List<FileReport> report = new ArrayList<>();
+        try {
+            Future<Loaded<Bay>> bays = load(pool, "data/bays.csv", CsvReader::readBays);
+            Future<Loaded<Item>> items = load(pool, "data/items.csv", CsvReader::readItems);
+            Future<Loaded<Wagon>> wagons = load(pool, "data/wagons.csv", CsvReader::readWagons);
+            Future<Loaded<Order>> orders = load(pool, "data/orders.csv", CsvReader::readOrderHeaders);
+            Future<Loaded<OrderLine>> lines = load(pool, "data/order_lines.csv", CsvReader::readOrderLines);
+            Future<Loaded<Return>> returns = load(pool, "data/returns.csv", CsvReader::readReturns);
+
+            Warehouse warehouse = new Warehouse();
+            warehouse.getAllBays().addAll(join(bays, report));
+            warehouse.getItems().addAll(join(items, report));
+            warehouse.getWagons().addAll(join(wagons, report));
+            warehouse.getOrders().addAll(CsvReader.joinOrderLines(join(orders, report), join(lines, report)));
+            warehouse.getReturns().addAll(join(returns, report));
+
+            lastReport = Collections.unmodifiableList(report);
+            return warehouse;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // Files read by the last concurrent import, in import order
+    public List<FileReport> getLastReport() {
+        return lastReport;
+    }
+
+    // Rows read from one file and the time it took
+    public static class FileReport {
+        private final String file;
+        private final int rows;
+        private final long millis;
+
+        FileReport(String file, int rows, long millis) {
+            this.file = file;
+            this.rows = rows;
+            this.millis = millis;
+        }
+
+        public String getFile() {
+            return file;
+        }
+
+        public int getRows() {
+            return rows;
+        }
+
+        public long getMillis() {
+            return millis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-16s: %6d rows, %5d ms", file, rows, millis);
+        }
+    }
+
+    private static class Loaded<T> {
+        final String file;
+        final List<T> rows = new ArrayList<>();
+        long millis;
+
+        Loaded(String file) {
+            this.file = file;
+        }
+    }
+
+    private <T> Future<Loaded<T>> load(ExecutorService pool, String relativePath,
+                                       BiConsumer<String, Consumer<T>> reader) {
+        String path = getResourcePath(relativePath);
+        return pool.submit(() -> {
+            Loaded<T> loaded = new Loaded<>(new File(relativePath).getName());
+            long start = System.nanoTime();
+            reader.accept(path, loaded.rows::add);
+            loaded.millis = (System.nanoTime() - start) / 1_000_000;
+            return loaded;
+        });
+    }
+
+    private static <T> List<T> join(Future<Loaded<T>> future, List<FileReport> report) {
+        try {
+            Loaded<T> loaded = future.get();
+            report.add(new FileReport(loaded.file, loaded.rows.size(), loaded.millis));
+            return loaded.rows;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Import interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
     private String getResourcePath(String relativePath) {
         URL resource = getClass().getClassLoader().getResource(relativePath);
         if (resource == null) {
@@ -42,7 +150,3 @@ public class CsvImportService {
         return new File(resource.getFile()).getAbsolutePath();
     }
 }
-
-
-
-
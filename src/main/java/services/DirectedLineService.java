@@ -5,137 +5,216 @@ import domain.RailNode;
 import domain.RailLine;
 import graph.Edge;
 import graph.Graph;
+import graph.IncrementalTopologicalOrder;
+import graph.csr.CsrGraph;
+import graph.map.MapGraph;
 
 import java.util.*;
 
 public class DirectedLineService {
 
-    //statement enum for DFS
-    private enum Color { WHITE, GRAY, BLACK }
-
     public DirectedLineResultDTO computeUpgradePlan(Graph<RailNode, RailLine> graph) {
- 
-        int n = graph.numVertices();
-        Color[] color = new Color[n];
-
-        Deque<RailNode> stack = new ArrayDeque<>(); // stack to keep track of the current path in DFS
-        List<RailNode> topoOrder = new ArrayList<>(); // list to store topological order
-        Set<RailNode> cycleStations = new LinkedHashSet<>(); // to store stations involved in cycles
-        Set<RailLine> cycleLinks = new LinkedHashSet<>(); // to store links involved in cycles
-        int[] cycleCount = {0}; // to count number of cycles found
-
-        Arrays.fill(color, Color.WHITE);
-
-        for (RailNode v : graph.vertices()) { // for each vertex
-            int key = graph.key(v); 
-
-            if (key >= 0 && color[key] == Color.WHITE) { // if not visited
-                dfs(
-                        graph,
-                        v,
-                        color,
-                        stack,
-                        topoOrder,
-                        cycleStations,
-                        cycleLinks,
-                        cycleCount,
-                        null
-                );
+
+        CsrGraph<RailNode, RailLine> csr = new CsrGraph<>(graph); // index-based adjacency
+        int n = csr.numVertices();
+
+        int[] comp = new int[n]; // vertex key -> strongly connected component
+        int numComps = tarjan(csr, comp);
+
+        // Tarjan closes components in reverse topological order of the condensation
+        for (int k = 0; k < n; k++) {
+            comp[k] = numComps - 1 - comp[k];
+        }
+
+        int[] compSize = new int[numComps];
+        boolean[] selfLoop = new boolean[numComps];
+        for (int u = 0; u < n; u++) {
+            compSize[comp[u]]++;
+            for (int i = csr.firstEdge(u); i < csr.lastEdge(u); i++) {
+                if (csr.target(i) == u) {
+                    selfLoop[comp[u]] = true;
+                }
+            }
+        }
+
+        // a component is cyclic if it has more than one station or a self-loop
+        boolean[] cyclic = new boolean[numComps];
+        int cycleCount = 0;
+        for (int c = 0; c < numComps; c++) {
+            cyclic[c] = compSize[c] > 1 || selfLoop[c];
+            if (cyclic[c]) {
+                cycleCount++;
+            }
+        }
+
+        List<List<RailNode>> components = new ArrayList<>(numComps); // components in topological order
+        for (int c = 0; c < numComps; c++) {
+            components.add(new ArrayList<>(compSize[c]));
+        }
+
+        Set<RailNode> cycleStations = new LinkedHashSet<>(); // stations involved in cycles
+        Set<RailLine> cycleLinks = new LinkedHashSet<>(); // links involved in cycles
+        Graph<Integer, Integer> condensation = new MapGraph<>(true); // component DAG, weight = number of links
+
+        for (int c = 0; c < numComps; c++) {
+            condensation.addVertex(c);
+        }
+
+        for (int u = 0; u < n; u++) {
+            RailNode station = csr.vertex(u);
+            components.get(comp[u]).add(station);
+            if (cyclic[comp[u]]) {
+                cycleStations.add(station);
+            }
+
+            for (int i = csr.firstEdge(u); i < csr.lastEdge(u); i++) {
+                int v = csr.target(i);
+                if (comp[u] == comp[v]) {
+                    if (cyclic[comp[u]]) {
+                        cycleLinks.add(csr.weight(i));
+                    }
+                } else {
+                    Edge<Integer, Integer> link = condensation.edge(comp[u], comp[v]);
+                    if (link == null) {
+                        condensation.addEdge(comp[u], comp[v], 1);
+                    } else {
+                        link.setWeight(link.getWeight() + 1);
+                    }
+                }
             }
         }
 
-        if (!cycleStations.isEmpty()) { // cycles detected
+        if (cycleCount > 0) { // cycles detected
             return new DirectedLineResultDTO(
                     true,
                     null,
                     cycleStations,
                     cycleLinks,
-                    cycleCount[0]
+                    cycleCount,
+                    components,
+                    condensation
             );
         }
 
-        Collections.reverse(topoOrder); // reverse to get correct topological order
+        // acyclic: every component is a single station, already in topological order
+        List<RailNode> topoOrder = new ArrayList<>(n);
+        for (List<RailNode> component : components) {
+            topoOrder.add(component.get(0));
+        }
 
         return new DirectedLineResultDTO( // no cycles
                 false,
                 topoOrder,
                 Collections.emptySet(),
                 Collections.emptySet(),
-                0
+                0,
+                components,
+                condensation
         );
     }
 
-    // Depth-First Search (DFS) with cycle detection
-    private void dfs(Graph<RailNode, RailLine> graph, RailNode u, Color[] color, Deque<RailNode> stack, List<RailNode> topoOrder,
-                     Set<RailNode> cycleStations, Set<RailLine> cycleLinks, int[] cycleCount, RailLine incomingEdge) {
-
-        int uKey = graph.key(u);
-        color[uKey] = Color.GRAY;
-        stack.push(u);
-        
-        // Explore all adjacent vertices
-        for (Edge<RailNode, RailLine> e : graph.outgoingEdges(u)) {
-
-            RailNode v = e.getVDest();
-            int vKey = graph.key(v); 
-
-            // Detected a back edge (cycle)
-            if (color[vKey] == Color.GRAY && !cycleStations.contains(v)) {
-                extractCycle(v, stack, cycleStations, cycleLinks, graph, e.getWeight());
-                cycleCount[0]++;
-            }
-
-            // Continue DFS if the vertex is unvisited
-            if (color[vKey] == Color.WHITE) {
-                dfs(graph, v, color, stack, topoOrder, cycleStations, cycleLinks, cycleCount, e.getWeight());
-            }
+    // Upgrade plan of a graph kept up to date with IncrementalTopologicalOrder: while it is
+    // acyclic the maintained order is the upgrade order, otherwise the full analysis is run.
+    public DirectedLineResultDTO computeUpgradePlan(IncrementalTopologicalOrder<RailNode, RailLine> plan) {
+        if (plan.hasCycle()) {
+            return computeUpgradePlan(plan.graph());
         }
 
-        stack.pop();
-        color[uKey] = Color.BLACK;
-        
-        if (cycleStations.isEmpty()) { // only add to topoOrder if no cycles detected
-            topoOrder.add(u);
+        // acyclic: every component is a single station, numbered by its position in the order
+        List<RailNode> topoOrder = plan.order();
+        List<List<RailNode>> components = new ArrayList<>(topoOrder.size());
+        Graph<Integer, Integer> condensation = new MapGraph<>(true);
+        for (int c = 0; c < topoOrder.size(); c++) {
+            components.add(Collections.singletonList(topoOrder.get(c)));
+            condensation.addVertex(c);
         }
-    }
-
-    private void extractCycle(RailNode start, Deque<RailNode> stack, Set<RailNode> cycleStations, Set<RailLine> cycleLinks,
-                              Graph<RailNode, RailLine> graph, RailLine closingEdge) {
-
-        List<RailNode> path = new ArrayList<>(stack);
-        int startIdx = -1;
 
-        // Find the start of the cycle in the current path
-        for (int i = 0; i < path.size(); i++) {
-            if (path.get(i).equals(start)) {
-                startIdx = i;
-                break;
+        for (Edge<RailNode, RailLine> e : plan.graph().edges()) {
+            int from = plan.position(e.getVOrig());
+            int to = plan.position(e.getVDest());
+            Edge<Integer, Integer> link = condensation.edge(from, to);
+            if (link == null) {
+                condensation.addEdge(from, to, 1);
+            } else {
+                link.setWeight(link.getWeight() + 1);
             }
         }
 
-        if (startIdx >= 0) { // cycle found
-            
-            for (int j = 0; j <= startIdx; j++) {
-                cycleStations.add(path.get(j));
-            }
+        return new DirectedLineResultDTO(
+                false,
+                topoOrder,
+                Collections.emptySet(),
+                Collections.emptySet(),
+                0,
+                components,
+                condensation
+        );
+    }
 
-            // Add edges forming the cycle
-            for (int j = 0; j < startIdx; j++) {
-                RailNode from = path.get(j);
-                RailNode to = path.get(j + 1);
+    // Iterative Tarjan's algorithm: O(V + E), no recursion so long chains cannot overflow the stack.
+    // Fills comp with the component of each vertex key and returns the number of components.
+    private int tarjan(CsrGraph<RailNode, RailLine> csr, int[] comp) {
+
+        int n = csr.numVertices();
+        int[] index = new int[n]; // discovery order, -1 if not visited
+        int[] low = new int[n]; // lowest index reachable from the DFS subtree
+        int[] nextEdge = new int[n]; // next outgoing edge to explore per vertex
+        boolean[] onStack = new boolean[n];
+        int[] sccStack = new int[n]; // vertices of components not yet closed
+        int[] callStack = new int[n]; // DFS path
+        int sp = 0;
+        int csp = 0;
+        int counter = 0;
+        int numComps = 0;
+
+        Arrays.fill(index, -1);
+
+        for (int s = 0; s < n; s++) {
+            if (index[s] != -1) {
+                continue;
+            }
 
-                // Find the edge from 'from' to 'to'
-                for (Edge<RailNode, RailLine> e : graph.outgoingEdges(from)) {
-                    if (e.getVDest().equals(to)) {
-                        cycleLinks.add(e.getWeight());
-                        break;
+            index[s] = low[s] = counter++;
+            nextEdge[s] = csr.firstEdge(s);
+            sccStack[sp++] = s;
+            onStack[s] = true;
+            callStack[csp++] = s;
+
+            while (csp > 0) {
+                int v = callStack[csp - 1];
+
+                if (nextEdge[v] < csr.lastEdge(v)) { // explore next adjacent vertex
+                    int w = csr.target(nextEdge[v]++);
+
+                    if (index[w] == -1) {
+                        index[w] = low[w] = counter++;
+                        nextEdge[w] = csr.firstEdge(w);
+                        sccStack[sp++] = w;
+                        onStack[w] = true;
+                        callStack[csp++] = w;
+                    } else if (onStack[w]) { // back or cross edge inside the current component
+                        low[v] = Math.min(low[v], index[w]);
                     }
+                    continue;
                 }
-            }
 
-            // Add the closing edge
-            cycleLinks.add(closingEdge);
+                csp--; // v is finished
+                if (low[v] == index[v]) { // v is the root of a component
+                    int w;
+                    do {
+                        w = sccStack[--sp];
+                        onStack[w] = false;
+                        comp[w] = numComps;
+                    } while (w != v);
+                    numComps++;
+                }
+                if (csp > 0) {
+                    int parent = callStack[csp - 1];
+                    low[parent] = Math.min(low[parent], low[v]);
+                }
+            }
         }
+
+        return numComps;
     }
 }
-
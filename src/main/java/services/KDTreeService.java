@@ -22,7 +22,13 @@ public class KDTreeService {
 
      // Bulk-build the KD-Tree using the AVLs from StationIndexService     
     public void buildFromIndex(StationIndexService indexService) {
-        
+
+        // already built when the indexes were read from a snapshot
+        if (indexService.getKDTree() != null) {
+            kdTree = indexService.getKDTree();
+            return;
+        }
+
         AVL<StationByLat> latAVL = indexService.getLatTree();
         AVL<StationByLon> lonAVL = indexService.getLonTree();
 
@@ -1,73 +1,204 @@
 package services;
 
+import domain.BackboneAlgorithm;
 import domain.RailLine;
 import domain.RailNode;
+import graph.ConcurrentUnionFind;
 import graph.Edge;
 import graph.Graph;
+import graph.UnionFind;
 import graph.map.MapGraph;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
 
 public class MinimalBackboneService {
 
+    private static final Comparator<Edge<RailNode, RailLine>> BY_DISTANCE =
+            Comparator.comparingDouble(e -> e.getWeight().getDistance());
+
     public Graph<RailNode, RailLine> computeMinimalBackbone(Graph<RailNode, RailLine> graph) {
+        return computeMinimalBackbone(graph, BackboneAlgorithm.PRIM);
+    }
+
+    /*
+     * Minimum spanning forest of the railway graph, as an undirected graph.
+     * Stations left without any backbone line (isolated vertices) are not included.
+     */
+    public Graph<RailNode, RailLine> computeMinimalBackbone(Graph<RailNode, RailLine> graph, BackboneAlgorithm algorithm) {
+        if (algorithm == BackboneAlgorithm.KRUSKAL) {
+            return kruskal(graph);
+        }
+        if (algorithm == BackboneAlgorithm.BORUVKA) {
+            return boruvka(graph);
+        }
+        return prim(graph);
+    }
+
+    // Lazy Prim's algorithm, one tree per unvisited start vertex: O(E log E)
+    private Graph<RailNode, RailLine> prim(Graph<RailNode, RailLine> graph) {
 
         Graph<RailNode, RailLine> mst = new MapGraph<>(false);
-        List<RailNode> isolatedVertices = new ArrayList<>();
+        boolean[] inTree = new boolean[graph.numVertices()];
+        PriorityQueue<Edge<RailNode, RailLine>> frontier = new PriorityQueue<>(BY_DISTANCE);
 
-        // Prim's algorithm
-        for (RailNode start : graph.vertices()) { 
+        for (RailNode start : graph.vertices()) {
 
-            if (mst.validVertex(start)) { 
+            int startKey = graph.key(start);
+            if (inTree[startKey]) {
                 continue;
             }
 
-            mst.addVertex(start); // add starting vertex
-            boolean hasEdges = false; // flag to check if any edges were added
+            inTree[startKey] = true;
+            graph.forEachOutEdge(start, frontier::add); // candidate edges leaving the tree
 
-            boolean expanded; // flag for expansion in each iteration
-            do {
-                expanded = false;
-                Edge<RailNode, RailLine> minEdge = null;
+            while (!frontier.isEmpty()) {
+                Edge<RailNode, RailLine> minEdge = frontier.poll(); // minimum edge of the frontier
+                RailNode dest = minEdge.getVDest();
+                int destKey = graph.key(dest);
 
-                for (RailNode v : mst.vertices()) { // for each vertex in MST
-                    for (Edge<RailNode, RailLine> e : graph.outgoingEdges(v)) { // explore outgoing edges
+                if (inTree[destKey]) { // stale entry, both ends already in the tree
+                    continue;
+                }
 
-                        RailNode dest = e.getVDest(); // destination vertex
+                // start is only added with its first edge, so isolated vertices never enter the MST
+                if (!mst.validVertex(start)) {
+                    mst.addVertex(start);
+                }
+                mst.addVertex(dest);
+                mst.addEdge(minEdge.getVOrig(), dest, minEdge.getWeight());
+                inTree[destKey] = true;
 
-                        if (!mst.validVertex(dest)) { // if destination not in MST
-                            if (minEdge == null || // find minimum edge
-                                e.getWeight().getDistance() 
-                                        < minEdge.getWeight().getDistance()) { // compare distances
-                                minEdge = e; // update minimum edge
-                            }
-                        }
+                graph.forEachOutEdge(dest, e -> {
+                    if (!inTree[graph.key(e.getVDest())]) {
+                        frontier.add(e);
                     }
-                }
+                });
+            }
+        }
+
+        return mst;
+    }
+
+    // Kruskal's algorithm with union-find: O(E log E)
+    // Every line is considered regardless of its direction.
+    private Graph<RailNode, RailLine> kruskal(Graph<RailNode, RailLine> graph) {
+
+        List<Edge<RailNode, RailLine>> edges = new ArrayList<>(graph.edges());
+        edges.sort(BY_DISTANCE); // stable, keeps graph order between equal distances
+
+        UnionFind components = new UnionFind(graph.numVertices());
+        List<Edge<RailNode, RailLine>> chosen = new ArrayList<>();
+        boolean[] connected = new boolean[graph.numVertices()];
+
+        for (Edge<RailNode, RailLine> e : edges) {
+            int a = graph.key(e.getVOrig());
+            int b = graph.key(e.getVDest());
 
-                if (minEdge != null) { // found a minimum edge to add
-                    mst.addVertex(minEdge.getVDest()); // add destination vertex
-                    mst.addEdge( // add the edge to the MST
-                            minEdge.getVOrig(), // origin vertex
-                            minEdge.getVDest(), // destination vertex
-                            minEdge.getWeight() // edge weight
-                    );
-                    expanded = true;
-                    hasEdges = true;
+            if (components.union(a, b)) { // joins two trees, cannot create a cycle
+                chosen.add(e);
+                connected[a] = true;
+                connected[b] = true;
+                if (chosen.size() == graph.numVertices() - 1) {
+                    break;
                 }
+            }
+        }
 
-            } while (expanded);
+        return buildForest(graph, chosen, connected);
+    }
+
+    // Parallel Boruvka's algorithm on the common fork-join pool: O(E log V) work.
+    // Each round finds every component's cheapest outgoing line in parallel and
+    // contracts along them with a concurrent union-find. Lines are ranked by
+    // (distance, position in graph.edges()), the same order Kruskal uses, so both
+    // produce the same forest. Every line is considered regardless of its direction.
+    private Graph<RailNode, RailLine> boruvka(Graph<RailNode, RailLine> graph) {
+
+        int n = graph.numVertices();
+        List<Edge<RailNode, RailLine>> edges = new ArrayList<>(graph.edges());
+        edges.sort(BY_DISTANCE); // rank = position, a strict total order between lines
+
+        int m = edges.size();
+        int[] from = new int[m];
+        int[] to = new int[m];
+        for (int r = 0; r < m; r++) {
+            from[r] = graph.key(edges.get(r).getVOrig());
+            to[r] = graph.key(edges.get(r).getVDest());
+        }
+
+        ConcurrentUnionFind components = new ConcurrentUnionFind(n);
+        int[] comp = new int[n];
+        AtomicIntegerArray cheapest = new AtomicIntegerArray(n); // component -> rank of its cheapest line
+        boolean[] chosen = new boolean[m];
+        AtomicBoolean merged = new AtomicBoolean(true);
+
+        while (merged.get()) {
+            merged.set(false);
+
+            IntStream.range(0, n).parallel().forEach(i -> {
+                comp[i] = components.find(i);
+                cheapest.set(i, Integer.MAX_VALUE);
+            });
+
+            // cheapest line leaving each component
+            IntStream.range(0, m).parallel().forEach(r -> {
+                int cu = comp[from[r]];
+                int cv = comp[to[r]];
+                if (cu != cv) {
+                    lowerTo(cheapest, cu, r);
+                    lowerTo(cheapest, cv, r);
+                }
+            });
+
+            // contract components along their cheapest lines
+            IntStream.range(0, n).parallel().forEach(c -> {
+                int r = cheapest.get(c);
+                if (r != Integer.MAX_VALUE && components.union(from[r], to[r])) {
+                    chosen[r] = true; // only the successful union marks the line
+                    merged.set(true);
+                }
+            });
+        }
 
-            // Check for isolated vertex
-            if (!hasEdges) {
-                isolatedVertices.add(start);
+        List<Edge<RailNode, RailLine>> forest = new ArrayList<>();
+        boolean[] connected = new boolean[n];
+        for (int r = 0; r < m; r++) {
+            if (chosen[r]) {
+                forest.add(edges.get(r));
+                connected[from[r]] = true;
+                connected[to[r]] = true;
             }
         }
 
-        // Remove isolated vertices from MST
-        for (RailNode isolated : isolatedVertices) {
-            mst.removeVertex(isolated);
+        return buildForest(graph, forest, connected);
+    }
+
+    // atomically keeps the lowest rank seen for a component
+    private static void lowerTo(AtomicIntegerArray cheapest, int c, int r) {
+        int cur = cheapest.get(c);
+        while (r < cur && !cheapest.compareAndSet(c, cur, r)) {
+            cur = cheapest.get(c);
+        }
+    }
+
+    // builds the undirected backbone from the chosen lines, leaving isolated vertices out
+    private Graph<RailNode, RailLine> buildForest(Graph<RailNode, RailLine> graph,
+                                                  List<Edge<RailNode, RailLine>> chosen, boolean[] connected) {
+
+        Graph<RailNode, RailLine> mst = new MapGraph<>(false);
+        for (RailNode v : graph.vertices()) {
+            if (connected[graph.key(v)]) {
+                mst.addVertex(v);
+            }
+        }
+        for (Edge<RailNode, RailLine> e : chosen) {
+            mst.addEdge(e.getVOrig(), e.getVDest(), e.getWeight());
         }
 
         return mst;
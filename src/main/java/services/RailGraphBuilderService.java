@@ -2,11 +2,16 @@ package services;
 
 import domain.RailNode;
 import domain.RailLine;
+import domain.StationIds;
 import graph.Graph;
-import graph.map.MapGraph;
+import graph.GraphBuilder;
+import graph.csr.CsrGraph;
 
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 public class RailGraphBuilderService {
 
@@ -14,24 +19,84 @@ public class RailGraphBuilderService {
             Map<String, RailNode> nodes,
             List<RailLine> lines) {
 
-        Graph<RailNode, RailLine> graph = new MapGraph<>(true);
+        return collect(nodes, lines, node -> node).buildMapGraph();
+    }
 
-        // Add all stations
-        for (RailNode node : nodes.values()) {
-            graph.addVertex(node);
-        }
+    // Immutable compact graph, for large networks that are only queried
+    public CsrGraph<RailNode, RailLine> buildCompactDirectedGraph(
+            Map<String, RailNode> nodes,
+            List<RailLine> lines) {
+
+        return collect(nodes, lines, node -> node).buildCsrGraph();
+    }
+
+    // Graph keyed by interned station index, so graphs of loads that share a table can be
+    // joined by int; the stations must all have been read with the same table
+    public Graph<Integer, RailLine> buildIndexedDirectedGraph(
+            Map<String, RailNode> nodes,
+            List<RailLine> lines) {
+
+        if (!nodes.isEmpty() && commonTable(nodes) == null)
+            throw new IllegalArgumentException("Stations must be read with the same StationIds");
+
+        return collect(nodes, lines, RailNode::getIndex).buildMapGraph();
+    }
 
-        // Add directed railway lines
+    private <V> GraphBuilder<V, RailLine> collect(Map<String, RailNode> nodes, List<RailLine> lines,
+                                                  Function<RailNode, V> vertexOf) {
+
+        GraphBuilder<V, RailLine> builder = new GraphBuilder<>(true, nodes.size(), lines.size());
+
+        StationIds table = commonTable(nodes);
         for (RailLine line : lines) {
+            if (line.getStationIds() != table) {
+                table = null;
+                break;
+            }
+        }
+
+        // Add directed railway lines, the first of repeated lines is kept
+        if (table != null) {
+            // stations and lines share a table: stations are found by index, no string hashing per line
+            int[] keyOf = new int[table.size()];
+            Arrays.fill(keyOf, -1);
+            for (RailNode node : nodes.values())
+                keyOf[node.getIndex()] = builder.addVertex(vertexOf.apply(node));
+
+            for (RailLine line : lines) {
+                int from = line.getFromIndex() < keyOf.length ? keyOf[line.getFromIndex()] : -1;
+                int to   = line.getToIndex() < keyOf.length ? keyOf[line.getToIndex()] : -1;
 
-            RailNode from = nodes.get(line.getFromStationId());
-            RailNode to   = nodes.get(line.getToStationId());
+                if (from != -1 && to != -1) {
+                    builder.addEdge(from, to, line);
+                }
+            }
+        } else {
+            Map<String, Integer> keyOf = new HashMap<>(Math.max(16, (int) (nodes.size() / 0.75f) + 1));
+            for (Map.Entry<String, RailNode> entry : nodes.entrySet())
+                keyOf.put(entry.getKey(), builder.addVertex(vertexOf.apply(entry.getValue())));
+
+            for (RailLine line : lines) {
+                int from = keyOf.getOrDefault(line.getFromStationId(), -1);
+                int to   = keyOf.getOrDefault(line.getToStationId(), -1);
 
-            if (from != null && to != null) {
-                graph.addEdge(from, to, line);
+                if (from != -1 && to != -1) {
+                    builder.addEdge(from, to, line);
+                }
             }
         }
 
-        return graph;
+        return builder;
+    }
+
+    // Table all the stations were read with, null if they were read with several or none
+    private static StationIds commonTable(Map<String, RailNode> nodes) {
+        StationIds table = null;
+        for (RailNode node : nodes.values()) {
+            if (node.getStationIds() == null || (table != null && node.getStationIds() != table))
+                return null;
+            table = node.getStationIds();
+        }
+        return table;
     }
 }
@@ -0,0 +1,36 @@
+package services;
+
+import domain.RailLine;
+import domain.RailLineWeight;
+import domain.RailNode;
+import graph.Graph;
+import graph.ch.ContractionHierarchy;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+public class RailRoutingService {
+
+    // Preprocesses the network once for fast station-to-station distance queries
+    public ContractionHierarchy<RailNode> prepare(Graph<RailNode, RailLine> graph) {
+        return ContractionHierarchy.build(graph, RailLineWeight.DISTANCE);
+    }
+
+    // Stations are stored by id, so the file can be loaded against a graph rebuilt from the same CSVs
+    public void save(ContractionHierarchy<RailNode> hierarchy, String filePath) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(filePath))) {
+            hierarchy.save(out, RailNode::getId);
+        }
+    }
+
+    public ContractionHierarchy<RailNode> load(String filePath, Graph<RailNode, RailLine> graph) throws IOException {
+        try (InputStream in = new BufferedInputStream(new FileInputStream(filePath))) {
+            return ContractionHierarchy.load(in, graph, RailNode::getId);
+        }
+    }
+}
@@ -2,8 +2,12 @@ package services;
 
 import domain.*;
 import utils.AVL;
+import utils.KDTree;
 import utils.StationCSVLoader;
+import utils.StationSnapshot;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
@@ -15,10 +19,14 @@ public class StationIndexService {
     private AVL<Station> tzTree;
     private AVL<StationByLat> latTree;
     private AVL<StationByLon> lonTree;
+    private KDTree kdTree;      // KD-Tree of the last snapshot read, null otherwise
+    private String sourcePath;  // CSV the indexes were loaded from, null if unknown
 
     public void loadFromCSV(String path) {
 
         List<Station> stations = StationCSVLoader.loadValidStationsList(path);
+        kdTree = null;
+        sourcePath = path;
 
         tzTree = new AVL<>();
         latTree = new AVL<>();
@@ -108,9 +116,57 @@ public class StationIndexService {
         return result;
     }
 
+    // Loads the indexes from the snapshot if it was taken from this CSV as it is now (same
+    // path, size and modification time); otherwise loads the CSV and writes the snapshot
+    // (with the KD-Tree) for the next start
+    public void loadFromCSV(String csvPath, String snapshotPath) {
+        if (new File(snapshotPath).isFile()) {
+            try {
+                loadFromSnapshot(snapshotPath, csvPath);
+                return;
+            } catch (IOException e) {
+                System.out.println(" Snapshot ignored: " + e.getMessage());
+            }
+        }
+
+        loadFromCSV(csvPath);
+        try {
+            saveSnapshot(snapshotPath);
+        } catch (IOException e) {
+            System.out.println(" Error writing snapshot: " + e.getMessage());
+        }
+    }
+
+    public void loadFromSnapshot(String path) throws IOException {
+        loadFromSnapshot(path, null);
+    }
+
+    // Fails with an IOException if csvPath is given and the snapshot was not taken from it
+    public void loadFromSnapshot(String path, String csvPath) throws IOException {
+        StationSnapshot snapshot = StationSnapshot.read(path, csvPath);
+        sourcePath = snapshot.getSourcePath().isEmpty() ? null : snapshot.getSourcePath();
+        tzTree = snapshot.getTzTree();
+        latTree = snapshot.getLatTree();
+        lonTree = snapshot.getLonTree();
+        kdTree = snapshot.getKDTree();
+    }
+
+    // Writes the indexes and their KD-Tree, built here if it was not read from a snapshot
+    public void saveSnapshot(String path) throws IOException {
+        if (kdTree == null) {
+            KDTreeService kd = new KDTreeService();
+            kd.buildFromIndex(this);
+            kdTree = kd.getKDTree();
+        }
+        File parent = new File(path).getAbsoluteFile().getParentFile();
+        if (parent != null) parent.mkdirs();
+        StationSnapshot.write(path, sourcePath, tzTree, latTree, lonTree, kdTree);
+    }
+
     public AVL<Station> getTzTree() { return tzTree; }
     public AVL<StationByLat> getLatTree() { return latTree; }
     public AVL<StationByLon> getLonTree() { return lonTree; }
+    public KDTree getKDTree() { return kdTree; }
 
     
     // Returns the distinct time zone groups present in the index
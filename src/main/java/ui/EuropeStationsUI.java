@@ -60,7 +60,12 @@ public class EuropeStationsUI {
         System.out.println("\nBuilding AVL Indexes for US06...");
 
         controller = new StationIndexController(new StationIndexService());
-        controller.loadCSV(csvPath);
+        // indexes are saved after the first load and read back on the next starts;
+        // the snapshot records which CSV it was taken from, the name only avoids clashes
+        File csv = new File(csvPath).getAbsoluteFile();
+        String snapshotPath = "target/" + csv.getName() + "-"
+                + Integer.toHexString(csv.getPath().hashCode()) + ".snapshot";
+        controller.loadCSV(csvPath, snapshotPath);
 
         System.out.println("AVL indexes ready!");
 
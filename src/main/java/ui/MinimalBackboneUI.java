@@ -1,6 +1,7 @@
 package ui;
 
 import controllers.MinimalBackboneController;
+import domain.BackboneAlgorithm;
 import domain.RailLine;
 import domain.RailNode;
 import graph.Graph;
@@ -37,10 +38,12 @@ public class MinimalBackboneUI {
             return;
         }
 
+        BackboneAlgorithm algorithm = askAlgorithm();
+
         try {
             MinimalBackboneController controller = new MinimalBackboneController();
             Graph<RailNode, RailLine> backbone =
-                    controller.computeMinimalBackbone(railwayGraph);
+                    controller.computeMinimalBackbone(railwayGraph, algorithm);
 
             GraphvizExporter.exportUndirectedBackbone(backbone, "minimal_backbone.dot");
 
@@ -54,6 +57,14 @@ public class MinimalBackboneUI {
         waitReturn();
     }
 
+    private BackboneAlgorithm askAlgorithm() {
+        System.out.print("Algorithm (P=Prim / K=Kruskal / B=Boruvka parallel): ");
+        String input = sc.nextLine().trim().toLowerCase();
+        if (input.startsWith("k")) return BackboneAlgorithm.KRUSKAL;
+        if (input.startsWith("b")) return BackboneAlgorithm.BORUVKA;
+        return BackboneAlgorithm.PRIM;
+    }
+
     private void waitReturn() {
         System.out.println("\nPress ENTER to return.");
         sc.nextLine();
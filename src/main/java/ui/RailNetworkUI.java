@@ -6,6 +6,7 @@ import java.util.Scanner;
 
 import domain.RailNode;
 import domain.RailLine;
+import domain.StationIds;
 import graph.Graph;
 import services.RailGraphBuilderService;
 import utils.StationsCsvReader;
@@ -94,8 +95,9 @@ public class RailNetworkUI {
     private void importRailwayNetwork() {
 
         try {
-            StationsCsvReader stationReader = new StationsCsvReader();
-            LinesCsvReader lineReader = new LinesCsvReader();
+            StationIds ids = new StationIds();
+            StationsCsvReader stationReader = new StationsCsvReader(ids);
+            LinesCsvReader lineReader = new LinesCsvReader(ids);
             RailGraphBuilderService builder = new RailGraphBuilderService();
 
             Map<String, RailNode> stations =
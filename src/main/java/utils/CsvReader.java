@@ -2,120 +2,190 @@ package utils;
 
 import domain.*;
 import java.nio.file.*;
+import java.io.BufferedReader;
 import java.io.IOException;
 import java.util.*;
+import java.util.function.Consumer;
 import java.time.LocalDateTime;
 
 public class CsvReader {
 
-    private static List<String[]> readCsv(String path) {
-        List<String[]> rows = new ArrayList<>();
-        try {
-            List<String> lines = Files.readAllLines(Paths.get(path));
-            for (int i = 1; i < lines.size(); i++) { 
-                rows.add(lines.get(i).split(","));
+    /** Reads a file line by line, passing each line after the header to action
+     *  as soon as it is read, so only one line is held in memory at a time
+     *
+     * @param path file path (UTF-8)
+     * @param action called with every line after the header, in file order
+     * @return the number of lines read, header included
+     * @throws IOException if the file cannot be read
+     */
+    public static int forEachLine(String path, Consumer<String> action) throws IOException {
+        int count = 0;
+        try (BufferedReader br = Files.newBufferedReader(Paths.get(path))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (count++ > 0)
+                    action.accept(line);
             }
+        }
+        return count;
+    }
+
+    /** Reads a comma separated file row by row, skipping the header
+     *
+     * @param path file path (UTF-8)
+     * @param action called with the fields of every row, in file order
+     */
+    public static void forEachRow(String path, Consumer<String[]> action) {
+        try {
+            forEachLine(path, line -> action.accept(line.split(",")));
         } catch (IOException e) {
             throw new RuntimeException("Error when reading " + path + ": " + e.getMessage());
         }
-        return rows;
     }
 
     public static List<Bay> readBays(String path) {
-    List<Bay> list = new ArrayList<>();
-    try {
-        List<String> lines = Files.readAllLines(Paths.get(path));
-
-        if (lines.isEmpty()) {
-            throw new RuntimeException("The bays.csv file is empty");
-        }
+        List<Bay> list = new ArrayList<>();
+        readBays(path, list::add);
+        return list;
+    }
 
-        for (int i = 1; i < lines.size(); i++) { 
-            String line = lines.get(i).trim();
-            if (line.isEmpty()) continue;
+    public static void readBays(String path, Consumer<? super Bay> sink) {
+    try {
+        int lines = forEachLine(path, raw -> {
+            String line = raw.trim();
+            if (line.isEmpty()) return;
 
             //bays.csv use ';' as separator 
             String[] row = line.split(";");
             if (row.length < 4) {
                 System.err.println(" Linha inválida ignorada em bays.csv: " + line);
-                continue;
+                return;
             }
 
-            list.add(new Bay(
+            sink.accept(new Bay(
                     row[0].trim(),
                     Integer.parseInt(row[1].trim()),
                     Integer.parseInt(row[2].trim()),
                     Integer.parseInt(row[3].trim())
             ));
+        });
+
+        if (lines == 0) {
+            throw new RuntimeException("The bays.csv file is empty");
         }
 
     } catch (IOException e) {
         throw new RuntimeException("Error reading bays.csv: " + e.getMessage());
     }
-    return list;
     }
 
 
     public static List<Item> readItems(String path) {
         List<Item> list = new ArrayList<>();
-        for (String[] row : readCsv(path)) {
-            list.add(new Item(row[0], row[1], row[2], row[3],
-                    Double.parseDouble(row[4]), Double.parseDouble(row[5])));
-        }
+        readItems(path, list::add);
         return list;
     }
 
+    public static void readItems(String path, Consumer<? super Item> sink) {
+        forEachRow(path, row ->
+            sink.accept(new Item(row[0], row[1], row[2], row[3],
+                    Double.parseDouble(row[4]), Double.parseDouble(row[5]))));
+    }
+
     public static List<Wagon> readWagons(String path) {
         List<Wagon> list = new ArrayList<>();
-        for (String[] row : readCsv(path)) {
-            list.add(new Wagon(row[0], row[1], row[2],
+        readWagons(path, list::add);
+        return list;
+    }
+
+    public static void readWagons(String path, Consumer<? super Wagon> sink) {
+        forEachRow(path, row ->
+            sink.accept(new Wagon(row[0], row[1], row[2],
                     Integer.parseInt(row[3]),
                     row[4].isEmpty() ? null : row[4],
-                    LocalDateTime.parse(row[5])));
-        }
-        return list;
+                    LocalDateTime.parse(row[5]))));
     }
 
     public static List<Order> readOrders(String ordersPath, String orderLinesPath) {
+    List<Order> list = new ArrayList<>();
+    readOrders(ordersPath, orderLinesPath, list::add);
+    return list;
+    }
+
+    // Orders are passed to sink once all their lines are read
+    public static void readOrders(String ordersPath, String orderLinesPath, Consumer<? super Order> sink) {
     Map<String, Order> orderMap = new LinkedHashMap<>();
-    for (String[] row : readCsv(ordersPath)) {
-        String orderId = row[0].trim();
-        String dueDate = row[1].trim();
-        int priority = Integer.parseInt(row[2].trim());
-        orderMap.put(orderId, new Order(orderId, dueDate, priority));
+    readOrderHeaders(ordersPath, o -> orderMap.put(o.getOrderId(), o));
+    readOrderLines(orderLinesPath, line -> addToOrder(orderMap, line));
+
+    for (Order o : orderMap.values()) {
+        o.getLines().sort(Comparator.comparingInt(OrderLine::getLineNo));
+        sink.accept(o);
+    }
     }
 
-    for (String[] row : readCsv(orderLinesPath)) {
-        String orderId = row[0].trim();
-        int lineNo = Integer.parseInt(row[1].trim());
-        String sku = row[2].trim();
-        int qty = Integer.parseInt(row[3].trim());
+    // Orders without their lines
+    public static void readOrderHeaders(String path, Consumer<? super Order> sink) {
+        forEachRow(path, row -> {
+            String orderId = row[0].trim();
+            String dueDate = row[1].trim();
+            int priority = Integer.parseInt(row[2].trim());
+            sink.accept(new Order(orderId, dueDate, priority));
+        });
+    }
 
-        Order order = orderMap.get(orderId);
-        if (order != null) {
-            order.addLine(new OrderLine(orderId, lineNo, sku, qty));
-        } else {
-            System.err.println("Line ignored - order not found: " + orderId);
-        }
+    public static void readOrderLines(String path, Consumer<? super OrderLine> sink) {
+        forEachRow(path, row -> {
+            String orderId = row[0].trim();
+            int lineNo = Integer.parseInt(row[1].trim());
+            String sku = row[2].trim();
+            int qty = Integer.parseInt(row[3].trim());
+            sink.accept(new OrderLine(orderId, lineNo, sku, qty));
+        });
     }
 
-    for (Order o : orderMap.values()) {
-        o.getLines().sort(Comparator.comparingInt(OrderLine::getLineNo));
+    /** Hash join of orders and order lines read separately: the orders are
+     *  indexed by id and every line is added to its order with one lookup
+     *
+     * @param orders orders without lines, in file order
+     * @param lines order lines, in any order
+     * @return the orders, in the same order, with their lines sorted by line number
+     */
+    public static List<Order> joinOrderLines(List<Order> orders, List<OrderLine> lines) {
+        Map<String, Order> orderMap = new LinkedHashMap<>(Math.max(16, (int) (orders.size() / 0.75f) + 1));
+        for (Order o : orders)
+            orderMap.put(o.getOrderId(), o);
+
+        for (OrderLine line : lines)
+            addToOrder(orderMap, line);
+
+        for (Order o : orderMap.values())
+            o.getLines().sort(Comparator.comparingInt(OrderLine::getLineNo));
+        return new ArrayList<>(orderMap.values());
     }
 
-    return new ArrayList<>(orderMap.values());
+    private static void addToOrder(Map<String, Order> orderMap, OrderLine line) {
+        Order order = orderMap.get(line.getOrderId());
+        if (order != null) {
+            order.addLine(line);
+        } else {
+            System.err.println("Line ignored - order not found: " + line.getOrderId());
+        }
     }
 
 
     public static List<Return> readReturns(String path) {
         List<Return> list = new ArrayList<>();
-        for (String[] row : readCsv(path)) {
-            list.add(new Return(row[0], row[1],
+        readReturns(path, list::add);
+        return list;
+    }
+
+    public static void readReturns(String path, Consumer<? super Return> sink) {
+        forEachRow(path, row ->
+            sink.accept(new Return(row[0], row[1],
                     Integer.parseInt(row[2]), row[3],
                     LocalDateTime.parse(row[4]),
-                    row.length > 5 && !row[5].isEmpty() ? row[5] : null));
-        }
-        return list;
+                    row.length > 5 && !row[5].isEmpty() ? row[5] : null)));
     }
 }
 
@@ -0,0 +1,343 @@
+package utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Single-pass CSV tokenizer over a byte buffer, usually a memory-mapped file.
+ * Each call to nextRow() finds the end of the line and the field separators in
+ * the same scan and only records field positions; text is decoded (UTF-8) only
+ * for the fields asked with text(), and numbers and booleans are parsed
+ * straight from the bytes.
+ * Rows are read like line.replace("\"", "").trim().split(sep, -1): double
+ * quotes are ignored, surrounding whitespace is dropped and, if parenthesis
+ * aware, a separator is not a split point when the next parenthesis after it
+ * is a closing one, as with the regex ",(?![^()]*\\))".
+ * Lines end in \n, \r or \r\n, as for BufferedReader.readLine().
+ * Large files can be cut at line boundaries and the pieces tokenized in
+ * parallel with parseChunks().
+ *
+ * @author DEI-ISEP
+ */
+public class CsvTokenizer {
+
+    private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+    private static final int MIN_CHUNK = 1 << 20;     // bytes per parallel slice, at least
+
+    private final ByteBuffer buf;
+    private final byte sep;
+    private final boolean parenthesisAware;
+    private int pos;
+    private final int limit;
+
+    private int[] starts = new int[16];     // field -> first byte
+    private int[] ends = new int[16];       // field -> position after the last byte
+    private int numFields;
+    private int[] pending = new int[16];    // separators after the last parenthesis
+    private byte[] scratch = new byte[64];
+
+    public CsvTokenizer(ByteBuffer buf, char separator, boolean parenthesisAware) {
+        this.buf = buf;
+        this.sep = (byte) separator;
+        this.parenthesisAware = parenthesisAware;
+        this.pos = buf.position();
+        this.limit = buf.limit();
+    }
+
+    /** Maps a whole file in memory, read only
+     *
+     * @param path file path
+     * @return the mapped bytes
+     * @throws IOException if the file cannot be read
+     */
+    public static ByteBuffer map(String path) throws IOException {
+        try (FileChannel ch = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            return ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+        }
+    }
+
+    /** Tokenizes the rows after the header in slices that start and end at line
+     *  boundaries, each with its own tokenizer, on the common fork-join pool if
+     *  parallel; files over 2 GB cannot be mapped in one buffer
+     *
+     * @param buf              the file contents, header first
+     * @param separator        field separator
+     * @param parenthesisAware whether separators inside parentheses are kept
+     * @param parallel         whether to cut the rows in slices and parse them in parallel
+     * @param parser           reads all the rows of one tokenizer
+     * @param <R>              result of a slice
+     * @return the result of each slice, in file order
+     */
+    public static <R> List<R> parseChunks(ByteBuffer buf, char separator, boolean parenthesisAware,
+                                          boolean parallel, Function<CsvTokenizer, R> parser) {
+        return parseChunks(buf, separator, parenthesisAware, parallel, parser, MIN_CHUNK);
+    }
+
+    static <R> List<R> parseChunks(ByteBuffer buf, char separator, boolean parenthesisAware,
+                                   boolean parallel, Function<CsvTokenizer, R> parser, int minChunk) {
+        int start = nextLine(buf, buf.position());      // skip the header
+        int end = buf.limit();
+        int count = 1;
+        if (parallel)
+            count = (int) Math.max(1, Math.min((end - start) / minChunk, 4L * Runtime.getRuntime().availableProcessors()));
+
+        int[] bounds = new int[count + 1];
+        bounds[0] = start;
+        bounds[count] = end;
+        for (int c = 1; c < count; c++)
+            bounds[c] = nextLine(buf, Math.max(bounds[c - 1], start + (int) ((long) (end - start) * c / count)));
+
+        IntStream slices = IntStream.range(0, count);
+        if (parallel)
+            slices = slices.parallel();
+        return slices.mapToObj(c -> {
+            ByteBuffer slice = buf.duplicate();
+            slice.limit(bounds[c + 1]).position(bounds[c]);
+            return parser.apply(new CsvTokenizer(slice, separator, parenthesisAware));
+        }).collect(Collectors.toList());
+    }
+
+    // position after the end of the line that contains from
+    private static int nextLine(ByteBuffer buf, int from) {
+        int limit = buf.limit();
+        int i = from;
+        while (i < limit && buf.get(i) != '\n' && buf.get(i) != '\r')
+            i++;
+        if (i < limit && buf.get(i) == '\r' && i + 1 < limit && buf.get(i + 1) == '\n')
+            i++;
+        return Math.min(i + 1, limit);
+    }
+
+    private static boolean isBlank(byte b) {
+        return (b & 0xff) <= ' ' || b == '"';
+    }
+
+    /** Moves to the next row
+     *
+     * @return false if there are no more rows
+     */
+    public boolean nextRow() {
+        if (pos >= limit)
+            return false;
+
+        int rowStart = -1;      // first byte that is not whitespace or a quote
+        int rowEnd = pos;       // after the last byte that is not whitespace or a quote
+        int fieldStart = pos;
+        int numPending = 0;
+        numFields = 0;
+
+        int i = pos;
+        for (; i < limit; i++) {
+            byte b = buf.get(i);
+            if (b == '\n' || b == '\r')
+                break;
+            if (!isBlank(b)) {
+                if (rowStart < 0)
+                    rowStart = i;
+                rowEnd = i + 1;
+            }
+            if (b == sep) {
+                if (!parenthesisAware) {
+                    addField(fieldStart, i);
+                    fieldStart = i + 1;
+                } else {
+                    if (numPending == pending.length)
+                        pending = Arrays.copyOf(pending, numPending * 2);
+                    pending[numPending++] = i;
+                }
+            } else if (parenthesisAware && b == '(') {
+                for (int p = 0; p < numPending; p++) {
+                    addField(fieldStart, pending[p]);
+                    fieldStart = pending[p] + 1;
+                }
+                numPending = 0;
+            } else if (parenthesisAware && b == ')') {
+                numPending = 0;                     // those separators were inside parentheses
+            }
+        }
+        for (int p = 0; p < numPending; p++) {
+            addField(fieldStart, pending[p]);
+            fieldStart = pending[p] + 1;
+        }
+        addField(fieldStart, i);
+
+        // next line
+        pos = i + 1;
+        if (i < limit && buf.get(i) == '\r' && pos < limit && buf.get(pos) == '\n')
+            pos++;
+
+        // what the row trim removes does not belong to any field
+        if (rowStart < 0)
+            rowStart = rowEnd;
+        for (int f = 0; f < numFields; f++) {
+            starts[f] = Math.max(starts[f], rowStart);
+            ends[f] = Math.max(Math.min(ends[f], rowEnd), starts[f]);
+        }
+        return true;
+    }
+
+    private void addField(int start, int end) {
+        if (numFields == starts.length) {
+            starts = Arrays.copyOf(starts, numFields * 2);
+            ends = Arrays.copyOf(ends, numFields * 2);
+        }
+        starts[numFields] = start;
+        ends[numFields] = end;
+        numFields++;
+    }
+
+    /** Number of fields of the row, trailing empty ones included
+     *
+     * @return the number of fields
+     */
+    public int fieldCount() {
+        return numFields;
+    }
+
+    /** Number of fields as counted by String.split without a limit,
+     *  that is, without the empty fields at the end of the row
+     *
+     * @return the number of fields up to the last non empty one
+     */
+    public int splitCount() {
+        if (numFields == 1)     // no separator: split returns the row itself
+            return 1;
+        int n = numFields;
+        while (n > 0 && isEmpty(n - 1))
+            n--;
+        return n;
+    }
+
+    // no characters at all once quotes are removed
+    private boolean isEmpty(int f) {
+        for (int i = starts[f]; i < ends[f]; i++)
+            if (buf.get(i) != '"')
+                return false;
+        return true;
+    }
+
+    /** Whether a field is empty once quotes and surrounding whitespace are removed
+     *
+     * @param f field index
+     * @return true if the field has no content
+     */
+    public boolean isBlank(int f) {
+        for (int i = starts[f]; i < ends[f]; i++)
+            if (!isBlank(buf.get(i)))
+                return false;
+        return true;
+    }
+
+    // copies the field to scratch without quotes and surrounding whitespace, returns its length
+    private int copy(int f) {
+        int s = starts[f], e = ends[f];
+        while (s < e && isBlank(buf.get(s))) s++;
+        while (e > s && isBlank(buf.get(e - 1))) e--;
+        if (scratch.length < e - s)
+            scratch = new byte[Math.max(e - s, scratch.length * 2)];
+
+        int n = 0;
+        for (int i = s; i < e; i++) {
+            byte b = buf.get(i);
+            if (b != '"')
+                scratch[n++] = b;
+        }
+        return n;
+    }
+
+    /** Text of a field, without quotes and surrounding whitespace
+     *
+     * @param f field index
+     * @return the field text
+     */
+    public String text(int f) {
+        int n = copy(f);
+        return new String(scratch, 0, n, StandardCharsets.UTF_8);
+    }
+
+    /** Parses a field as Double.parseDouble would, without building a String
+     *  for plain decimals of up to 15 digits
+     *
+     * @param f field index
+     * @return the value of the field
+     * @throws NumberFormatException if the field is not a number
+     */
+    public double parseDouble(int f) {
+        int n = copy(f);
+        int i = 0;
+        boolean negative = false;
+        if (n > 0 && (scratch[0] == '-' || scratch[0] == '+')) {
+            negative = scratch[0] == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int fraction = -1;      // digits after the point, -1 before the point
+        for (; i < n; i++) {
+            byte b = scratch[i];
+            if (b >= '0' && b <= '9') {
+                mantissa = mantissa * 10 + (b - '0');
+                digits++;
+                if (fraction >= 0) fraction++;
+            } else if (b == '.' && fraction < 0) {
+                fraction = 0;
+            } else {
+                break;
+            }
+        }
+
+        // exact integer over exact power of ten: the division rounds like parseDouble
+        if (i == n && digits > 0 && digits <= 15 && fraction < POW10.length) {
+            double v = fraction > 0 ? mantissa / POW10[fraction] : mantissa;
+            return negative ? -v : v;
+        }
+        return Double.parseDouble(new String(scratch, 0, n, StandardCharsets.UTF_8));
+    }
+
+    /** Parses a field as Integer.parseInt would
+     *
+     * @param f field index
+     * @return the value of the field
+     * @throws NumberFormatException if the field is not an int
+     */
+    public int parseInt(int f) {
+        int n = copy(f);
+        int i = (n > 0 && (scratch[0] == '-' || scratch[0] == '+')) ? 1 : 0;
+        if (i == n || n - i > 9)    // let parseInt report errors and handle overflow
+            return Integer.parseInt(new String(scratch, 0, n, StandardCharsets.UTF_8));
+
+        int v = 0;
+        for (int k = i; k < n; k++) {
+            byte b = scratch[k];
+            if (b < '0' || b > '9')
+                return Integer.parseInt(new String(scratch, 0, n, StandardCharsets.UTF_8));
+            v = v * 10 + (b - '0');
+        }
+        return scratch[0] == '-' ? -v : v;
+    }
+
+    /** Parses a field as Boolean.parseBoolean would
+     *
+     * @param f field index
+     * @return true if the field is "true", ignoring case
+     */
+    public boolean parseBoolean(int f) {
+        int n = copy(f);
+        return n == 4
+                && (scratch[0] | 0x20) == 't' && (scratch[1] | 0x20) == 'r'
+                && (scratch[2] | 0x20) == 'u' && (scratch[3] | 0x20) == 'e';
+    }
+}
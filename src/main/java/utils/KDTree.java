@@ -1,10 +1,14 @@
 package utils;
 
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.function.ToIntFunction;
 
 import domain.Station;
 import domain.StationByLat;
@@ -254,4 +258,79 @@ public class KDTree {
         bucket.add(s);
     }
 
+    //writes the tree shape in preorder, for StationSnapshot: per node the bucket size
+    //(-1 for an empty subtree), the bucket as station indexes and the node coordinates
+    void writeLayout(DataOutput out, ToIntFunction<Station> index) throws IOException {
+        writeLayout(root, out, index);
+    }
+
+    private static void writeLayout(Node n, DataOutput out, ToIntFunction<Station> index) throws IOException {
+        if (n == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(n.bucket.size());
+        for (Station s : n.bucket)
+            out.writeInt(index.applyAsInt(s));
+        out.writeDouble(n.lat);
+        out.writeDouble(n.lon);
+        writeLayout(n.left, out, index);
+        writeLayout(n.right, out, index);
+    }
+
+    //rebuilds a tree written by writeLayout, as it was, without sorting, splitting or recursion;
+    //the layout is rejected if it is not one buildBalanced can produce for these stations:
+    //more nodes than stations, an empty bucket or a depth beyond what halving the lists allows
+    static KDTree readLayout(ByteBuffer in, Station[] stations) {
+        int n = stations.length;
+        int maxDepth = 2 * (32 - Integer.numberOfLeadingZeros(n)) + 8;
+
+        KDTree tree = new KDTree();
+        List<Node> path = new ArrayList<>();        // nodes still waiting for a child
+        int[] next = new int[maxDepth + 2];         // per path entry: 0 = left child next, 1 = right
+        int[] depths = new int[maxDepth + 2];
+        int nodes = 0;
+        do {
+            int bucketSize = in.getInt();
+            Node node = null;
+            if (bucketSize != -1) {
+                if (bucketSize < 1 || bucketSize > n || ++nodes > n)
+                    throw new IllegalArgumentException("Invalid KD-Tree layout");
+                node = new Node();
+                for (int i = 0; i < bucketSize; i++) {
+                    int s = in.getInt();
+                    if (s < 0 || s >= n) throw new IllegalArgumentException("Invalid station index: " + s);
+                    node.bucket.add(stations[s]);
+                }
+                node.lat = in.getDouble();
+                node.lon = in.getDouble();
+                tree.size += bucketSize;
+            }
+
+            int depth = 0;
+            if (path.isEmpty()) {
+                tree.root = node;
+            } else {
+                int top = path.size() - 1;
+                depth = depths[top] + 1;
+                if (next[top] == 0) {
+                    path.get(top).left = node;
+                    next[top] = 1;
+                } else {
+                    path.get(top).right = node;
+                    path.remove(top);
+                }
+            }
+
+            if (node != null) {
+                if (depth > maxDepth) throw new IllegalArgumentException("KD-Tree layout too deep");
+                next[path.size()] = 0;
+                depths[path.size()] = depth;
+                path.add(node);
+            }
+        } while (!path.isEmpty());
+
+        return tree;
+    }
+
 }
@@ -1,54 +1,93 @@
 package utils;
 
 import domain.RailLine;
+import domain.StationIds;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
 public class LinesCsvReader {
 
+    private final StationIds ids;
+
+    // Station ids are interned in a table of this reader
+    public LinesCsvReader() {
+        this(new StationIds());
+    }
+
+    public LinesCsvReader(StationIds ids) {
+        this.ids = ids;
+    }
+
     public List<RailLine> readLines(String filePath) throws IOException {
+        return readLines(filePath, false);
+    }
+
+    // In parallel, slices of the file are parsed on the fork-join pool; lines are created
+    // in file order while the slices are joined, so station ids are interned deterministically
+    public List<RailLine> readLines(String filePath, boolean parallel) throws IOException {
 
         List<RailLine> lines = new ArrayList<>();
 
-        try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
+        for (List<Row> chunk : CsvTokenizer.parseChunks(CsvTokenizer.map(filePath), ',', false, parallel, this::parseChunk)) {
+            for (Row r : chunk) {
+                lines.add(new RailLine(r.fromId, r.toId, r.dist, r.capacity, r.cost, ids));
+            }
+        }
+
+        return lines;
+    }
 
-            String line = br.readLine(); // header
-            if (line == null) return lines;
+    // fields of a line row
+    private static final class Row {
+        final String fromId;
+        final String toId;
+        final double dist;
+        final int capacity;
+        final double cost;
 
-            while ((line = br.readLine()) != null) {
+        Row(String fromId, String toId, double dist, int capacity, double cost) {
+            this.fromId = fromId;
+            this.toId = toId;
+            this.dist = dist;
+            this.capacity = capacity;
+            this.cost = cost;
+        }
+    }
 
-                String[] cols = line.split(",", -1);
-                if (cols.length < 5) continue;
+    private List<Row> parseChunk(CsvTokenizer row) {
 
-                String fromId = cols[0].trim();
-                String toId   = cols[1].trim();
-                double dist   = parseDoubleSafe(cols[2]);
-                int capacity  = parseIntSafe(cols[3]);
-                double cost   = parseDoubleSafe(cols[4]);
+        List<Row> lines = new ArrayList<>();
 
-                lines.add(new RailLine(fromId, toId, dist, capacity, cost));
-            }
+        while (row.nextRow()) {
+
+            if (row.fieldCount() < 5) continue;
+
+            String fromId = row.text(0);
+            String toId   = row.text(1);
+            double dist   = parseDoubleSafe(row, 2);
+            int capacity  = parseIntSafe(row, 3);
+            double cost   = parseDoubleSafe(row, 4);
+
+            lines.add(new Row(fromId, toId, dist, capacity, cost));
         }
 
         return lines;
     }
 
-    private double parseDoubleSafe(String s) {
+    private double parseDoubleSafe(CsvTokenizer row, int field) {
         try {
-            return Double.parseDouble(s.replace(",", "."));
-        } catch (Exception e) {
+            return row.parseDouble(field);
+        } catch (NumberFormatException e) {
             return 0.0;
         }
     }
 
-    private int parseIntSafe(String s) {
+    private int parseIntSafe(CsvTokenizer row, int field) {
         try {
-            return Integer.parseInt(s.trim());
-        } catch (Exception e) {
+            return row.parseInt(field);
+        } catch (NumberFormatException e) {
             return 0;
         }
     }
@@ -2,8 +2,6 @@ package utils;
 
 import domain.Station;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
@@ -23,100 +21,113 @@ public class StationCSVLoader {
     }
 
     public static List<Station> loadValidStationsList(String path) {
+        return loadValidStationsList(path, false);
+    }
 
-        List<Station> list = new ArrayList<>(64000); 
-
-        int total = 0;
-        int loaded = 0;
-        int skippedMissingCoords = 0;
-        int skippedInvalidRequired = 0;
-        int skippedOutOfRange = 0;
-        int skippedMalformed = 0;
-
-        try (BufferedReader br = new BufferedReader(new FileReader(path))) {
-
-            String header = br.readLine(); 
-            String line;
-
-            while ((line = br.readLine()) != null) {
-                total++;
-
-                try {
-                    line = line.replace("\"", "").trim();
-
-                    String[] parts = line.split(",(?![^()]*\\))");
-
-                    if (parts.length < 9) {
-                        skippedMalformed++;
-                        continue;
-                    }
-
-                    String country = parts[0].trim();
-                    String tzRaw = parts[1].trim();
-                    String timeZone = cleanTimezone(tzRaw);
-                    String timeZoneGroup = parts[2].trim();
-                    String stationName = parts[3].trim();
-                    String latStr = parts[4].trim();
-                    String lonStr = parts[5].trim();
-
-                    if (country.isEmpty() || stationName.isEmpty() || timeZoneGroup.isEmpty()) {
-                        skippedInvalidRequired++;
-                        continue;
-                    }
-
-                    if (latStr.isEmpty() || lonStr.isEmpty()) {
-                        skippedMissingCoords++;
-                        continue;
-                    }
-
-                    double latitude = Double.parseDouble(latStr);
-                    double longitude = Double.parseDouble(lonStr);
-
-                    if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
-                        skippedOutOfRange++;
-                        continue;
-                    }
-
-                    boolean isCity = Boolean.parseBoolean(parts[6].trim());
-                    boolean isMain = Boolean.parseBoolean(parts[7].trim());
-                    boolean isAirport = Boolean.parseBoolean(parts[8].trim());
-
-                    Station s = new Station(
-                            stationName,
-                            country,
-                            timeZone,
-                            timeZoneGroup,
-                            latitude,
-                            longitude,
-                            isCity,
-                            isMain,
-                            isAirport
-                    );
-
-                    list.add(s);
-                    loaded++;
-
-                } catch (NumberFormatException e) {
-                    skippedMalformed++;
-                } catch (Exception e) {
-                    skippedMalformed++;
-                }
-            }
+    // In parallel, slices of the file are parsed on the fork-join pool and joined in file order
+    public static List<Station> loadValidStationsList(String path, boolean parallel) {
+
+        Chunk all = new Chunk(64000);
 
+        try {
+            for (Chunk c : CsvTokenizer.parseChunks(CsvTokenizer.map(path), ',', true, parallel, StationCSVLoader::parseChunk))
+                all.add(c);
         } catch (IOException e) {
             System.out.println(" Error reading file: " + e.getMessage());
         }
 
         System.out.println("—— Import Summary ——");
-        System.out.println("Total lidas               : " + total);
-        System.out.println("Carregadas                : " + loaded);
-        System.out.println("Ignoradas (coords vazias) : " + skippedMissingCoords);
-        System.out.println("Ignoradas (campos obrig.) : " + skippedInvalidRequired);
-        System.out.println("Ignoradas (fora intervalo): " + skippedOutOfRange);
-        System.out.println("Ignoradas (malformadas)   : " + skippedMalformed);
+        System.out.println("Total lidas               : " + all.total);
+        System.out.println("Carregadas                : " + all.loaded);
+        System.out.println("Ignoradas (coords vazias) : " + all.skippedMissingCoords);
+        System.out.println("Ignoradas (campos obrig.) : " + all.skippedInvalidRequired);
+        System.out.println("Ignoradas (fora intervalo): " + all.skippedOutOfRange);
+        System.out.println("Ignoradas (malformadas)   : " + all.skippedMalformed);
         System.out.println("------------------------");
 
-        return list;
+        return all.list;
+    }
+
+    // Stations and counters of a slice of the file
+    private static class Chunk {
+        final List<Station> list;
+        int total;
+        int loaded;
+        int skippedMissingCoords;
+        int skippedInvalidRequired;
+        int skippedOutOfRange;
+        int skippedMalformed;
+
+        Chunk(int capacity) {
+            list = new ArrayList<>(capacity);
+        }
+
+        void add(Chunk other) {
+            list.addAll(other.list);
+            total += other.total;
+            loaded += other.loaded;
+            skippedMissingCoords += other.skippedMissingCoords;
+            skippedInvalidRequired += other.skippedInvalidRequired;
+            skippedOutOfRange += other.skippedOutOfRange;
+            skippedMalformed += other.skippedMalformed;
+        }
+    }
+
+    // one pass over the rows: fields are located, not copied, and only the text fields become Strings
+    private static Chunk parseChunk(CsvTokenizer row) {
+
+        Chunk c = new Chunk(1024);
+
+        while (row.nextRow()) {
+            c.total++;
+
+            try {
+                if (row.splitCount() < 9) {
+                    c.skippedMalformed++;
+                    continue;
+                }
+
+                if (row.isBlank(0) || row.isBlank(3) || row.isBlank(2)) {
+                    c.skippedInvalidRequired++;
+                    continue;
+                }
+
+                if (row.isBlank(4) || row.isBlank(5)) {
+                    c.skippedMissingCoords++;
+                    continue;
+                }
+
+                double latitude = row.parseDouble(4);
+                double longitude = row.parseDouble(5);
+
+                if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+                    c.skippedOutOfRange++;
+                    continue;
+                }
+
+                Station s = new Station(
+                        row.text(3),
+                        row.text(0),
+                        cleanTimezone(row.text(1)),
+                        row.text(2),
+                        latitude,
+                        longitude,
+                        row.parseBoolean(6),
+                        row.parseBoolean(7),
+                        row.parseBoolean(8)
+                );
+
+                c.list.add(s);
+                c.loaded++;
+
+            } catch (NumberFormatException e) {
+                c.skippedMalformed++;
+            } catch (Exception e) {
+                c.skippedMalformed++;
+            }
+        }
+
+        return c;
     }
 
     private static String cleanTimezone(String tz) {
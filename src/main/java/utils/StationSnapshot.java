@@ -0,0 +1,351 @@
+package utils;
+
+import domain.Station;
+import domain.StationByLat;
+import domain.StationByLon;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Binary snapshot of the station indexes (the three AVLs of StationIndexService
+ * and, optionally, the KD-Tree), so they can be reloaded without parsing the
+ * CSV or rebuilding the trees.
+ * The stations are stored by column: a table of distinct strings, then the
+ * name, country, time zone and time zone group of every station as indexes in
+ * that table, the latitudes, the longitudes and a byte of flags. Each tree is
+ * stored in preorder as station indexes (-1 for an empty subtree), so it is
+ * read back with the same shape, without comparisons or rotations.
+ * Stations shared by several trees are stored once and are shared again when read.
+ * The header records the absolute path, size and modification time of the CSV
+ * the indexes were loaded from, so a snapshot of another file is not taken for it.
+ * The file is read in one bulk read and every count, index and tree depth is
+ * checked, so a damaged file is reported as an IOException; all numbers are big-endian.
+ *
+ * @author DEI-ISEP
+ */
+public class StationSnapshot {
+
+    private static final int MAGIC = 0x53544E53;    // "STNS"
+    private static final int VERSION = 2;
+
+    private final String sourcePath;
+    private final long sourceSize;
+    private final long sourceModified;
+    private final Station[] stations;
+    private final AVL<Station> tzTree;
+    private final AVL<StationByLat> latTree;
+    private final AVL<StationByLon> lonTree;
+    private final KDTree kdTree;
+
+    private StationSnapshot(String sourcePath, long sourceSize, long sourceModified, Station[] stations,
+                            AVL<Station> tzTree, AVL<StationByLat> latTree, AVL<StationByLon> lonTree, KDTree kdTree) {
+        this.sourcePath = sourcePath;
+        this.sourceSize = sourceSize;
+        this.sourceModified = sourceModified;
+        this.stations = stations;
+        this.tzTree = tzTree;
+        this.latTree = latTree;
+        this.lonTree = lonTree;
+        this.kdTree = kdTree;
+    }
+
+    public AVL<Station> getTzTree() { return tzTree; }
+    public AVL<StationByLat> getLatTree() { return latTree; }
+    public AVL<StationByLon> getLonTree() { return lonTree; }
+
+    // null if the snapshot was written without a KD-Tree
+    public KDTree getKDTree() { return kdTree; }
+
+    // number of distinct stations in the snapshot
+    public int size() {
+        return stations.length;
+    }
+
+    // absolute path of the CSV the indexes were loaded from, empty if unknown
+    public String getSourcePath() {
+        return sourcePath;
+    }
+
+    // whether the indexes were loaded from this CSV, as it is now
+    public boolean isSnapshotOf(String csvPath) {
+        return isSource(csvPath, sourcePath, sourceSize, sourceModified);
+    }
+
+    private static boolean isSource(String csvPath, String sourcePath, long sourceSize, long sourceModified) {
+        File csv = new File(csvPath).getAbsoluteFile();
+        return csv.isFile() && csv.getPath().equals(sourcePath)
+                && csv.length() == sourceSize && csv.lastModified() == sourceModified;
+    }
+
+    /** Writes a snapshot of the indexes; the file is replaced only once it is complete
+     *
+     * @param path    snapshot file
+     * @param csvPath CSV the indexes were loaded from, or null if unknown
+     * @param tzTree  index by time zone group, country and name
+     * @param latTree index by latitude
+     * @param lonTree index by longitude
+     * @param kdTree  KD-Tree over the stations of latTree and lonTree, or null
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(String path, String csvPath, AVL<Station> tzTree, AVL<StationByLat> latTree,
+                             AVL<StationByLon> lonTree, KDTree kdTree) throws IOException {
+
+        // every distinct station once, as found in the trees
+        Map<Station, Integer> index = new IdentityHashMap<>();
+        List<Station> stations = new ArrayList<>();
+        for (Station s : tzTree.inOrder()) add(s, index, stations);
+        for (StationByLat s : latTree.inOrder()) add(s.s, index, stations);
+        for (StationByLon s : lonTree.inOrder()) add(s.s, index, stations);
+
+        Map<String, Integer> stringIndex = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        int n = stations.size();
+        int[][] text = new int[4][n];
+        for (int i = 0; i < n; i++) {
+            Station s = stations.get(i);
+            text[0][i] = intern(s.getStationName(), stringIndex, strings);
+            text[1][i] = intern(s.getCountry(), stringIndex, strings);
+            text[2][i] = intern(s.getTimeZone(), stringIndex, strings);
+            text[3][i] = intern(s.getTimeZoneGroup(), stringIndex, strings);
+        }
+
+        ToIntFunction<Station> indexOf = s -> {
+            Integer i = index.get(s);
+            if (i == null) throw new IllegalArgumentException("KD-Tree station not in the indexes: " + s.getStationName());
+            return i;
+        };
+
+        Path target = Paths.get(path);
+        Path tmp = Paths.get(path + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+
+            File csv = csvPath == null ? null : new File(csvPath).getAbsoluteFile();
+            writeString(out, csv == null ? "" : csv.getPath());
+            out.writeLong(csv == null ? -1 : csv.length());
+            out.writeLong(csv == null ? -1 : csv.lastModified());
+
+            out.writeInt(strings.size());
+            for (String str : strings)
+                writeString(out, str);
+
+            out.writeInt(n);
+            for (int[] column : text)
+                for (int i = 0; i < n; i++)
+                    out.writeInt(column[i]);
+            for (int i = 0; i < n; i++)
+                out.writeDouble(stations.get(i).getLatitude());
+            for (int i = 0; i < n; i++)
+                out.writeDouble(stations.get(i).getLongitude());
+            for (int i = 0; i < n; i++) {
+                Station s = stations.get(i);
+                out.writeByte((s.isCity() ? 1 : 0) | (s.isMainStation() ? 2 : 0) | (s.isAirport() ? 4 : 0));
+            }
+
+            writeTree(tzTree.root, out, indexOf);
+            writeTree(latTree.root, out, s -> indexOf.applyAsInt(s.s));
+            writeTree(lonTree.root, out, s -> indexOf.applyAsInt(s.s));
+
+            out.writeBoolean(kdTree != null);
+            if (kdTree != null)
+                kdTree.writeLayout(out, indexOf);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /** Reads a snapshot written by write()
+     *
+     * @param path snapshot file
+     * @return the indexes in the snapshot
+     * @throws IOException if the file cannot be read or is not a valid snapshot
+     */
+    public static StationSnapshot read(String path) throws IOException {
+        return read(path, null);
+    }
+
+    /** Reads a snapshot written by write(), checking that it was taken from a CSV
+     *  before reading the stations
+     *
+     * @param path    snapshot file
+     * @param csvPath CSV the indexes must have been loaded from, or null not to check
+     * @return the indexes in the snapshot
+     * @throws IOException if the file cannot be read, is not a valid snapshot or is not of csvPath
+     */
+    public static StationSnapshot read(String path, String csvPath) throws IOException {
+        // read, not mapped: a mapping would keep the file open until collected
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(Paths.get(path)));
+        try {
+            if (in.remaining() < 8 || in.getInt() != MAGIC)
+                throw new IOException("Not a station snapshot: " + path);
+            if (in.getInt() != VERSION)
+                throw new IOException("Unsupported station snapshot version: " + path);
+
+            String sourcePath = readString(in);
+            long sourceSize = in.getLong();
+            long sourceModified = in.getLong();
+            if (csvPath != null && !isSource(csvPath, sourcePath, sourceSize, sourceModified))
+                throw new IOException("Snapshot " + path + " is not of " + csvPath);
+
+            String[] strings = new String[count(in, 4)];
+            for (int i = 0; i < strings.length; i++)
+                strings[i] = readString(in);
+
+            int n = count(in, 4 * 4 + 8 + 8 + 1);
+            int[][] text = new int[4][n];
+            for (int[] column : text)
+                for (int i = 0; i < n; i++) {
+                    column[i] = in.getInt();
+                    if (column[i] < -1 || column[i] >= strings.length)
+                        throw new IllegalArgumentException("Invalid string index: " + column[i]);
+                }
+            double[] lat = new double[n];
+            double[] lon = new double[n];
+            for (int i = 0; i < n; i++)
+                lat[i] = in.getDouble();
+            for (int i = 0; i < n; i++)
+                lon[i] = in.getDouble();
+
+            Station[] stations = new Station[n];
+            for (int i = 0; i < n; i++) {
+                byte flags = in.get();
+                stations[i] = new Station(string(strings, text[0][i]), string(strings, text[1][i]),
+                        string(strings, text[2][i]), string(strings, text[3][i]), lat[i], lon[i],
+                        (flags & 1) != 0, (flags & 2) != 0, (flags & 4) != 0);
+            }
+
+            AVL<Station> tzTree = new AVL<>();
+            tzTree.root = readTree(in, i -> stations[i], n);
+            AVL<StationByLat> latTree = new AVL<>();
+            latTree.root = readTree(in, i -> new StationByLat(stations[i]), n);
+            AVL<StationByLon> lonTree = new AVL<>();
+            lonTree.root = readTree(in, i -> new StationByLon(stations[i]), n);
+
+            KDTree kdTree = in.get() != 0 ? KDTree.readLayout(in, stations) : null;
+
+            return new StationSnapshot(sourcePath, sourceSize, sourceModified, stations,
+                    tzTree, latTree, lonTree, kdTree);
+
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupt station snapshot: " + path, e);
+        }
+    }
+
+    // a count read from the file, checked against the bytes left, each item taking at least bytesEach
+    private static int count(ByteBuffer in, int bytesEach) {
+        int count = in.getInt();
+        if (count < 0 || count > in.remaining() / bytesEach)
+            throw new IllegalArgumentException("Invalid count: " + count);
+        return count;
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int len = count(in, 1);
+        String s = new String(in.array(), in.arrayOffset() + in.position(), len, StandardCharsets.UTF_8);
+        in.position(in.position() + len);
+        return s;
+    }
+
+    private static void add(Station s, Map<Station, Integer> index, List<Station> stations) {
+        if (!index.containsKey(s)) {
+            index.put(s, stations.size());
+            stations.add(s);
+        }
+    }
+
+    // index of a string in the table, -1 for null
+    private static int intern(String s, Map<String, Integer> stringIndex, List<String> strings) {
+        if (s == null) return -1;
+        Integer i = stringIndex.get(s);
+        if (i == null) {
+            i = strings.size();
+            stringIndex.put(s, i);
+            strings.add(s);
+        }
+        return i;
+    }
+
+    private static String string(String[] strings, int i) {
+        return i < 0 ? null : strings[i];
+    }
+
+    private static <E> void writeTree(BST.Node<E> node, DataOutputStream out, ToIntFunction<E> index) throws IOException {
+        if (node == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(index.applyAsInt(node.getElement()));
+        writeTree(node.getLeft(), out, index);
+        writeTree(node.getRight(), out, index);
+    }
+
+    // rebuilds a tree written by writeTree without recursion; an AVL of at most n
+    // elements has at most n nodes and a height below 1.45*log2(n+2)
+    private static <E> BST.Node<E> readTree(ByteBuffer in, IntFunction<E> element, int n) {
+        int maxDepth = (int) (1.45 * Math.log(n + 2) / Math.log(2)) + 2;
+
+        BST.Node<E> root = null;
+        List<BST.Node<E>> path = new ArrayList<>();     // nodes still waiting for a child
+        int[] next = new int[maxDepth + 2];             // per path entry: 0 = left child next, 1 = right
+        int[] depths = new int[maxDepth + 2];
+        int nodes = 0;
+        do {
+            int i = in.getInt();
+            BST.Node<E> node = null;
+            if (i != -1) {
+                if (i < 0 || i >= n || ++nodes > n)
+                    throw new IllegalArgumentException("Invalid tree layout");
+                node = new BST.Node<>(element.apply(i), null, null);
+            }
+
+            int depth = 0;
+            if (path.isEmpty()) {
+                root = node;
+            } else {
+                int top = path.size() - 1;
+                depth = depths[top] + 1;
+                if (next[top] == 0) {
+                    path.get(top).setLeft(node);
+                    next[top] = 1;
+                } else {
+                    path.get(top).setRight(node);
+                    path.remove(top);
+                }
+            }
+
+            if (node != null) {
+                if (depth > maxDepth) throw new IllegalArgumentException("Tree layout too deep");
+                next[path.size()] = 0;
+                depths[path.size()] = depth;
+                path.add(node);
+            }
+        } while (!path.isEmpty());
+
+        return root;
+    }
+}
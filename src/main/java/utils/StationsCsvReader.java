@@ -1,49 +1,89 @@
 package utils;
 
 import domain.RailNode;
+import domain.StationIds;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 public class StationsCsvReader {
 
+    private final StationIds ids;
+
+    // Each reader interns ids in its own table; pass one table to both readers to join by index
+    public StationsCsvReader() {
+        this(new StationIds());
+    }
+
+    public StationsCsvReader(StationIds ids) {
+        this.ids = ids;
+    }
+
     public Map<String, RailNode> readStations(String filePath) throws IOException {
+        return readStations(filePath, false);
+    }
+
+    // In parallel, slices of the file are parsed on the fork-join pool; the stations are
+    // created while joining the slices in file order, so ids are interned as in a serial read
+    public Map<String, RailNode> readStations(String filePath, boolean parallel) throws IOException {
 
         Map<String, RailNode> stations = new LinkedHashMap<>();
 
-        try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
+        for (List<Row> chunk : CsvTokenizer.parseChunks(CsvTokenizer.map(filePath), ',', false, parallel, this::parseChunk)) {
+            for (Row r : chunk) {
+                RailNode node = new RailNode(r.id, r.name, r.lat, r.lon, r.x, r.y, ids);
+                stations.put(node.getId(), node);
+            }
+        }
 
-            String line = br.readLine(); // header
-            if (line == null) return stations;
+        return stations;
+    }
 
-            while ((line = br.readLine()) != null) {
+    // fields of a station row
+    private static final class Row {
+        final String id;
+        final String name;
+        final double lat, lon, x, y;
 
-                String[] cols = line.split(",", -1);
-                if (cols.length < 6) continue;
+        Row(String id, String name, double lat, double lon, double x, double y) {
+            this.id = id;
+            this.name = name;
+            this.lat = lat;
+            this.lon = lon;
+            this.x = x;
+            this.y = y;
+        }
+    }
 
-                String id   = cols[0].trim();
-                String name = cols[1].trim();
+    private List<Row> parseChunk(CsvTokenizer row) {
 
-                double lat  = parseDouble(cols[2]);
-                double lon  = parseDouble(cols[3]);
-                double x    = parseDouble(cols[4]);
-                double y    = parseDouble(cols[5]);
+        List<Row> nodes = new ArrayList<>();
 
-                RailNode node = new RailNode(id, name, lat, lon, x, y);
-                stations.put(id, node);
-            }
+        while (row.nextRow()) {
+
+            if (row.fieldCount() < 6) continue;
+
+            String id   = row.text(0);
+            String name = row.text(1);
+
+            double lat  = parseDouble(row, 2);
+            double lon  = parseDouble(row, 3);
+            double x    = parseDouble(row, 4);
+            double y    = parseDouble(row, 5);
+
+            nodes.add(new Row(id, name, lat, lon, x, y));
         }
 
-        return stations;
+        return nodes;
     }
 
-    private double parseDouble(String value) {
+    private double parseDouble(CsvTokenizer row, int field) {
         try {
-            return Double.parseDouble(value.trim().replace(",", "."));
-        } catch (Exception e) {
+            return row.parseDouble(field);
+        } catch (NumberFormatException e) {
             return 0.0;
         }
     }
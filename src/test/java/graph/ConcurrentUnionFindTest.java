@@ -0,0 +1,42 @@
+package graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentUnionFindTest {
+
+    @Test
+    void parallelUnionsSucceedExactlyOncePerMerge() {
+        int n = 10_000;
+        ConcurrentUnionFind uf = new ConcurrentUnionFind(n);
+        AtomicInteger merges = new AtomicInteger();
+
+        // every key joins its neighbour, each pair twice, from many threads
+        IntStream.range(0, 2 * (n - 1)).parallel().forEach(i -> {
+            int a = i % (n - 1);
+            if (uf.union(a, a + 1)) {
+                merges.incrementAndGet();
+            }
+        });
+
+        assertEquals(n - 1, merges.get());
+        int root = uf.find(0);
+        for (int i = 0; i < n; i++) {
+            assertEquals(root, uf.find(i));
+        }
+        assertTrue(uf.connected(0, n - 1));
+    }
+
+    @Test
+    void separateSetsStayApart() {
+        ConcurrentUnionFind uf = new ConcurrentUnionFind(4);
+        assertTrue(uf.union(0, 1));
+        assertTrue(uf.union(2, 3));
+        assertFalse(uf.union(1, 0));
+        assertFalse(uf.connected(0, 3));
+    }
+}
@@ -0,0 +1,271 @@
+package graph;
+
+import domain.RailLine;
+import domain.RailLineWeight;
+import domain.RailNode;
+import graph.map.MapGraph;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DoubleWeightAlgorithmsTest {
+
+    private final Graph<String, Integer> map = new MapGraph<>(false);
+
+    @BeforeEach
+    void setUp() {
+        map.addEdge("Porto", "Aveiro", 75);
+        map.addEdge("Porto", "Braga", 60);
+        map.addEdge("Porto", "Vila Real", 100);
+        map.addEdge("Viseu", "Guarda", 75);
+        map.addEdge("Guarda", "Castelo Branco", 100);
+        map.addEdge("Aveiro", "Coimbra", 60);
+        map.addEdge("Coimbra", "Lisboa", 200);
+        map.addEdge("Coimbra", "Leiria", 80);
+        map.addEdge("Aveiro", "Leiria", 120);
+        map.addEdge("Leiria", "Lisboa", 150);
+        map.addEdge("Aveiro", "Viseu", 85);
+        map.addEdge("Leiria", "Castelo Branco", 170);
+        map.addVertex("Faro");
+    }
+
+    @Test
+    void shortestPathMatchesGenericDijkstra() {
+        for (String orig : map.vertices()) {
+            for (String dest : map.vertices()) {
+                LinkedList<String> expectedPath = new LinkedList<>();
+                Integer expected = Algorithms.shortestPath(map, orig, dest, Integer::compare, Integer::sum, 0, expectedPath);
+
+                LinkedList<String> path = new LinkedList<>();
+                double d = DoubleWeightAlgorithms.shortestPath(map, orig, dest, Integer::doubleValue, path);
+
+                if (expected == null) {
+                    assertEquals(Double.POSITIVE_INFINITY, d, orig + " -> " + dest);
+                    assertTrue(path.isEmpty());
+                } else {
+                    assertEquals(expected, d, 1e-9, orig + " -> " + dest);
+                    assertEquals(expectedPath, path, orig + " -> " + dest);
+                }
+            }
+        }
+    }
+
+    @Test
+    void shortestPathsAreIndexedByKey() {
+        ArrayList<LinkedList<String>> paths = new ArrayList<>();
+        double[] dists = new double[map.numVertices()];
+
+        assertTrue(DoubleWeightAlgorithms.shortestPaths(map, "Porto", Integer::doubleValue, paths, dists));
+
+        assertEquals(map.numVertices(), paths.size());
+        assertEquals(335, dists[map.key("Castelo Branco")], 1e-9);
+        assertEquals(Arrays.asList("Porto", "Aveiro", "Viseu", "Guarda", "Castelo Branco"), paths.get(map.key("Castelo Branco")));
+        assertEquals(Double.POSITIVE_INFINITY, dists[map.key("Faro")]);
+        assertTrue(paths.get(map.key("Faro")).isEmpty());
+        assertFalse(DoubleWeightAlgorithms.shortestPaths(map, "LX", Integer::doubleValue, paths, dists));
+    }
+
+    @Test
+    void railLineWeightSelectsTheMetric() {
+        Graph<RailNode, RailLine> g = new MapGraph<>(true);
+        RailNode a = new RailNode("A", "A", 0, 0, 0, 0);
+        RailNode b = new RailNode("B", "B", 0, 0, 0, 0);
+        RailNode c = new RailNode("C", "C", 0, 0, 0, 0);
+
+        g.addEdge(a, c, new RailLine("A", "C", 10, 1, 100));
+        g.addEdge(a, b, new RailLine("A", "B", 6, 10, 1));
+        g.addEdge(b, c, new RailLine("B", "C", 6, 10, 1));
+
+        LinkedList<RailNode> path = new LinkedList<>();
+        assertEquals(10, DoubleWeightAlgorithms.shortestPath(g, a, c, RailLineWeight.DISTANCE, path), 1e-9);
+        assertEquals(Arrays.asList(a, c), path);
+
+        assertEquals(2, DoubleWeightAlgorithms.shortestPath(g, a, c, RailLineWeight.COST, path), 1e-9);
+        assertEquals(Arrays.asList(a, b, c), path);
+
+        assertEquals(0.2, DoubleWeightAlgorithms.shortestPath(g, a, c, RailLineWeight.INVERSE_CAPACITY, path), 1e-9);
+    }
+
+    private static <V> double length(Graph<V, Integer> g, LinkedList<V> path) {
+        double len = 0;
+        for (int p = 1; p < path.size(); p++)
+            len += g.edge(path.get(p - 1), path.get(p)).getWeight();
+        return len;
+    }
+
+    @Test
+    void minDistMatrixMatchesDijkstra() {
+        ShortestPathMatrix<String> m = DoubleWeightAlgorithms.minDistMatrix(map, Integer::doubleValue);
+
+        for (String orig : map.vertices()) {
+            for (String dest : map.vertices()) {
+                LinkedList<String> expectedPath = new LinkedList<>();
+                double expected = DoubleWeightAlgorithms.shortestPath(map, orig, dest, Integer::doubleValue, expectedPath);
+                assertEquals(expected, m.distance(orig, dest), 1e-9, orig + " -> " + dest);
+                LinkedList<String> path = m.path(orig, dest);
+                assertEquals(expectedPath.isEmpty(), path.isEmpty(), orig + " -> " + dest);
+                if (!path.isEmpty())
+                    assertEquals(expected, length(map, path), 1e-9, orig + " -> " + dest);  // ties may pick another route
+            }
+        }
+        assertEquals(-1, m.nextHop(map.key("Porto"), map.key("Faro")));
+        assertTrue(m.path("Porto", "LX").isEmpty());
+    }
+
+    @Test
+    void blockedMinDistMatrixSpansSeveralTiles() {
+        Random rnd = new Random(11);
+        int n = 150;
+        Graph<Integer, Integer> g = new MapGraph<>(true);
+        for (int v = 0; v < n; v++)
+            g.addVertex(v);
+        for (int e = 0; e < 4 * n; e++)
+            g.addEdge(rnd.nextInt(n), rnd.nextInt(n), 1 + rnd.nextInt(100));
+
+        ShortestPathMatrix<Integer> m = DoubleWeightAlgorithms.minDistMatrix(g, Integer::doubleValue);
+        double[] dists = new double[n];
+        ArrayList<LinkedList<Integer>> paths = new ArrayList<>();
+
+        for (int i = 0; i < n; i++) {
+            DoubleWeightAlgorithms.shortestPaths(g, g.vertex(i), Integer::doubleValue, paths, dists);
+            for (int j = 0; j < n; j++) {
+                assertEquals(dists[j], m.distance(i, j), 1e-9, i + " -> " + j);
+
+                // the rebuilt path has the reported length
+                LinkedList<Integer> path = m.path(g.vertex(i), g.vertex(j));
+                if (dists[j] != Double.POSITIVE_INFINITY)
+                    assertEquals(dists[j], length(g, path), 1e-9, i + " -> " + j);
+                else
+                    assertTrue(path.isEmpty());
+            }
+        }
+    }
+
+    @Test
+    void allPairsDijkstraMatchesFloydWarshall() {
+        Random rnd = new Random(12);
+        int n = 200;
+        Graph<Integer, Integer> g = new MapGraph<>(true);
+        for (int v = 0; v < n; v++)
+            g.addVertex(v);
+        for (int e = 0; e < 3 * n; e++)
+            g.addEdge(rnd.nextInt(n), rnd.nextInt(n), 1 + rnd.nextInt(50));
+
+        ShortestPathMatrix<Integer> fw = DoubleWeightAlgorithms.minDistMatrix(g, Integer::doubleValue);
+        ShortestPathMatrix<Integer> dj = DoubleWeightAlgorithms.allPairsDijkstra(g, Integer::doubleValue);
+        ShortestPathMatrix<Integer> auto = DoubleWeightAlgorithms.allPairs(g, Integer::doubleValue);
+
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                assertEquals(fw.distance(i, j), dj.distance(i, j), 1e-9, i + " -> " + j);
+                assertEquals(fw.distance(i, j), auto.distance(i, j), 1e-9, i + " -> " + j);
+
+                LinkedList<Integer> path = dj.path(g.vertex(i), g.vertex(j));
+                if (dj.distance(i, j) == Double.POSITIVE_INFINITY) {
+                    assertEquals(-1, dj.nextHop(i, j));
+                    assertTrue(path.isEmpty());
+                } else {
+                    assertEquals(dj.distance(i, j), length(g, path), 1e-9, i + " -> " + j);
+                }
+            }
+        }
+    }
+
+    @Test
+    void allPathsStreamMatchesAllPathsWithinLimits() {
+        Set<LinkedList<String>> all = new HashSet<>(Algorithms.allPaths(map, "Porto", "Lisboa"));
+        Set<LinkedList<String>> streamed = DoubleWeightAlgorithms.allPaths(map, "Porto", "Lisboa", Integer::doubleValue,
+                Long.MAX_VALUE, Integer.MAX_VALUE, Double.POSITIVE_INFINITY).collect(Collectors.toSet());
+        assertEquals(all, streamed);
+
+        Set<LinkedList<String>> expected = all.stream()
+                .filter(p -> p.size() - 1 <= 4 && length(map, p) <= 400)
+                .collect(Collectors.toSet());
+        Set<LinkedList<String>> bounded = DoubleWeightAlgorithms.allPaths(map, "Porto", "Lisboa", Integer::doubleValue,
+                Long.MAX_VALUE, 4, 400).collect(Collectors.toSet());
+        assertEquals(expected, bounded);
+        assertFalse(bounded.isEmpty());
+
+        assertEquals(List.of(new LinkedList<>(List.of("Faro"))), DoubleWeightAlgorithms.allPaths(map, "Faro", "Faro",
+                Integer::doubleValue, 10, 5, 100).collect(Collectors.toList()));
+        assertEquals(0, DoubleWeightAlgorithms.allPaths(map, "Porto", "Faro", Integer::doubleValue,
+                10, 5, 100).count());
+    }
+
+    @Test
+    void allPathsStreamIsLazy() {
+        // a complete graph on 14 vertices has billions of simple paths between two vertices
+        Graph<Integer, Integer> complete = new MapGraph<>(false);
+        for (int a = 0; a < 14; a++)
+            for (int b = a + 1; b < 14; b++)
+                complete.addEdge(a, b, 1);
+
+        List<LinkedList<Integer>> first = DoubleWeightAlgorithms.allPaths(complete, 0, 13, Integer::doubleValue,
+                1000, Integer.MAX_VALUE, Double.POSITIVE_INFINITY).collect(Collectors.toList());
+        assertEquals(1000, first.size());
+        assertEquals(1000, new HashSet<>(first).size());
+        for (LinkedList<Integer> p : first)
+            assertEquals(p.size(), new HashSet<>(p).size(), "Paths are simple");
+    }
+
+    @Test
+    void kShortestPathsMatchSortedAllPaths() {
+        List<Double> expected = Algorithms.allPaths(map, "Porto", "Castelo Branco").stream()
+                .map(p -> length(map, p)).sorted().collect(Collectors.toList());
+
+        List<Double> lengths = new ArrayList<>();
+        ArrayList<LinkedList<String>> paths = DoubleWeightAlgorithms.kShortestPaths(map, "Porto", "Castelo Branco",
+                Integer::doubleValue, 6, lengths);
+
+        assertEquals(Math.min(6, expected.size()), paths.size());
+        assertEquals(paths.size(), new HashSet<>(paths).size(), "Paths are distinct");
+        for (int i = 0; i < paths.size(); i++) {
+            assertEquals(expected.get(i), lengths.get(i), 1e-9);
+            assertEquals(lengths.get(i), length(map, paths.get(i)), 1e-9);
+            assertEquals(paths.get(i).size(), new HashSet<>(paths.get(i)).size(), "Paths are loopless");
+        }
+
+        assertTrue(DoubleWeightAlgorithms.kShortestPaths(map, "Porto", "Faro", Integer::doubleValue, 3, lengths).isEmpty());
+        assertTrue(lengths.isEmpty());
+    }
+
+    @Test
+    void kShortestPathsOnDirectedGraph() {
+        Random rnd = new Random(15);
+        int n = 30;
+        Graph<Integer, Integer> g = new MapGraph<>(true);
+        for (int v = 0; v < n; v++)
+            g.addVertex(v);
+        for (int e = 0; e < 80; e++)
+            g.addEdge(rnd.nextInt(n), rnd.nextInt(n), 1 + rnd.nextInt(9));
+
+        for (int d = 1; d < n; d++) {
+            List<Double> expected = Algorithms.allPaths(g, 0, d).stream()
+                    .map(p -> length(g, p)).sorted().collect(Collectors.toList());
+            List<Double> lengths = new ArrayList<>();
+            DoubleWeightAlgorithms.kShortestPaths(g, 0, d, Integer::doubleValue, 4, lengths);
+            assertEquals(expected.subList(0, Math.min(4, expected.size())), lengths, "0 -> " + d);
+        }
+    }
+
+    @Test
+    void allPairsRejectsGraphsTooLargeForIntIndexes() {
+        Graph<Integer, Integer> big = new MapGraph<>(true);
+        for (int v = 0; v <= ShortestPathMatrix.MAX_VERTICES; v++)
+            big.addVertex(v);
+
+        assertThrows(IllegalArgumentException.class, () -> DoubleWeightAlgorithms.allPairs(big, w -> w));
+        assertThrows(IllegalArgumentException.class, () -> DoubleWeightAlgorithms.allPairsDijkstra(big, w -> w));
+        assertThrows(IllegalArgumentException.class, () -> DoubleWeightAlgorithms.minDistMatrix(big, w -> w));
+    }
+}
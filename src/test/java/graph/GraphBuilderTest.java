@@ -0,0 +1,109 @@
+package graph;
+
+import domain.RailLine;
+import domain.RailNode;
+import graph.csr.CsrGraph;
+import graph.map.MapGraph;
+import graph.matrix.MatrixGraph;
+import org.junit.jupiter.api.Test;
+import services.RailGraphBuilderService;
+import utils.LinesCsvReader;
+import utils.StationsCsvReader;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GraphBuilderTest {
+
+    private static void assertSameGraph(Graph<Integer, Integer> expected, Graph<Integer, Integer> g) {
+        assertEquals(expected, g);
+        assertEquals(expected.vertices(), g.vertices());
+        for (Integer v : expected.vertices()) {
+            // same neighbours (in insertion order, except for the matrix), with the weight of the first edge added
+            if (g instanceof MatrixGraph)
+                assertEquals(new HashSet<>(expected.outgoingEdges(v)), new HashSet<>(g.outgoingEdges(v)), "out " + v);
+            else
+                assertEquals(new ArrayList<>(expected.outgoingEdges(v)), new ArrayList<>(g.outgoingEdges(v)), "out " + v);
+            for (Edge<Integer, Integer> e : expected.outgoingEdges(v))
+                assertEquals(e.getWeight(), g.edge(e.getVOrig(), e.getVDest()).getWeight());
+            assertEquals(expected.inDegree(v), g.inDegree(v), "in " + v);
+        }
+    }
+
+    @Test
+    void buildsTheSameGraphAsAddEdge() {
+        for (boolean directed : new boolean[]{true, false}) {
+            Random rnd = new Random(directed ? 20 : 21);
+            MapGraph<Integer, Integer> expected = new MapGraph<>(directed);
+            GraphBuilder<Integer, Integer> builder = new GraphBuilder<>(directed, 10, 10);
+
+            // few vertices, many repeated edges and self-loops, arrays grown past the expected sizes
+            for (int v = 0; v < 40; v += 3) {
+                expected.addVertex(v);
+                builder.addVertex(v);
+            }
+            for (int e = 0; e < 600; e++) {
+                Integer a = rnd.nextInt(60);
+                Integer b = rnd.nextInt(60);
+                Integer w = rnd.nextInt(100);
+                expected.addEdge(a, b, w);
+                builder.addEdge(a, b, w);
+            }
+
+            assertEquals(expected.numEdges(), builder.numEdges());
+            assertSameGraph(expected, builder.buildMapGraph());
+            assertSameGraph(expected, builder.buildMatrixGraph());
+            assertSameGraph(expected, builder.buildCsrGraph());
+
+            // the builder can keep going after a build
+            expected.addEdge(1000, 1001, 1);
+            builder.addEdge(builder.addVertex(1000), builder.addVertex(1001), Integer.valueOf(1));
+            assertSameGraph(expected, builder.buildMapGraph());
+        }
+    }
+
+    @Test
+    void emptyAndInvalidInput() {
+        GraphBuilder<String, Integer> builder = new GraphBuilder<>(true);
+        assertEquals(0, builder.buildMapGraph().numVertices());
+        assertEquals(0, builder.buildMatrixGraph().numVertices());
+        assertEquals(0, builder.buildCsrGraph().numEdges());
+
+        builder.addVertex("A");
+        assertThrows(IllegalArgumentException.class, () -> builder.addEdge(0, 1, 5));
+        assertThrows(RuntimeException.class, () -> builder.addEdge("A", null, 5));
+    }
+
+    @Test
+    void railNetworkMatchesIncrementalBuild() throws IOException {
+        Map<String, RailNode> stations = new StationsCsvReader().readStations("src/main/resources/data/stations.csv");
+        List<RailLine> lines = new LinesCsvReader().readLines("src/main/resources/data/lines.csv");
+
+        Graph<RailNode, RailLine> expected = new MapGraph<>(true);
+        for (RailNode node : stations.values())
+            expected.addVertex(node);
+        for (RailLine line : lines) {
+            RailNode from = stations.get(line.getFromStationId());
+            RailNode to = stations.get(line.getToStationId());
+            if (from != null && to != null)
+                expected.addEdge(from, to, line);
+        }
+
+        RailGraphBuilderService service = new RailGraphBuilderService();
+        Graph<RailNode, RailLine> built = service.buildDirectedGraph(stations, lines);
+        CsrGraph<RailNode, RailLine> compact = service.buildCompactDirectedGraph(stations, lines);
+
+        assertEquals(expected, built);
+        assertEquals(expected, compact);
+        assertEquals(expected.vertices(), compact.vertices());
+        for (RailNode v : expected.vertices())
+            for (Edge<RailNode, RailLine> e : expected.outgoingEdges(v))
+                assertSame(e.getWeight(), compact.edge(e.getVOrig(), e.getVDest()).getWeight());
+    }
+}
@@ -0,0 +1,135 @@
+package graph;
+
+import graph.map.MapGraph;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IncrementalTopologicalOrderTest {
+
+    // every edge outside the pending cycle edges goes forward in the order
+    private static void assertValidOrder(IncrementalTopologicalOrder<Integer, Integer> topo) {
+        Graph<Integer, Integer> g = topo.graph();
+        List<Integer> order = topo.order();
+        assertEquals(g.numVertices(), order.size());
+
+        for (Edge<Integer, Integer> e : g.edges()) {
+            if (!topo.cycleEdges().contains(e))
+                assertTrue(topo.position(e.getVOrig()) < topo.position(e.getVDest()),
+                        "Edge " + e.getVOrig() + "->" + e.getVDest() + " goes backwards");
+            assertEquals(e.getVOrig(), order.get(topo.position(e.getVOrig())));
+        }
+    }
+
+    // acyclic exactly when Kahn's algorithm places every vertex
+    private static boolean isAcyclic(Graph<Integer, Integer> g) {
+        int[] inDeg = new int[g.numVertices()];
+        List<Integer> ready = new ArrayList<>();
+        for (Integer v : g.vertices()) {
+            inDeg[g.key(v)] = g.inDegree(v);
+            if (inDeg[g.key(v)] == 0) ready.add(v);
+        }
+        int placed = 0;
+        while (!ready.isEmpty()) {
+            Integer v = ready.remove(ready.size() - 1);
+            placed++;
+            for (Integer w : g.adjVertices(v))
+                if (--inDeg[g.key(w)] == 0) ready.add(w);
+        }
+        return placed == g.numVertices();
+    }
+
+    @Test
+    void insertionsReorderOnlyWhenNeeded() {
+        Graph<Integer, Integer> g = new MapGraph<>(true);
+        IncrementalTopologicalOrder<Integer, Integer> topo = new IncrementalTopologicalOrder<>(g);
+
+        assertTrue(topo.insertEdge(1, 2, 0));
+        assertTrue(topo.insertEdge(3, 4, 0));
+        assertEquals(Arrays.asList(1, 2, 3, 4), topo.order());
+
+        assertTrue(topo.insertEdge(4, 1, 0), "4 -> 1 only moves 3 and 4 ahead of 1 and 2");
+        assertEquals(Arrays.asList(3, 4, 1, 2), topo.order());
+        assertValidOrder(topo);
+    }
+
+    @Test
+    void cycleIsReportedAndClearedByRemoval() {
+        Graph<Integer, Integer> g = new MapGraph<>(true);
+        IncrementalTopologicalOrder<Integer, Integer> topo = new IncrementalTopologicalOrder<>(g);
+
+        topo.insertEdge(1, 2, 0);
+        topo.insertEdge(2, 3, 0);
+        assertFalse(topo.insertEdge(3, 1, 0), "3 -> 1 closes a cycle");
+        assertTrue(topo.hasCycle());
+        assertEquals(Collections.singletonList(g.edge(Integer.valueOf(3), Integer.valueOf(1))), new ArrayList<>(topo.cycleEdges()));
+        assertNotNull(g.edge(Integer.valueOf(3), Integer.valueOf(1)), "The cycle edge stays in the graph");
+
+        assertTrue(topo.removeEdge(1, 2), "Removing 1 -> 2 breaks the cycle");
+        assertFalse(topo.hasCycle());
+        assertTrue(topo.cycleEdges().isEmpty());
+        assertValidOrder(topo);
+
+        assertFalse(topo.insertEdge(1, 1, 0), "A self-loop is a cycle");
+        assertTrue(topo.removeEdge(1, 1));
+    }
+
+    @Test
+    void initialGraphWithCyclesIsOrdered() {
+        Graph<Integer, Integer> g = new MapGraph<>(true);
+        for (int[] e : new int[][]{{0, 1}, {1, 2}, {2, 3}, {3, 1}, {3, 4}, {5, 0}})
+            g.addEdge(e[0], e[1], 0);
+
+        IncrementalTopologicalOrder<Integer, Integer> topo = new IncrementalTopologicalOrder<>(g);
+        assertTrue(topo.hasCycle());
+        assertEquals(1, topo.cycleEdges().size());
+        assertValidOrder(topo);
+
+        Edge<Integer, Integer> cycleEdge = topo.cycleEdges().iterator().next();
+        assertTrue(topo.removeEdge(cycleEdge.getVOrig(), cycleEdge.getVDest()));
+        assertValidOrder(topo);
+    }
+
+    @Test
+    void undirectedGraphIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new IncrementalTopologicalOrder<>(new MapGraph<Integer, Integer>(false)));
+    }
+
+    @Test
+    void randomBatchesMatchFullRecomputation() {
+        Random rnd = new Random(10);
+        int n = 40;
+        Graph<Integer, Integer> g = new MapGraph<>(true);
+        for (int v = 0; v < n; v++)
+            g.addVertex(v);
+        IncrementalTopologicalOrder<Integer, Integer> topo = new IncrementalTopologicalOrder<>(g);
+
+        for (int round = 0; round < 200; round++) {
+            List<Edge<Integer, Integer>> insertions = new ArrayList<>();
+            List<Edge<Integer, Integer>> deletions = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                int a = rnd.nextInt(n);
+                int b = rnd.nextInt(n);
+                // mostly forward edges, so the graph switches between acyclic and cyclic
+                if (rnd.nextInt(10) == 0)
+                    insertions.add(new Edge<>(Math.max(a, b), Math.min(a, b), round));
+                else
+                    insertions.add(new Edge<>(Math.min(a, b), Math.max(a, b), round));
+            }
+            List<Edge<Integer, Integer>> existing = new ArrayList<>(g.edges());
+            for (int i = 0; i < 3 && !existing.isEmpty(); i++)
+                deletions.add(existing.get(rnd.nextInt(existing.size())));
+
+            boolean acyclic = topo.applyBatch(insertions, deletions);
+            assertEquals(isAcyclic(g), acyclic, "Round " + round);
+            assertEquals(!acyclic, topo.hasCycle());
+            assertValidOrder(topo);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package graph;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndexedMinHeapTest {
+
+    @Test
+    void pollReturnsKeysByIncreasingPriority() {
+        IndexedMinHeap<Integer> heap = new IndexedMinHeap<>(5, Integer::compare);
+
+        heap.insertOrDecrease(0, 40);
+        heap.insertOrDecrease(1, 10);
+        heap.insertOrDecrease(2, 30);
+        heap.insertOrDecrease(3, 20);
+
+        assertEquals(4, heap.size());
+        assertEquals(1, heap.poll());
+        assertEquals(3, heap.poll());
+        assertEquals(2, heap.poll());
+        assertEquals(0, heap.poll());
+        assertTrue(heap.isEmpty());
+    }
+
+    @Test
+    void decreaseKeyReordersWithoutDuplicates() {
+        IndexedMinHeap<Integer> heap = new IndexedMinHeap<>(3, Integer::compare);
+
+        heap.insertOrDecrease(0, 10);
+        heap.insertOrDecrease(1, 20);
+        heap.insertOrDecrease(2, 30);
+
+        heap.insertOrDecrease(2, 5);   // decrease
+        heap.insertOrDecrease(0, 50);  // higher priority is ignored
+
+        assertEquals(3, heap.size());
+        assertEquals(2, heap.poll());
+        assertEquals(0, heap.poll());
+        assertFalse(heap.contains(0));
+        assertTrue(heap.contains(1));
+    }
+}
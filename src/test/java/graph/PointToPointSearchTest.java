@@ -0,0 +1,110 @@
+package graph;
+
+import domain.RailLine;
+import domain.RailLineWeight;
+import domain.RailNode;
+import domain.RailNodeHeuristic;
+import graph.map.MapGraph;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import utils.LinesCsvReader;
+import utils.StationsCsvReader;
+
+import java.io.IOException;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PointToPointSearchTest {
+
+    private static Graph<RailNode, RailLine> network;
+
+    @BeforeAll
+    static void loadNetwork() throws IOException {
+        Map<String, RailNode> stations = new StationsCsvReader().readStations("src/main/resources/data/stations.csv");
+        List<RailLine> lines = new LinesCsvReader().readLines("src/main/resources/data/lines.csv");
+
+        // lines in both directions, so most station pairs are connected
+        network = new MapGraph<>(false);
+        stations.values().forEach(network::addVertex);
+        for (RailLine l : lines) {
+            RailNode from = stations.get(l.getFromStationId());
+            RailNode to = stations.get(l.getToStationId());
+            if (from != null && to != null && !from.equals(to))
+                network.addEdge(from, to, l);
+        }
+    }
+
+    private static double length(LinkedList<RailNode> path) {
+        double len = 0;
+        for (int i = 1; i < path.size(); i++)
+            len += network.edge(path.get(i - 1), path.get(i)).getWeight().getDistance();
+        return len;
+    }
+
+    @Test
+    void searchesMatchDijkstraAndSettleLess() {
+        Random rnd = new Random(13);
+        int n = network.numVertices();
+        long settledDijkstra = 0, settledAStar = 0, settledBidirectional = 0;
+        int[] settled = new int[1];
+
+        for (int q = 0; q < 200; q++) {
+            RailNode a = network.vertex(rnd.nextInt(n));
+            RailNode b = network.vertex(rnd.nextInt(n));
+            double expected = DoubleWeightAlgorithms.shortestPath(network, a, b, RailLineWeight.DISTANCE, new LinkedList<>());
+
+            LinkedList<RailNode> path = new LinkedList<>();
+            assertEquals(expected, DoubleWeightAlgorithms.aStar(network, a, b, RailLineWeight.DISTANCE,
+                    RailNodeHeuristic.NONE, path, settled), 1e-6);
+            settledDijkstra += settled[0];
+
+            assertEquals(expected, DoubleWeightAlgorithms.aStar(network, a, b, RailLineWeight.DISTANCE,
+                    RailNodeHeuristic.GREAT_CIRCLE, path, settled), 1e-6, a + " -> " + b);
+            settledAStar += settled[0];
+            if (expected != Double.POSITIVE_INFINITY) {
+                assertEquals(a, path.getFirst());
+                assertEquals(b, path.getLast());
+                assertEquals(expected, length(path), 1e-6);
+            } else {
+                assertTrue(path.isEmpty());
+            }
+
+            assertEquals(expected, DoubleWeightAlgorithms.bidirectionalShortestPath(network, a, b,
+                    RailLineWeight.DISTANCE, path, settled), 1e-6, a + " -> " + b);
+            settledBidirectional += settled[0];
+            if (expected != Double.POSITIVE_INFINITY) {
+                assertEquals(a, path.getFirst());
+                assertEquals(b, path.getLast());
+                assertEquals(expected, length(path), 1e-6);
+            } else {
+                assertTrue(path.isEmpty());
+            }
+        }
+
+        assertTrue(settledAStar < settledDijkstra, "A* should settle fewer stations than Dijkstra");
+        assertTrue(settledBidirectional < settledDijkstra, "Bidirectional search should settle fewer stations than Dijkstra");
+    }
+
+    @Test
+    void bidirectionalFollowsLineDirection() {
+        Graph<RailNode, RailLine> g = new MapGraph<>(true);
+        RailNode a = new RailNode("A", "A", 0, 0, 0, 0);
+        RailNode b = new RailNode("B", "B", 0, 0, 0, 0);
+        RailNode c = new RailNode("C", "C", 0, 0, 0, 0);
+        g.addEdge(a, b, new RailLine("A", "B", 1, 1, 1));
+        g.addEdge(b, c, new RailLine("B", "C", 1, 1, 1));
+        g.addEdge(c, a, new RailLine("C", "A", 1, 1, 1));
+
+        LinkedList<RailNode> path = new LinkedList<>();
+        assertEquals(2, DoubleWeightAlgorithms.bidirectionalShortestPath(g, a, c, RailLineWeight.DISTANCE, path), 1e-9);
+        assertEquals(List.of(a, b, c), path);
+        assertEquals(1, DoubleWeightAlgorithms.bidirectionalShortestPath(g, c, a, RailLineWeight.DISTANCE, path), 1e-9);
+        assertEquals(List.of(c, a), path);
+        assertEquals(0, DoubleWeightAlgorithms.bidirectionalShortestPath(g, b, b, RailLineWeight.DISTANCE, path), 1e-9);
+        assertEquals(List.of(b), path);
+    }
+}
@@ -0,0 +1,96 @@
+package graph;
+
+import graph.csr.CsrGraph;
+import graph.map.MapGraph;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TraversalContextTest {
+
+    private static List<Integer> keys(Graph<Integer, Integer> g, TraversalContext ctx) {
+        List<Integer> l = new ArrayList<>();
+        for (int i = 0; i < ctx.size(); i++)
+            l.add(g.vertex(ctx.key(i)));
+        return l;
+    }
+
+    // reference recursive depth-first order
+    private static void recursiveDfs(Graph<Integer, Integer> g, Integer v, boolean[] visited, List<Integer> out) {
+        visited[g.key(v)] = true;
+        out.add(v);
+        for (Edge<Integer, Integer> e : g.outgoingEdges(v))
+            if (!visited[g.key(e.getVDest())])
+                recursiveDfs(g, e.getVDest(), visited, out);
+    }
+
+    @Test
+    void reusedContextMatchesFreshTraversals() {
+        Random rnd = new Random(16);
+        Graph<Integer, Integer> g = new MapGraph<>(true);
+        for (int v = 0; v < 60; v++)
+            g.addVertex(v);
+        for (int e = 0; e < 150; e++)
+            g.addEdge(rnd.nextInt(60), rnd.nextInt(60), 1);
+        CsrGraph<Integer, Integer> csr = new CsrGraph<>(g);
+
+        TraversalContext ctx = new TraversalContext();
+        for (Integer v : g.vertices()) {
+            List<Integer> expected = new ArrayList<>();
+            recursiveDfs(g, v, new boolean[g.numVertices()], expected);
+
+            assertEquals(expected.size(), Algorithms.DepthFirstSearch(g, v, ctx));
+            assertEquals(expected, keys(g, ctx), "DFS from " + v);
+            assertEquals(expected, Algorithms.DepthFirstSearch(g, v));
+            Algorithms.DepthFirstSearch(csr, v, ctx);
+            assertEquals(expected, keys(g, ctx), "CSR DFS from " + v);
+
+            LinkedList<Integer> bfs = Algorithms.BreadthFirstSearch(g, v);
+            assertEquals(bfs.size(), Algorithms.BreadthFirstSearch(g, v, ctx));
+            assertEquals(bfs, keys(g, ctx), "BFS from " + v);
+            Algorithms.BreadthFirstSearch(csr, v, ctx);
+            assertEquals(bfs, keys(g, ctx), "CSR BFS from " + v);
+
+            for (int k = 0; k < g.numVertices(); k++)
+                assertEquals(bfs.contains(g.vertex(k)), ctx.visited(k));
+        }
+    }
+
+    @Test
+    void contextGrowsAndRejectsMissingVertices() {
+        TraversalContext ctx = new TraversalContext(1);
+        assertFalse(ctx.visited(0), "Nothing is visited before the first traversal");
+
+        Graph<Integer, Integer> g = new MapGraph<>(false);
+        for (int v = 0; v < 20; v++)
+            g.addEdge(v, v + 1, 1);
+
+        assertEquals(21, Algorithms.BreadthFirstSearch(g, 0, ctx));
+        assertEquals(0, Algorithms.DepthFirstSearch(g, 99, ctx));
+        assertEquals(0, ctx.size());
+        assertFalse(ctx.visited(0), "A failed traversal leaves no marks of the previous one");
+
+        assertEquals(21, Algorithms.DepthFirstSearch(g, 0, ctx));
+        assertEquals(0, Algorithms.BreadthFirstSearch(g, 99, ctx));
+        assertEquals(0, ctx.size());
+        assertFalse(ctx.visited(20));
+        assertNull(Algorithms.DepthFirstSearch(g, 99));
+    }
+
+    @Test
+    void longChainShouldNotOverflowTheStack() {
+        int n = 200_000;
+        Graph<Integer, Integer> g = new MapGraph<>(true);
+        for (int v = 0; v < n - 1; v++)
+            g.addEdge(v, v + 1, 1);
+
+        TraversalContext ctx = new TraversalContext();
+        assertEquals(n, Algorithms.DepthFirstSearch(g, 0, ctx));
+        assertEquals(n - 1, g.vertex(ctx.key(n - 1)));
+    }
+}
@@ -0,0 +1,24 @@
+package graph;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UnionFindTest {
+
+    @Test
+    void unionJoinsSetsOnlyOnce() {
+        UnionFind uf = new UnionFind(5);
+
+        assertEquals(5, uf.components());
+        assertTrue(uf.union(0, 1));
+        assertTrue(uf.union(3, 4));
+        assertTrue(uf.union(1, 4));
+        assertFalse(uf.union(0, 3), "0 and 3 are already connected");
+
+        assertTrue(uf.connected(0, 4));
+        assertFalse(uf.connected(2, 0));
+        assertEquals(2, uf.components());
+        assertEquals(uf.find(0), uf.find(3));
+    }
+}
@@ -0,0 +1,133 @@
+package graph.ch;
+
+import domain.RailLine;
+import domain.RailNode;
+import graph.Algorithms;
+import graph.Graph;
+import graph.map.MapGraph;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import services.RailGraphBuilderService;
+import services.RailRoutingService;
+import utils.LinesCsvReader;
+import utils.StationsCsvReader;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.BinaryOperator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContractionHierarchyTest {
+
+    private static void assertMatchesDijkstra(Graph<Integer, Integer> g, ContractionHierarchy<Integer> ch) {
+        for (Integer a : g.vertices()) {
+            for (Integer b : g.vertices()) {
+                LinkedList<Integer> expectedPath = new LinkedList<>();
+                Integer expected = Algorithms.shortestPath(g, a, b, Integer::compare, Integer::sum, 0, expectedPath);
+
+                LinkedList<Integer> path = new LinkedList<>();
+                double d = ch.shortestPath(a, b, path);
+                if (expected == null) {
+                    assertEquals(Double.POSITIVE_INFINITY, d, a + " -> " + b);
+                    assertTrue(path.isEmpty());
+                    continue;
+                }
+                assertEquals(expected, d, 1e-9, a + " -> " + b);
+                assertEquals(a, path.getFirst());
+                assertEquals(b, path.getLast());
+
+                int len = 0;    // the unpacked path uses original edges only
+                for (int i = 1; i < path.size(); i++)
+                    len += g.edge(path.get(i - 1), path.get(i)).getWeight();
+                assertEquals(expected.intValue(), len, a + " -> " + b);
+            }
+        }
+    }
+
+    private static Graph<Integer, Integer> randomGraph(long seed, int n, int m, boolean directed) {
+        Random rnd = new Random(seed);
+        Graph<Integer, Integer> g = new MapGraph<>(directed);
+        for (int v = 0; v < n; v++)
+            g.addVertex(v);
+        for (int e = 0; e < m; e++)
+            g.addEdge(rnd.nextInt(n), rnd.nextInt(n), 1 + rnd.nextInt(20));
+        return g;
+    }
+
+    @Test
+    void directedQueriesMatchDijkstra() {
+        Graph<Integer, Integer> g = randomGraph(14, 80, 240, true);
+        ContractionHierarchy<Integer> ch = ContractionHierarchy.build(g, Integer::doubleValue);
+
+        assertTrue(ch.numShortcuts() > 0);
+        assertMatchesDijkstra(g, ch);
+    }
+
+    @Test
+    void undirectedQueriesMatchDijkstra() {
+        Graph<Integer, Integer> g = randomGraph(15, 60, 100, false);
+        g.addVertex(1000);      // isolated
+        assertMatchesDijkstra(g, ContractionHierarchy.build(g, Integer::doubleValue));
+    }
+
+    @Test
+    void savedHierarchyAnswersTheSame() throws IOException {
+        Graph<Integer, Integer> g = randomGraph(16, 50, 150, true);
+        ContractionHierarchy<Integer> ch = ContractionHierarchy.build(g, Integer::doubleValue);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ch.save(bytes, String::valueOf);
+        ContractionHierarchy<Integer> loaded = ContractionHierarchy.load(new ByteArrayInputStream(bytes.toByteArray()), g, String::valueOf);
+
+        assertEquals(ch.numShortcuts(), loaded.numShortcuts());
+        assertMatchesDijkstra(g, loaded);
+
+        Graph<Integer, Integer> other = new MapGraph<>(true);
+        other.addVertex(1);
+        assertThrows(IOException.class, () -> ContractionHierarchy.load(new ByteArrayInputStream(bytes.toByteArray()), other, String::valueOf));
+    }
+
+    @Test
+    void railNetworkRoundTrip(@TempDir Path dir) throws IOException {
+        Map<String, RailNode> stations = new StationsCsvReader().readStations("src/main/resources/data/stations.csv");
+        List<RailLine> lines = new LinesCsvReader().readLines("src/main/resources/data/lines.csv");
+        Graph<RailNode, RailLine> network = new RailGraphBuilderService().buildDirectedGraph(stations, lines);
+
+        RailRoutingService routing = new RailRoutingService();
+        String file = dir.resolve("network.ch").toString();
+        routing.save(routing.prepare(network), file);
+        ContractionHierarchy<RailNode> ch = routing.load(file, network);
+
+        // RailLine as a distance accumulator for the generic Dijkstra
+        Comparator<RailLine> byDistance = Comparator.comparingDouble(RailLine::getDistance);
+        BinaryOperator<RailLine> sum = (x, y) -> new RailLine(x.getFromStationId(), y.getToStationId(),
+                x.getDistance() + y.getDistance(), 0, 0);
+        RailLine zero = new RailLine("", "", 0, 0, 0);
+
+        Random rnd = new Random(17);
+        int n = network.numVertices();
+        for (int q = 0; q < 300; q++) {
+            RailNode a = network.vertex(rnd.nextInt(n));
+            RailNode b = network.vertex(rnd.nextInt(n));
+            RailLine expected = Algorithms.shortestPath(network, a, b, byDistance, sum, zero, new LinkedList<>());
+
+            LinkedList<RailNode> path = new LinkedList<>();
+            double d = ch.shortestPath(a, b, path);
+            if (expected == null) {
+                assertEquals(Double.POSITIVE_INFINITY, d, a + " -> " + b);
+            } else {
+                assertEquals(expected.getDistance(), d, 1e-6, a + " -> " + b);
+                assertEquals(a, path.getFirst());
+                assertEquals(b, path.getLast());
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package graph.csr;
+
+import graph.Algorithms;
+import graph.Edge;
+import graph.Graph;
+import graph.map.MapGraph;
+import graph.matrix.MatrixGraph;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsrGraphTest {
+
+    private final Graph<String, Integer> map = new MapGraph<>(false);
+    private CsrGraph<String, Integer> csr;
+
+    @BeforeEach
+    void setUp() {
+        map.addEdge("Porto", "Aveiro", 75);
+        map.addEdge("Porto", "Braga", 60);
+        map.addEdge("Porto", "Vila Real", 100);
+        map.addEdge("Viseu", "Guarda", 75);
+        map.addEdge("Guarda", "Castelo Branco", 100);
+        map.addEdge("Aveiro", "Coimbra", 60);
+        map.addEdge("Coimbra", "Lisboa", 200);
+        map.addEdge("Coimbra", "Leiria", 80);
+        map.addEdge("Aveiro", "Leiria", 120);
+        map.addEdge("Leiria", "Lisboa", 150);
+        map.addEdge("Aveiro", "Viseu", 85);
+        map.addVertex("Faro");
+
+        csr = new CsrGraph<>(map);
+    }
+
+    @Test
+    void snapshotHasSameContentsAndKeys() {
+        assertEquals(map, csr);
+        assertEquals(map.numVertices(), csr.numVertices());
+        assertEquals(map.numEdges(), csr.numEdges());
+
+        for (String v : map.vertices()) {
+            assertEquals(map.key(v), csr.key(v));
+            assertEquals(map.outDegree(v), csr.outDegree(v));
+            assertEquals(map.inDegree(v), csr.inDegree(v));
+            assertEquals(new ArrayList<>(map.adjVertices(v)), new ArrayList<>(csr.adjVertices(v)));
+            assertEquals(new ArrayList<>(map.outgoingEdges(v)), new ArrayList<>(csr.outgoingEdges(v)));
+        }
+
+        assertEquals(75, csr.edge("Porto", "Aveiro").getWeight());
+        assertEquals(75, csr.edge(csr.key("Aveiro"), csr.key("Porto")).getWeight());
+        assertNull(csr.edge("Porto", "Faro"));
+        assertNull(csr.adjVertices("LX"));
+    }
+
+    @Test
+    void indexIterationMatchesOutgoingEdges() {
+        int k = csr.key("Aveiro");
+        ArrayList<Edge<String, Integer>> byIndex = new ArrayList<>();
+        for (int i = csr.firstEdge(k); i < csr.lastEdge(k); i++) {
+            assertEquals(csr.vertex(csr.target(i)), csr.edgeAt(i).getVDest());
+            assertEquals(csr.weight(i), csr.edgeAt(i).getWeight());
+            byIndex.add(csr.edgeAt(i));
+        }
+        assertEquals(new ArrayList<>(map.outgoingEdges("Aveiro")), byIndex);
+    }
+
+    @Test
+    void algorithmsGiveSameResultsOnSnapshot() {
+        assertEquals(Algorithms.BreadthFirstSearch(map, "Porto"), Algorithms.BreadthFirstSearch(csr, "Porto"));
+        assertEquals(Algorithms.DepthFirstSearch(map, "Porto"), Algorithms.DepthFirstSearch(csr, "Porto"));
+        assertEquals(Algorithms.allPaths(map, "Porto", "Lisboa"), Algorithms.allPaths(csr, "Porto", "Lisboa"));
+
+        LinkedList<String> p1 = new LinkedList<>();
+        LinkedList<String> p2 = new LinkedList<>();
+        assertEquals(Algorithms.shortestPath(map, "Braga", "Castelo Branco", Integer::compare, Integer::sum, 0, p1),
+                Algorithms.shortestPath(csr, "Braga", "Castelo Branco", Integer::compare, Integer::sum, 0, p2));
+        assertEquals(p1, p2);
+    }
+
+    @Test
+    void snapshotIsImmutable() {
+        assertThrows(UnsupportedOperationException.class, () -> csr.addVertex("Evora"));
+        assertThrows(UnsupportedOperationException.class, () -> csr.addEdge("Porto", "Faro", 1));
+        assertThrows(UnsupportedOperationException.class, () -> csr.removeVertex("Porto"));
+        assertThrows(UnsupportedOperationException.class, () -> csr.removeEdge("Porto", "Braga"));
+    }
+
+    @Test
+    void snapshotEdgesAreNotSharedWithTheSource() {
+        map.edge("Porto", "Aveiro").setWeight(1);
+        assertEquals(75, csr.edge("Porto", "Aveiro").getWeight());
+
+        int k = csr.key("Porto");
+        for (int i = csr.firstEdge(k); i < csr.lastEdge(k); i++) {
+            csr.edgeAt(i).setWeight(i + 1000);
+            assertEquals(i + 1000, csr.weight(i));
+        }
+    }
+
+    @Test
+    void forEachInEdgeVisitsTheIncomingEdges() {
+        Graph<String, Integer> matrix = new MatrixGraph<>(map);
+        for (Graph<String, Integer> g : Arrays.asList(map, csr, matrix)) {
+            for (String v : g.vertices()) {
+                List<Edge<String, Integer>> visited = new ArrayList<>();
+                g.forEachInEdge(v, visited::add);
+                assertEquals(new HashSet<>(g.incomingEdges(v)), new HashSet<>(visited));
+                assertEquals(g.inDegree(v), visited.size());
+            }
+            g.forEachInEdge("LX", e -> fail());
+        }
+    }
+}
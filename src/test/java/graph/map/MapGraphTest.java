@@ -135,6 +135,28 @@ public class MapGraphTest {
 
         assertEquals(-1, instance.key("Z"), "vertice should not exist");
     }
+
+    /**
+     * Test of key method after vertex removal, of class Graph.
+     */
+    @Test
+    public void testKeyAfterRemoveVertex() {
+        System.out.println("Test key after removeVertex");
+
+        for (int i = 0; i < co.size(); i++)
+            instance.addEdge(co.get(i), cd.get(i), cw.get(i));
+
+        instance.removeVertex("B");
+
+        assertEquals(-1, instance.key("B"), "removed vertex should not have a key");
+        assertFalse(instance.validVertex("B"), "removed vertex should not exist");
+        for (int i = 0; i < instance.numVertices(); i++)
+            assertEquals(i, instance.key(instance.vertex(i)), "keys should be compacted");
+        assertEquals(3, instance.key("E"), "E should move down one position");
+
+        instance.addVertex("B");
+        assertEquals(4, instance.key("B"), "re-added vertex should get the last key");
+    }
     /**
      * Test of testAdjVertices method, of class Graph.
      */
@@ -332,6 +354,35 @@ public class MapGraphTest {
         assertEquals(0, coe.size(), "Outgoing edges of vert E should be empty");
     }
 
+    /**
+     * Test of outgoingEdgesView, adjVerticesView and forEachOutEdge methods, of class MapGraph.
+     */
+    @Test
+    public void testAdjacencyViews() {
+        System.out.println(" Test adjacency views");
+
+        for (int i = 0; i <co.size(); i++)
+            instance.addEdge(co.get(i), cd.get(i), cw.get(i));
+
+        Collection <Edge<String,Integer>> view = instance.outgoingEdgesView("C");
+        assertEquals(new ArrayList<>(instance.outgoingEdges("C")), new ArrayList<>(view), "View should have the same edges");
+        assertThrows(UnsupportedOperationException.class, () -> view.clear(), "View should be read-only");
+
+        Collection <String> adj = instance.adjVerticesView("C");
+        assertEquals(new ArrayList<>(instance.adjVertices("C")), new ArrayList<>(adj), "View should have the same vertices");
+
+        instance.removeEdge("C","D");
+        assertEquals(1, view.size(), "View should reflect removed edges");
+        assertEquals(1, adj.size(), "View should reflect removed edges");
+
+        ArrayList <Edge<String,Integer>> visited = new ArrayList<>();
+        instance.forEachOutEdge("E", visited::add);
+        assertEquals(new ArrayList<>(instance.outgoingEdges("E")), visited, "forEachOutEdge should visit every outgoing edge");
+
+        assertNull(instance.outgoingEdgesView("Z"), "View of missing vertex should be null");
+        instance.forEachOutEdge("Z", e -> fail("Missing vertex has no edges"));
+    }
+
     /**
      * Test of incomingEdges method, of class Graph.
      */
@@ -366,6 +417,39 @@ public class MapGraphTest {
     }
 
 
+    /**
+     * Test that incomingEdges and inDegree stay consistent with the outgoing edges after removals.
+     */
+    @Test
+    public void testIncomingIndexAfterRemovals() {
+        System.out.println("Test incoming index after removals");
+
+        for (int i = 0; i < co.size(); i++)
+            instance.addEdge(co.get(i), cd.get(i), cw.get(i));
+
+        instance.removeVertex("C");
+        instance.removeEdge("E", "D");
+        instance.addEdge("B", "E", 9);
+
+        for (String v : instance.vertices()) {
+            int expected = 0;
+            for (String o : instance.vertices())
+                if (instance.edge(o, v) != null) expected++;
+            assertEquals(expected, instance.inDegree(v), "inDegree of " + v);
+            assertEquals(expected, instance.incomingEdges(v).size(), "incomingEdges of " + v);
+            for (Edge<String, Integer> e : instance.incomingEdges(v))
+                assertSame(instance.edge(e.getVOrig(), v), e, "incoming edge should be the stored edge");
+        }
+
+        MapGraph<String, Integer> undirected = new MapGraph<>(false);
+        undirected.addEdge("A", "B", 1);
+        undirected.addEdge("B", "C", 2);
+        undirected.removeVertex("B");
+        assertEquals(0, undirected.inDegree("A"), "A lost its only neighbour");
+        assertEquals(0, undirected.incomingEdges("C").size(), "C lost its only neighbour");
+        assertEquals(0, undirected.numEdges(), "No edges should remain");
+    }
+
     /**
      * Test of removeVertex method, of class Graph.
      */
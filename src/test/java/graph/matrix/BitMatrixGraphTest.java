@@ -0,0 +1,106 @@
+package graph.matrix;
+
+import graph.DoubleWeightAlgorithms;
+import graph.Edge;
+import graph.Graph;
+import graph.ShortestPathMatrix;
+import graph.map.MapGraph;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BitMatrixGraphTest {
+
+    private static void assertSameGraph(Graph<Integer, Double> expected, BitMatrixGraph<Integer> g) {
+        assertEquals(expected.numVertices(), g.numVertices());
+        assertEquals(expected.numEdges(), g.numEdges());
+        assertEquals(expected.vertices(), g.vertices());
+        for (Integer v : expected.vertices()) {
+            assertEquals(new HashSet<>(expected.adjVertices(v)), new HashSet<>(g.adjVertices(v)), "adj " + v);
+            assertEquals(expected.outDegree(v), g.outDegree(v), "out " + v);
+            assertEquals(expected.inDegree(v), g.inDegree(v), "in " + v);
+            assertEquals(new HashSet<>(expected.incomingEdges(v)), new HashSet<>(g.incomingEdges(v)), "incoming " + v);
+            for (Edge<Integer, Double> e : expected.outgoingEdges(v)) {
+                Edge<Integer, Double> f = g.edge(e.getVOrig(), e.getVDest());
+                assertNotNull(f);
+                assertEquals(e.getWeight(), f.getWeight());
+                assertEquals(e.getWeight(), g.weight(g.key(e.getVOrig()), g.key(e.getVDest())));
+            }
+        }
+        assertEquals(new HashSet<>(expected.edges()), new HashSet<>(g.edges()));
+    }
+
+    @Test
+    void randomOperationsMatchMatrixGraph() {
+        for (boolean directed : new boolean[]{true, false}) {
+            Random rnd = new Random(directed ? 17 : 18);
+            MatrixGraph<Integer, Double> expected = new MatrixGraph<>(directed);
+            BitMatrixGraph<Integer> g = new BitMatrixGraph<>(directed);
+
+            // enough vertices for rows of several words, with removals in between
+            for (int op = 0; op < 4000; op++) {
+                Integer a = rnd.nextInt(150);
+                Integer b = rnd.nextInt(150);
+                int kind = rnd.nextInt(10);
+                if (kind < 6) {
+                    if (a.equals(b))    // MatrixGraph miscounts undirected self-loops on removal
+                        continue;
+                    double w = rnd.nextInt(100);
+                    assertEquals(expected.addEdge(a, b, w), g.addEdge(a, b, w));
+                } else if (kind < 9) {
+                    assertEquals(expected.removeEdge(a, b), g.removeEdge(a, b));
+                } else {
+                    assertEquals(expected.removeVertex(a), g.removeVertex(a));
+                }
+            }
+            assertSameGraph(expected, g);
+            assertSameGraph(expected, g.clone());
+            assertSameGraph(expected, new BitMatrixGraph<>(expected));
+        }
+    }
+
+    @Test
+    void weightIsInfiniteWithoutEdge() {
+        BitMatrixGraph<String> g = new BitMatrixGraph<>(true);
+        g.addEdge("A", "B", 2.5);
+
+        assertEquals(2.5, g.weight(0, 1));
+        assertEquals(Double.POSITIVE_INFINITY, g.weight(1, 0));
+        assertEquals(Double.POSITIVE_INFINITY, g.weight(0, 7));
+        assertNull(g.edge("B", "A"));
+        assertFalse(g.addEdge("A", "B", 1.0));
+    }
+
+    @Test
+    void minDistanceGraphFromMatrix() {
+        Graph<Integer, Integer> g = new MapGraph<>(true);
+        Random rnd = new Random(19);
+        for (int v = 0; v < 90; v++)
+            g.addVertex(v);
+        for (int e = 0; e < 300; e++)
+            g.addEdge(rnd.nextInt(90), rnd.nextInt(90), 1 + rnd.nextInt(20));
+
+        ShortestPathMatrix<Integer> m = DoubleWeightAlgorithms.minDistMatrix(g, Integer::doubleValue);
+        BitMatrixGraph<Integer> dg = m.toGraph(true);
+
+        ArrayList<Integer> vs = g.vertices();
+        int edges = 0;
+        for (Integer a : vs) {
+            for (Integer b : vs) {
+                double d = m.distance(a, b);
+                Edge<Integer, Double> e = dg.edge(a, b);
+                if (a.equals(b) || d == Double.POSITIVE_INFINITY) {
+                    assertNull(e, a + " -> " + b);
+                } else {
+                    assertEquals(d, e.getWeight(), a + " -> " + b);
+                    edges++;
+                }
+            }
+        }
+        assertEquals(edges, dg.numEdges());
+    }
+}
@@ -134,6 +134,28 @@ public class MatrixGraphTest {
 
         assertEquals(-1, instance.key("Z"), "vertice should not exist");
     }
+
+    /**
+     * Test of key method after vertex removal, of class Graph.
+     */
+    @Test
+    public void testKeyAfterRemoveVertex() {
+        System.out.println("Test key after removeVertex");
+
+        for (int i = 0; i < co.size(); i++)
+            instance.addEdge(co.get(i), cd.get(i), cw.get(i));
+
+        instance.removeVertex("B");
+
+        assertEquals(-1, instance.key("B"), "removed vertex should not have a key");
+        assertFalse(instance.validVertex("B"), "removed vertex should not exist");
+        for (int i = 0; i < instance.numVertices(); i++)
+            assertEquals(i, instance.key(instance.vertex(i)), "keys should be compacted");
+        assertEquals(3, instance.key("E"), "E should move down one position");
+
+        instance.addVertex("B");
+        assertEquals(4, instance.key("B"), "re-added vertex should get the last key");
+    }
     /**
      * Test of testAdjVertices method, of class Graph.
      */
@@ -331,6 +353,24 @@ public class MatrixGraphTest {
         assertEquals(0, coe.size(), "Outgoing edges of vert E should be empty");
     }
 
+    /**
+     * Test of forEachOutEdge method, of class MatrixGraph.
+     */
+    @Test
+    public void testForEachOutEdge() {
+        System.out.println(" Test forEachOutEdge");
+
+        for (int i = 0; i <co.size(); i++)
+            instance.addEdge(co.get(i), cd.get(i), cw.get(i));
+
+        for (String v : ov) {
+            ArrayList <Edge<String,Integer>> visited = new ArrayList<>();
+            instance.forEachOutEdge(v, visited::add);
+            assertEquals(new ArrayList<>(instance.outgoingEdges(v)), visited, "forEachOutEdge should visit every outgoing edge of " + v);
+        }
+        instance.forEachOutEdge("Z", e -> fail("Missing vertex has no edges"));
+    }
+
     /**
      * Test of incomingEdges method, of class Graph.
      */
@@ -395,6 +435,81 @@ public class MatrixGraphTest {
         assertEquals(0, instance.numEdges(), "Num vertices should be 0");
     }
 
+    /**
+     * Test of vertex slot reuse after removeVertex, of class MatrixGraph.
+     */
+    @Test
+    public void testAddVertexAfterRemoveVertex() {
+        System.out.println("Test addVertex after removeVertex");
+
+        for (int i = 0; i <co.size(); i++)
+            instance.addEdge(co.get(i), cd.get(i), cw.get(i));
+
+        instance.removeVertex("B");
+        instance.removeVertex("A");
+        instance.addVertex("F");
+        instance.addVertex("G");
+
+        assertEquals(5, instance.numVertices());
+        assertEquals(4, instance.numEdges());
+        assertEquals(new ArrayList<>(Arrays.asList("C", "D", "E", "F", "G")), instance.vertices());
+        for (int k = 0; k < instance.numVertices(); k++)
+            assertEquals(k, instance.key(instance.vertex(k)));
+
+        // the slots of the removed vertices come back without their edges
+        assertEquals(0, instance.outDegree("F"));
+        assertEquals(0, instance.inDegree("F"));
+        assertEquals(0, instance.outDegree("G"));
+        assertEquals(0, instance.inDegree("G"));
+        assertEquals(Integer.valueOf(4), instance.edge("C", "D").getWeight());
+        assertEquals(Integer.valueOf(5), instance.edge("C", "E").getWeight());
+        assertEquals(Integer.valueOf(7), instance.edge("E", "D").getWeight());
+        assertEquals(Integer.valueOf(8), instance.edge("E", "E").getWeight());
+
+        instance.addEdge("F", "C", 9);
+        assertEquals(Integer.valueOf(9), instance.edge(instance.key("F"), instance.key("C")).getWeight());
+        assertEquals(1, instance.inDegree("C"));
+        assertEquals(5, instance.numEdges());
+    }
+
+    /**
+     * Test of addVertices method, of class MatrixGraph.
+     */
+    @Test
+    public void testAddVertices() {
+        System.out.println("Test addVertices");
+
+        MatrixGraph<Integer, Integer> g = new MatrixGraph<>(false, 0);
+        ArrayList<Integer> vs = new ArrayList<>();
+        for (int i = 0; i < 500; i++)
+            vs.add(i);
+
+        assertTrue(g.addVertices(vs));
+        assertFalse(g.addVertices(vs.subList(0, 10)));
+        assertEquals(500, g.numVertices());
+        for (int i = 0; i < 500; i++)
+            assertEquals(i, g.key(Integer.valueOf(i)));
+
+        // churn through removals and additions, the graph must stay consistent
+        for (int i = 0; i < 500; i += 2)
+            g.addEdge(i, i + 1, i);
+        for (int i = 0; i < 500; i += 3)
+            g.removeVertex(i);
+        for (int i = 500; i < 600; i++)
+            g.addVertex(i);
+
+        assertEquals(500 - 167 + 100, g.numVertices());
+        int edges = 0;
+        for (int i = 0; i < 500; i += 2)
+            if (i % 3 != 0 && (i + 1) % 3 != 0) {
+                assertEquals(Integer.valueOf(i), g.edge(Integer.valueOf(i), Integer.valueOf(i + 1)).getWeight());
+                edges += 2;
+            }
+        assertEquals(edges, g.numEdges());
+        for (int i = 500; i < 600; i++)
+            assertEquals(0, g.outDegree(i));
+    }
+
     /**
      * Test of removeEdge method, of class Graph.
      */
@@ -0,0 +1,58 @@
+package services;
+
+import domain.Order;
+import domain.Warehouse;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvImportServiceTest {
+
+    @Test
+    void importAllFillsTheWarehouse() {
+        Warehouse warehouse = new CsvImportService("").importAll();
+
+        assertEquals(100, warehouse.getAllBays().size());
+        assertEquals(25, warehouse.getItems().size());
+        assertEquals(116, warehouse.getWagons().size());
+        assertEquals(30, warehouse.getReturns().size());
+        assertEquals(40, warehouse.getOrders().size());
+
+        int lines = 0;
+        for (Order o : warehouse.getOrders()) {
+            lines += o.getLines().size();
+            for (int i = 1; i < o.getLines().size(); i++)
+                assertTrue(o.getLines().get(i - 1).getLineNo() <= o.getLines().get(i).getLineNo());
+        }
+        assertEquals(108, lines);
+    }
+
+    @Test
+    void concurrentImportMatchesSerialImport() {
+        CsvImportService service = new CsvImportService("");
+        Warehouse serial = service.importAll();
+        Warehouse concurrent = service.importAllConcurrently(3);
+
+        assertEquals(serial.getAllBays().size(), concurrent.getAllBays().size());
+        assertEquals(serial.getItems().size(), concurrent.getItems().size());
+        assertEquals(serial.getWagons().size(), concurrent.getWagons().size());
+        assertEquals(serial.getReturns().size(), concurrent.getReturns().size());
+        assertEquals(serial.getOrders().size(), concurrent.getOrders().size());
+        for (int i = 0; i < serial.getOrders().size(); i++) {
+            Order a = serial.getOrders().get(i);
+            Order b = concurrent.getOrders().get(i);
+            assertEquals(a.getOrderId(), b.getOrderId());
+            assertEquals(a.getLines().toString(), b.getLines().toString());
+        }
+
+        List<CsvImportService.FileReport> report = service.getLastReport();
+        assertEquals(6, report.size());
+        assertEquals("order_lines.csv", report.get(4).getFile());
+        assertEquals(108, report.get(4).getRows());
+        assertEquals(100, report.get(0).getRows());
+        for (CsvImportService.FileReport r : report)
+            assertTrue(r.getMillis() >= 0);
+    }
+}
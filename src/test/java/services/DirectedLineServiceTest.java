@@ -4,9 +4,13 @@ import domain.RailLine;
 import domain.RailNode;
 import dto.DirectedLineResultDTO;
 import graph.Graph;
+import graph.IncrementalTopologicalOrder;
 import graph.map.MapGraph;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
+import java.util.Collections;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class DirectedLineServiceTest {
@@ -284,4 +288,112 @@ class DirectedLineServiceTest {
         }
     }
 
+    @Test
+    void cycleAnalysisShouldReportAllCyclicStationsAndCondensation() {
+        Graph<RailNode, RailLine> g = newGraph();
+        RailNode a = n("A");
+        RailNode b = n("B");
+        RailNode c = n("C");
+        RailNode d = n("D");
+        RailNode e = n("E");
+        RailNode f = n("F");
+
+        // F → {A → B → C → A} → D → {E ⇄ D}, second cycle reached through the first
+        RailLine ab = new RailLine("A", "B", 1, 0, 0);
+        RailLine bc = new RailLine("B", "C", 1, 0, 0);
+        RailLine ca = new RailLine("C", "A", 1, 0, 0);
+        RailLine cd = new RailLine("C", "D", 1, 0, 0);
+        RailLine de = new RailLine("D", "E", 1, 0, 0);
+        RailLine ed = new RailLine("E", "D", 1, 0, 0);
+        RailLine fa = new RailLine("F", "A", 1, 0, 0);
+        g.addEdge(a, b, ab);
+        g.addEdge(b, c, bc);
+        g.addEdge(c, a, ca);
+        g.addEdge(c, d, cd);
+        g.addEdge(d, e, de);
+        g.addEdge(e, d, ed);
+        g.addEdge(f, a, fa);
+
+        DirectedLineResultDTO result = new DirectedLineService().computeUpgradePlan(g);
+
+        assertTrue(result.hasCycle());
+        assertEquals(2, result.getCycleCount());
+        assertEquals(5, result.getCycleStations().size());
+        assertFalse(result.getCycleStations().contains(f));
+        assertEquals(5, result.getCycleLinks().size());
+        assertTrue(result.getCycleLinks().containsAll(Arrays.asList(ab, bc, ca, de, ed)));
+        assertFalse(result.getCycleLinks().contains(cd));
+
+        // condensation: {F} → {A,B,C} → {D,E}
+        assertEquals(3, result.getComponents().size());
+        assertEquals(Collections.singletonList(f), result.getComponents().get(0));
+        assertEquals(3, result.getComponents().get(1).size());
+        assertEquals(2, result.getComponents().get(2).size());
+        assertEquals(3, result.getCondensation().numVertices());
+        assertEquals(2, result.getCondensation().numEdges());
+        assertEquals(1, result.getCondensation().edge(1, 2).getWeight());
+    }
+
+    @Test
+    void longChainShouldNotOverflowTheStack() {
+        Graph<RailNode, RailLine> g = newGraph();
+        int size = 100_000;
+        RailNode prev = n("N0");
+        g.addVertex(prev);
+        for (int i = 1; i < size; i++) {
+            RailNode next = n("N" + i);
+            g.addEdge(prev, next, new RailLine("N" + (i - 1), "N" + i, 1, 0, 0));
+            prev = next;
+        }
+
+        DirectedLineResultDTO result = new DirectedLineService().computeUpgradePlan(g);
+
+        assertFalse(result.hasCycle());
+        assertEquals(size, result.getUpgradeOrder().size());
+        assertEquals("N0", result.getUpgradeOrder().get(0).getId());
+        assertEquals("N" + (size - 1), result.getUpgradeOrder().get(size - 1).getId());
+    }
+
+    @Test
+    void incrementalPlanShouldFollowLineChanges() {
+        RailNode a = n("A");
+        RailNode b = n("B");
+        RailNode c = n("C");
+        IncrementalTopologicalOrder<RailNode, RailLine> plan = new IncrementalTopologicalOrder<>(newGraph());
+        DirectedLineService service = new DirectedLineService();
+
+        plan.insertEdge(b, c, new RailLine("B", "C", 1, 0, 0));
+        plan.insertEdge(a, b, new RailLine("A", "B", 1, 0, 0));
+        assertEquals(Arrays.asList(a, b, c), service.computeUpgradePlan(plan).getUpgradeOrder());
+
+        plan.insertEdge(c, a, new RailLine("C", "A", 1, 0, 0));
+        DirectedLineResultDTO cyclic = service.computeUpgradePlan(plan);
+        assertTrue(cyclic.hasCycle());
+        assertEquals(3, cyclic.getCycleStations().size());
+
+        plan.removeEdge(b, c);
+        assertEquals(Arrays.asList(c, a, b), service.computeUpgradePlan(plan).getUpgradeOrder());
+    }
+
+    @Test
+    void incrementalPlanShouldFillComponentsAndCondensation() {
+        RailNode a = n("A");
+        RailNode b = n("B");
+        RailNode c = n("C");
+        IncrementalTopologicalOrder<RailNode, RailLine> plan = new IncrementalTopologicalOrder<>(newGraph());
+        plan.insertEdge(b, c, new RailLine("B", "C", 1, 0, 0));
+        plan.insertEdge(a, b, new RailLine("A", "B", 1, 0, 0));
+        plan.insertEdge(a, c, new RailLine("A", "C", 1, 0, 0));
+
+        DirectedLineService service = new DirectedLineService();
+        DirectedLineResultDTO incremental = service.computeUpgradePlan(plan);
+        DirectedLineResultDTO full = service.computeUpgradePlan(plan.graph());
+
+        assertEquals(full.getComponents(), incremental.getComponents());
+        assertNotNull(incremental.getCondensation());
+        assertEquals(full.getCondensation().numVertices(), incremental.getCondensation().numVertices());
+        assertEquals(full.getCondensation().numEdges(), incremental.getCondensation().numEdges());
+        assertEquals(1, incremental.getCondensation().edge(0, 2).getWeight());
+        assertNull(incremental.getCondensation().edge(2, 0));
+    }
 }
@@ -1,5 +1,6 @@
 package services;
 
+import domain.BackboneAlgorithm;
 import domain.RailLine;
 import domain.RailNode;
 import graph.Edge;
@@ -9,6 +10,8 @@ import graph.map.MapGraph;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.Random;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class MinimalBackboneServiceTest {
@@ -237,5 +240,95 @@ class MinimalBackboneServiceTest {
         assertEquals(5, mst.edge(b, c).getWeight().getDistance());
     }
 
+
+    private double totalDistance(Graph<RailNode, RailLine> mst) {
+        double total = 0;
+        for (Edge<RailNode, RailLine> e : mst.edges()) {
+            total += e.getWeight().getDistance();
+        }
+        return total / 2; // each undirected line is stored in both directions
+    }
+
+    @Test
+    void kruskalShouldMatchPrimOnDenseGraph() {
+        Graph<RailNode, RailLine> g = emptyGraphWithEightNodes();
+        RailNode[] v = g.vertices().toArray(new RailNode[0]);
+
+        for (int i = 0; i < v.length; i++) {
+            for (int j = i + 1; j < v.length; j++) {
+                g.addEdge(v[i], v[j], l(v[i].getId(), v[j].getId(), ((i * 7 + j * 13) % 11) + 1));
+            }
+        }
+
+        Graph<RailNode, RailLine> prim = service.computeMinimalBackbone(g, BackboneAlgorithm.PRIM);
+        Graph<RailNode, RailLine> kruskal = service.computeMinimalBackbone(g, BackboneAlgorithm.KRUSKAL);
+
+        assertEquals(prim.numVertices(), kruskal.numVertices());
+        assertEquals(prim.numEdges(), kruskal.numEdges());
+        assertEquals(totalDistance(prim), totalDistance(kruskal), 1e-9);
+    }
+
+    @Test
+    void kruskalShouldDropIsolatedVertices() {
+        Graph<RailNode, RailLine> g = new MapGraph<>(false);
+        RailNode a = n("A");
+        RailNode b = n("B");
+        RailNode c = n("C");
+        RailNode d = n("D");
+
+        g.addVertex(a);
+        g.addVertex(b);
+        g.addVertex(c);
+        g.addVertex(d);
+        g.addEdge(a, b, l("A", "B", 1));
+        g.addEdge(b, c, l("B", "C", 2));
+        g.addEdge(a, c, l("A", "C", 3));
+
+        Graph<RailNode, RailLine> mst = service.computeMinimalBackbone(g, BackboneAlgorithm.KRUSKAL);
+
+        assertEquals(3, mst.numVertices());
+        assertFalse(mst.validVertex(d));
+        assertEquals(2, mst.numEdges() / 2);
+        assertNull(mst.edge(a, c));
+    }
+
+    private Graph<RailNode, RailLine> randomNetwork(int vertices, int extraLines, long seed) {
+        Random rnd = new Random(seed);
+        Graph<RailNode, RailLine> g = new MapGraph<>(false);
+        RailNode[] v = new RailNode[vertices];
+        for (int i = 0; i < vertices; i++) {
+            v[i] = n("S" + i);
+            g.addVertex(v[i]);
+        }
+        // a few stations stay isolated, the rest form several components
+        for (int i = 1; i < vertices - 3; i++) {
+            int j = rnd.nextInt(i);
+            g.addEdge(v[i], v[j], l(v[i].getId(), v[j].getId(), rnd.nextInt(50) + 1));
+        }
+        for (int k = 0; k < extraLines; k++) {
+            int i = rnd.nextInt(vertices - 3);
+            int j = rnd.nextInt(vertices - 3);
+            if (i != j) {
+                g.addEdge(v[i], v[j], l(v[i].getId(), v[j].getId(), rnd.nextInt(50) + 1));
+            }
+        }
+        return g;
+    }
+
+    @Test
+    void boruvkaShouldProduceSameBackboneAsKruskal() {
+        for (int vertices : new int[]{10, 100, 1000}) {
+            Graph<RailNode, RailLine> g = randomNetwork(vertices, vertices * 3, vertices);
+
+            Graph<RailNode, RailLine> kruskal = service.computeMinimalBackbone(g, BackboneAlgorithm.KRUSKAL);
+            Graph<RailNode, RailLine> boruvka = service.computeMinimalBackbone(g, BackboneAlgorithm.BORUVKA);
+            Graph<RailNode, RailLine> prim = service.computeMinimalBackbone(g, BackboneAlgorithm.PRIM);
+
+            assertEquals(kruskal, boruvka, "same backbone for " + vertices + " vertices");
+            assertEquals(vertices - 3, boruvka.numVertices());
+            assertEquals(totalDistance(prim), totalDistance(boruvka), 1e-9);
+        }
+    }
+
 }
 
@@ -0,0 +1,35 @@
+package utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvReaderTest {
+
+    @Test
+    void forEachLineStreamsRowsAfterTheHeader(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("rows.csv");
+        Files.write(file, List.of("a,b", "1,2", "3,4,,", "", "5"));
+
+        List<String> lines = new ArrayList<>();
+        assertEquals(5, CsvReader.forEachLine(file.toString(), lines::add));
+        assertEquals(List.of("1,2", "3,4,,", "", "5"), lines);
+
+        List<Integer> lengths = new ArrayList<>();
+        CsvReader.forEachRow(file.toString(), row -> lengths.add(row.length));
+        assertEquals(List.of(2, 2, 1, 1), lengths);
+
+        Path empty = dir.resolve("empty.csv");
+        Files.write(empty, new byte[0]);
+        assertEquals(0, CsvReader.forEachLine(empty.toString(), line -> fail()));
+        assertThrows(RuntimeException.class, () -> CsvReader.readBays(empty.toString()));
+        assertThrows(RuntimeException.class, () -> CsvReader.forEachRow(dir.resolve("missing.csv").toString(), row -> { }));
+    }
+}
@@ -0,0 +1,206 @@
+package utils;
+
+import domain.RailLine;
+import domain.RailNode;
+import domain.Station;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Locale;
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvTokenizerTest {
+
+    private static CsvTokenizer tokenizer(String text, boolean parenthesisAware) {
+        return new CsvTokenizer(ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)), ',', parenthesisAware);
+    }
+
+    @Test
+    void rowsSplitLikeTheRegex() {
+        Random rnd = new Random(22);
+        String alphabet = "ab,,(),\"  1.";
+        for (int t = 0; t < 20000; t++) {
+            StringBuilder sb = new StringBuilder();
+            int len = rnd.nextInt(14);
+            for (int i = 0; i < len; i++)
+                sb.append(alphabet.charAt(rnd.nextInt(alphabet.length())));
+            String line = sb.toString();
+
+            String cleaned = line.replace("\"", "").trim();
+            String[] expected = cleaned.split(",(?![^()]*\\))");
+            String[] expectedAll = cleaned.split(",(?![^()]*\\))", -1);
+
+            CsvTokenizer row = tokenizer(line + "\n", true);
+            assertTrue(row.nextRow());
+            assertEquals(expected.length, row.splitCount(), "[" + line + "]");
+            assertEquals(expectedAll.length, row.fieldCount(), "[" + line + "]");
+            for (int f = 0; f < expectedAll.length; f++) {
+                assertEquals(expectedAll[f].trim(), row.text(f), "[" + line + "] field " + f);
+                assertEquals(expectedAll[f].trim().isEmpty(), row.isBlank(f), "[" + line + "] field " + f);
+            }
+            assertFalse(row.nextRow());
+        }
+    }
+
+    @Test
+    void plainSplitAndLineEnds() {
+        CsvTokenizer row = tokenizer("a,(b,c)\r\n\rx, y ,\nlast", false);
+
+        assertTrue(row.nextRow());
+        assertEquals(3, row.fieldCount());
+        assertEquals("(b", row.text(1));
+        assertTrue(row.nextRow());      // empty line between \r\n and \r
+        assertEquals(1, row.fieldCount());
+        assertTrue(row.isBlank(0));
+        assertTrue(row.nextRow());
+        assertEquals(3, row.fieldCount());
+        assertEquals(2, row.splitCount());
+        assertEquals("y", row.text(1));
+        assertTrue(row.nextRow());
+        assertEquals("last", row.text(0));
+        assertFalse(row.nextRow());
+    }
+
+    @Test
+    void numbersParseLikeTheJdk() {
+        Random rnd = new Random(23);
+        StringBuilder sb = new StringBuilder();
+        String[] values = new String[5000];
+        for (int i = 0; i < values.length; i++) {
+            switch (i % 5) {
+                case 0: values[i] = Double.toString(rnd.nextDouble() * 360 - 180); break;
+                case 1: values[i] = String.format(Locale.ROOT, "%.6f", rnd.nextDouble() * 180 - 90); break;
+                case 2: values[i] = Integer.toString(rnd.nextInt()); break;
+                case 3: values[i] = "\"" + (rnd.nextInt(2000) - 1000) + "." + rnd.nextInt(100) + "\""; break;
+                default: values[i] = String.format(Locale.ROOT, "%.5f", rnd.nextDouble()) + "e" + (rnd.nextInt(40) - 20); break;
+            }
+            sb.append(values[i]).append('\n');
+        }
+
+        CsvTokenizer row = tokenizer(sb.toString(), true);
+        for (String v : values) {
+            assertTrue(row.nextRow());
+            String plain = v.replace("\"", "");
+            assertEquals(Double.parseDouble(plain), row.parseDouble(0), v);
+            if (!plain.contains(".") && !plain.contains("e"))
+                assertEquals(Integer.parseInt(plain), row.parseInt(0), v);
+        }
+
+        CsvTokenizer bad = tokenizer("-,1.2.3,abc, TRUE ,false,truex,2147483648", true);
+        bad.nextRow();
+        assertThrows(NumberFormatException.class, () -> bad.parseDouble(0));
+        assertThrows(NumberFormatException.class, () -> bad.parseDouble(1));
+        assertThrows(NumberFormatException.class, () -> bad.parseInt(2));
+        assertTrue(bad.parseBoolean(3));
+        assertFalse(bad.parseBoolean(4));
+        assertFalse(bad.parseBoolean(5));
+        assertThrows(NumberFormatException.class, () -> bad.parseInt(6));
+    }
+
+    @Test
+    void stationLoaderKeepsTheValidationRules(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("stations.csv");
+        Files.write(file, List.of(
+                "country,time_zone,time_zone_group,name,latitude,longitude,is_city,is_main_station,is_airport",
+                "PT,\"('Europe/Lisbon', 'WET')\",WET,\"Lisboa Oriente\",38.7678,-9.0990,True,True,False",
+                "ES,(Europe/Madrid),CET,Madrid Atocha, 40.4066 , -3.6892 ,true,false,",     // no airport flag: malformed
+                "FR,(Europe/Paris),CET,,48.8,2.3,True,False,False",                         // no name
+                "FR,(Europe/Paris),CET,Paris Nord,,2.3,True,False,False",                   // no latitude
+                "FR,(Europe/Paris),CET,Nowhere,91.5,2.3,True,False,False",                  // out of range
+                "DE,(Europe/Berlin),CET,Berlin Hbf,52.5a,13.3,True,True,False",             // bad number
+                "",
+                "ÇH,(Europe/Zurich),CET,Zürich HB,47.3779,8.5403,true,TRUE,false"), StandardCharsets.UTF_8);
+
+        List<Station> list = StationCSVLoader.loadValidStationsList(file.toString());
+
+        assertEquals(2, list.size());
+        Station lisboa = list.get(0);
+        assertEquals("Lisboa Oriente", lisboa.getStationName());
+        assertEquals("Europe/Lisbon WET", lisboa.getTimeZone());
+        assertEquals("WET", lisboa.getTimeZoneGroup());
+        assertEquals(38.7678, lisboa.getLatitude());
+        assertEquals(-9.0990, lisboa.getLongitude());
+        assertTrue(lisboa.isCity());
+        assertFalse(lisboa.isAirport());
+
+        Station zurich = list.get(1);
+        assertEquals("Zürich HB", zurich.getStationName());
+        assertEquals("ÇH", zurich.getCountry());
+        assertTrue(zurich.isMainStation());
+    }
+
+    @Test
+    void parallelSlicesKeepFileOrder() {
+        Random rnd = new Random(24);
+        StringBuilder sb = new StringBuilder("header,row\n");
+        int rows = 5000;
+        for (int i = 0; i < rows; i++) {
+            sb.append(i).append(",(x,").append(rnd.nextInt(100)).append(")");
+            sb.append(i % 3 == 0 ? "\r\n" : i % 3 == 1 ? "\n" : "\r");
+        }
+        ByteBuffer buf = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+
+        Function<CsvTokenizer, List<Integer>> firstFields = row -> {
+            List<Integer> values = new ArrayList<>();
+            while (row.nextRow()) {
+                assertEquals(2, row.fieldCount());
+                values.add(row.parseInt(0));
+            }
+            return values;
+        };
+
+        for (int minChunk : new int[]{1, 7, 100, 1 << 20}) {
+            List<List<Integer>> chunks = CsvTokenizer.parseChunks(buf, ',', true, true, firstFields, minChunk);
+            int next = 0;
+            for (List<Integer> chunk : chunks)
+                for (int v : chunk)
+                    assertEquals(next++, v, "min chunk " + minChunk);
+            assertEquals(rows, next);
+        }
+    }
+
+    @Test
+    void railFilesReadTheSameInParallel() throws IOException {
+        String stationsFile = "src/main/resources/data/stations.csv";
+        String linesFile = "src/main/resources/data/lines.csv";
+        StationsCsvReader stations = new StationsCsvReader();
+        LinesCsvReader lines = new LinesCsvReader();
+
+        assertEquals(559, stations.readStations(stationsFile).size());
+        assertEquals(List.copyOf(stations.readStations(stationsFile).keySet()),
+                List.copyOf(stations.readStations(stationsFile, true).keySet()));
+
+        List<RailLine> serial = lines.readLines(linesFile);
+        List<RailLine> parallel = lines.readLines(linesFile, true);
+        assertEquals(691, serial.size());
+        assertEquals(serial.size(), parallel.size());
+
+        // fresh tables get the same indexes whichever way the file is read
+        List<RailLine> parallelFresh = new LinesCsvReader().readLines(linesFile, true);
+        for (int i = 0; i < serial.size(); i++) {
+            assertEquals(serial.get(i).getFromIndex(), parallelFresh.get(i).getFromIndex());
+            assertEquals(serial.get(i).getToIndex(), parallelFresh.get(i).getToIndex());
+        }
+        Map<String, RailNode> serialStations = new StationsCsvReader().readStations(stationsFile);
+        Map<String, RailNode> parallelStations = new StationsCsvReader().readStations(stationsFile, true);
+        for (RailNode node : serialStations.values())
+            assertEquals(node.getIndex(), parallelStations.get(node.getId()).getIndex());
+
+        for (int i = 0; i < serial.size(); i++) {
+            assertEquals(serial.get(i).getFromIndex(), parallel.get(i).getFromIndex());
+            assertEquals(serial.get(i).getDistance(), parallel.get(i).getDistance());
+            assertEquals(serial.get(i).getCapacity(), parallel.get(i).getCapacity());
+        }
+    }
+}
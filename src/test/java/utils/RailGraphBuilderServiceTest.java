@@ -2,12 +2,15 @@ package utils;
 
 import domain.RailLine;
 import domain.RailNode;
+import domain.StationIds;
+import graph.Edge;
 import graph.Graph;
 import services.RailGraphBuilderService;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -243,7 +246,76 @@ class RailGraphBuilderServiceTest {
                 assertEquals(11, graph.edge(f, c).getWeight().getDistance());
                 assertEquals(17, graph.edge(k, l).getWeight().getDistance());
         }
-}
 
+        @Test
+        void graphsOfTwoLoadsShouldShareStations() throws IOException {
+                StationIds ids = new StationIds();
+                StationsCsvReader stationsReader = new StationsCsvReader(ids);
+                LinesCsvReader linesReader = new LinesCsvReader(ids);
+                String stationsFile = "src/main/resources/data/stations.csv";
+                String linesFile = "src/main/resources/data/lines.csv";
+
+                Graph<RailNode, RailLine> first = service.buildDirectedGraph(
+                                stationsReader.readStations(stationsFile), linesReader.readLines(linesFile));
+                Map<String, RailNode> reloaded = stationsReader.readStations(stationsFile);
+                Graph<RailNode, RailLine> second = service.buildDirectedGraph(reloaded, linesReader.readLines(linesFile));
+
+                // stations of one load find their vertices and edges in the other
+                assertEquals(first, second);
+                RailNode v = first.vertex(0);
+                assertNotSame(v, reloaded.get(v.getId()));
+                assertEquals(v, reloaded.get(v.getId()));
+                assertEquals(v.getIndex(), reloaded.get(v.getId()).getIndex());
+                assertEquals(first.outDegree(v), second.outDegree(reloaded.get(v.getId())));
+
+                Graph<Integer, RailLine> indexed = service.buildIndexedDirectedGraph(reloaded, linesReader.readLines(linesFile));
+                assertEquals(first.numVertices(), indexed.numVertices());
+                assertEquals(first.numEdges(), indexed.numEdges());
+                for (Edge<RailNode, RailLine> e : first.edges()) {
+                        Edge<Integer, RailLine> byIndex = indexed.edge(
+                                        Integer.valueOf(e.getVOrig().getIndex()), Integer.valueOf(e.getVDest().getIndex()));
+                        assertNotNull(byIndex);
+                        assertEquals(e.getWeight().getDistance(), byIndex.getWeight().getDistance());
+                }
+        }
+
+        @Test
+        void shouldUseTheGivenIdTable() {
+                StationIds ids = new StationIds();
+                RailNode a = new RailNode("A", "Station A", 0, 0, 0, 0, ids);
+                RailNode b = new RailNode("B", "Station B", 0, 0, 0, 0, ids);
+                RailLine line = new RailLine("A", "B", 3, 10, 1, ids);
+
+                assertEquals(0, a.getIndex());
+                assertEquals(1, line.getToIndex());
+                assertSame(a.getId(), line.getFromStationId());
+
+                Graph<RailNode, RailLine> graph = new RailGraphBuilderService()
+                                .buildDirectedGraph(Map.of("A", a, "B", b), List.of(line));
+                assertEquals(1, graph.numEdges());
+                assertNotNull(graph.edge(a, b));
+        }
+
+        @Test
+        void linesOfAnotherTableShouldBeMatchedById() {
+                StationIds ids = new StationIds();
+                StationIds other = new StationIds();
+                other.intern("X");      // so that the indexes of the two tables differ
+                RailNode a = new RailNode("A", "Station A", 0, 0, 0, 0, ids);
+                RailNode b = new RailNode("B", "Station B", 0, 0, 0, 0, ids);
+                RailLine line = new RailLine("A", "B", 3, 10, 1, other);
+                assertNotEquals(a.getIndex(), line.getFromIndex());
+
+                Graph<RailNode, RailLine> graph = service.buildDirectedGraph(Map.of("A", a, "B", b), List.of(line));
+                assertEquals(1, graph.numEdges());
+                assertNotNull(graph.edge(a, b));
 
+                Graph<Integer, RailLine> indexed = service.buildIndexedDirectedGraph(Map.of("A", a, "B", b), List.of(line));
+                assertNotNull(indexed.edge(Integer.valueOf(a.getIndex()), Integer.valueOf(b.getIndex())));
 
+                RailNode loose = new RailNode("C", "Station C", 0, 0, 0, 0);
+                assertEquals(-1, loose.getIndex());
+                assertThrows(IllegalArgumentException.class,
+                                () -> service.buildIndexedDirectedGraph(Map.of("A", a, "C", loose), List.of(line)));
+        }
+}
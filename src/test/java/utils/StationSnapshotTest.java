@@ -0,0 +1,229 @@
+package utils;
+
+import domain.Station;
+import domain.StationByLat;
+import domain.StationByLon;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import services.KDTreeService;
+import services.StationIndexService;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StationSnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    private Path writeStationsCsv(int n) throws IOException {
+        return writeStationsCsv(dir.resolve("stations.csv"), n);
+    }
+
+    private Path writeStationsCsv(Path csv, int n) throws IOException {
+        String[][] zones = {{"PT", "Europe/Lisbon", "WET/GMT"}, {"ES", "Europe/Madrid", "CET"},
+                {"FR", "Europe/Paris", "CET"}, {"FI", "Europe/Helsinki", "EET"}};
+        Random rnd = new Random(7);
+        List<String> lines = new ArrayList<>();
+        lines.add("country,time_zone,time_zone_group,station,latitude,longitude,is_city,is_main_station,is_airport");
+        for (int i = 0; i < n; i++) {
+            String[] z = zones[rnd.nextInt(zones.length)];
+            // some stations share coordinates, to have buckets with several stations
+            int cell = rnd.nextInt(n / 2);
+            lines.add(String.format(Locale.ROOT, "%s,('%s',),%s,Station %d,%.5f,%.5f,%b,%b,%b",
+                    z[0], z[1], z[2], i, 35 + cell % 30 * 0.7, -10 + cell / 30 * 0.9,
+                    rnd.nextBoolean(), rnd.nextBoolean(), rnd.nextBoolean()));
+        }
+        Files.createDirectories(csv.getParent());
+        Files.write(csv, lines, StandardCharsets.UTF_8);
+        return csv;
+    }
+
+    @Test
+    void snapshotRestoresTheSameTrees() throws IOException {
+        Path csv = writeStationsCsv(500);
+        String snapshot = dir.resolve("stations.snapshot").toString();
+
+        StationIndexService fromCsv = new StationIndexService();
+        fromCsv.loadFromCSV(csv.toString(), snapshot);
+        assertTrue(Files.isRegularFile(Path.of(snapshot)));
+        KDTreeService kdFromCsv = new KDTreeService();
+        kdFromCsv.buildFromIndex(fromCsv);
+
+        StationIndexService fromSnapshot = new StationIndexService();
+        fromSnapshot.loadFromCSV(csv.toString(), snapshot);
+        assertNotNull(fromSnapshot.getKDTree());
+        KDTreeService kdFromSnapshot = new KDTreeService();
+        kdFromSnapshot.buildFromIndex(fromSnapshot);
+        assertSame(fromSnapshot.getKDTree(), kdFromSnapshot.getKDTree());
+
+        // same shape: same elements in the same preorder
+        assertEquals(details(fromCsv.getTzTree().preOrder()), details(fromSnapshot.getTzTree().preOrder()));
+        assertEquals(fromCsv.getLatTree().preOrder().toString(), fromSnapshot.getLatTree().preOrder().toString());
+        assertEquals(fromCsv.getLonTree().preOrder().toString(), fromSnapshot.getLonTree().preOrder().toString());
+        assertEquals(fromCsv.getTzTree().height(), fromSnapshot.getTzTree().height());
+
+        // stations are shared by the trees, as when built from the CSV
+        StationByLat first = fromSnapshot.getLatTree().inOrder().iterator().next();
+        boolean shared = false;
+        for (Station s : fromSnapshot.getTzTree().inOrder())
+            shared |= s == first.s;
+        assertTrue(shared);
+
+        assertEquals(kdFromCsv.getSize(), kdFromSnapshot.getSize());
+        assertEquals(kdFromCsv.getHeight(), kdFromSnapshot.getHeight());
+        assertEquals(kdFromCsv.getDistinctBucketSizes().toString(), kdFromSnapshot.getDistinctBucketSizes().toString());
+        for (StationByLon s : fromCsv.getLonTree().inOrder()) {
+            double lat = s.s.getLatitude(), lon = s.s.getLongitude();
+            assertArrayEquals(kdFromCsv.getBucketFor(lat, lon), kdFromSnapshot.getBucketFor(lat, lon));
+        }
+
+        assertEquals(details(fromCsv.getStationsByLatLonWindow(38, 50, -5, 5)),
+                details(fromSnapshot.getStationsByLatLonWindow(38, 50, -5, 5)));
+        assertEquals(fromCsv.getAllTimeZoneGroups().toString(), fromSnapshot.getAllTimeZoneGroups().toString());
+    }
+
+    @Test
+    void invalidSnapshotIsRejected() throws IOException {
+        Path csv = writeStationsCsv(40);
+        Path snapshot = dir.resolve("stations.snapshot");
+        Files.write(snapshot, "not a snapshot".getBytes(StandardCharsets.UTF_8));
+        assertThrows(IOException.class, () -> StationSnapshot.read(snapshot.toString()));
+
+        // a truncated snapshot is rejected too
+        StationIndexService service = new StationIndexService();
+        service.loadFromCSV(csv.toString());
+        service.saveSnapshot(snapshot.toString());
+        byte[] bytes = Files.readAllBytes(snapshot);
+        Files.write(snapshot, Arrays.copyOf(bytes, bytes.length / 2));
+        assertThrows(IOException.class, () -> StationSnapshot.read(snapshot.toString()));
+
+        // and the CSV is loaded again, rewriting the snapshot
+        StationIndexService reloaded = new StationIndexService();
+        reloaded.loadFromCSV(csv.toString(), snapshot.toString());
+        assertEquals(service.getTzTree().size(), reloaded.getTzTree().size());
+        assertEquals(service.getTzTree().size(), StationSnapshot.read(snapshot.toString()).getTzTree().size());
+    }
+
+    @Test
+    void snapshotOfAnotherCsvIsNotUsed() throws IOException {
+        Path csv = writeStationsCsv(200);
+        String snapshot = dir.resolve("stations.snapshot").toString();
+        StationIndexService service = new StationIndexService();
+        service.loadFromCSV(csv.toString(), snapshot);
+        int stations = service.getTzTree().size();
+
+        // same name, other folder
+        Path other = writeStationsCsv(dir.resolve("other").resolve("stations.csv"), 40);
+        StationIndexService fromOther = new StationIndexService();
+        fromOther.loadFromCSV(other.toString(), snapshot);
+        assertTrue(fromOther.getTzTree().size() < stations, "Loaded from the CSV, not from the snapshot");
+
+        // the snapshot now belongs to the other CSV
+        assertTrue(StationSnapshot.read(snapshot).isSnapshotOf(other.toString()));
+        assertFalse(StationSnapshot.read(snapshot).isSnapshotOf(csv.toString()));
+        assertThrows(IOException.class, () -> StationSnapshot.read(snapshot, csv.toString()));
+
+        // replaced by a file with an older modification time
+        FileTime before = Files.getLastModifiedTime(other);
+        writeStationsCsv(other, 60);
+        Files.setLastModifiedTime(other, FileTime.fromMillis(before.toMillis() - 60_000));
+        StationIndexService replaced = new StationIndexService();
+        replaced.loadFromCSV(other.toString(), snapshot);
+        StationIndexService fresh = new StationIndexService();
+        fresh.loadFromCSV(other.toString());
+        assertEquals(fresh.getTzTree().size(), replaced.getTzTree().size());
+        assertNotEquals(fromOther.getTzTree().size(), replaced.getTzTree().size());
+    }
+
+    @Test
+    void hostileSnapshotsAreReportedAsCorrupt() throws IOException {
+        // negative counts
+        assertCorrupt(out -> out.writeInt(-5));
+        assertCorrupt(out -> {
+            writeString(out, "");
+            out.writeLong(-1);
+            out.writeLong(-1);
+            out.writeInt(-5);
+        });
+        // more strings than the file can hold
+        assertCorrupt(out -> {
+            writeString(out, "");
+            out.writeLong(-1);
+            out.writeLong(-1);
+            out.writeInt(Integer.MAX_VALUE);
+        });
+
+        // a valid station table whose tree is a chain far deeper than any AVL
+        int n = 200_000;
+        assertCorrupt(out -> {
+            writeString(out, "");
+            out.writeLong(-1);
+            out.writeLong(-1);
+            out.writeInt(4);
+            for (String str : new String[]{"S", "PT", "tz", "WET/GMT"})
+                writeString(out, str);
+            out.writeInt(n);
+            for (int column = 0; column < 4; column++)
+                for (int i = 0; i < n; i++)
+                    out.writeInt(column);
+            for (int i = 0; i < 2 * n; i++)
+                out.writeDouble(1.0);
+            for (int i = 0; i < n; i++)
+                out.writeByte(0);
+            for (int i = 0; i < n; i++) {
+                out.writeInt(i);
+                out.writeInt(-1);
+            }
+            out.writeInt(-1);
+        });
+    }
+
+    private interface Body {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    // a snapshot with a valid magic and version followed by body
+    private void assertCorrupt(Body body) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(0x53544E53);
+            out.writeInt(2);
+            body.write(out);
+        }
+        Path file = dir.resolve("hostile.snapshot");
+        Files.write(file, bytes.toByteArray());
+
+        IOException e = assertThrows(IOException.class, () -> StationSnapshot.read(file.toString()));
+        assertTrue(e.getMessage().startsWith("Corrupt station snapshot"), e.getMessage());
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(b.length);
+        out.write(b);
+    }
+
+    // every field of the stations, Station.toString may not show them all
+    private static String details(Iterable<Station> stations) {
+        StringBuilder sb = new StringBuilder();
+        for (Station s : stations)
+            sb.append(s.getStationName()).append('|').append(s.getCountry()).append('|')
+              .append(s.getTimeZone()).append('|').append(s.getTimeZoneGroup()).append('|')
+              .append(s.getLatitude()).append('|').append(s.getLongitude()).append('|')
+              .append(s.isCity()).append(s.isMainStation()).append(s.isAirport()).append('\n');
+        return sb.toString();
+    }
+}